@@ -3,12 +3,14 @@ package nl.tudelft.sem.template.example;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Example microservice application.
  */
 @SpringBootApplication
 @EntityScan(basePackages = {"nl.tudelft.sem.template.example", "nl.tudelft.sem.template"})
+@EnableScheduling
 public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
@@ -0,0 +1,244 @@
+package nl.tudelft.sem.template.example.cache;
+
+import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of books in front of the BookRepository, bounded in size and managed
+ * with W-TinyLFU.
+ * New books enter a small LRU window. A book pushed out of the window only gets into the main
+ * space if it has been asked for more often than the book the main space would evict for it,
+ * as estimated by a frequency sketch, so a burst of one-off lookups cannot flush the popular books.
+ * The main space is a segmented LRU: books hit again while on probation move to the protected segment.
+ * Callers always get their own copy of a book, so changing it never changes the cache.
+ */
+@Component
+public class BookCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final BookRepository catalog;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final FrequencySketch sketch;
+
+    //access-ordered: the first entry is the least recently used one
+    private final LinkedHashMap<UUID, Book> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, Book> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, Book> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    //bumped on every invalidation, so a load that raced with one is not cached
+    private long generation = 0;
+
+    /**
+     * Constructor for the BookCache, holding at most DEFAULT_CAPACITY books.
+     *
+     * @param catalog the book repository to read through to
+     */
+    @Autowired
+    public BookCache(BookRepository catalog) {
+        this(catalog, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for the BookCache.
+     *
+     * @param catalog  the book repository to read through to
+     * @param capacity the maximum number of books to keep, at least 1
+     */
+    public BookCache(BookRepository catalog, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.catalog = catalog;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Gets a book, loading it from the repository if it is not cached.
+     *
+     * @param bookId the id of the book
+     * @return a copy of the book, or an empty optional if it doesn't exist
+     */
+    public Optional<Book> get(UUID bookId) {
+        long loadGeneration;
+        synchronized (this) {
+            sketch.increment(bookId.hashCode());
+            Book cached = lookup(bookId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(copy(cached));
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation;
+        }
+
+        Optional<Book> loaded = catalog.findById(bookId);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        Book book = copy(loaded.get());
+        synchronized (this) {
+            if (generation == loadGeneration && !contains(bookId)) {
+                admit(bookId, book);
+            }
+        }
+        return Optional.of(copy(book));
+    }
+
+    /**
+     * Drops a book from the cache, after it was changed or deleted.
+     *
+     * @param bookId the id of the book
+     */
+    public synchronized void invalidate(UUID bookId) {
+        generation++;
+        if (window.remove(bookId) == null && probation.remove(bookId) == null) {
+            protectedSegment.remove(bookId);
+        }
+    }
+
+    /**
+     * Drops every book from the cache and forgets their popularity.
+     */
+    public synchronized void clear() {
+        generation++;
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        sketch.clear();
+    }
+
+    /**
+     * Gets the number of books in the cache.
+     *
+     * @return the number of cached books
+     */
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Gets the number of lookups that were answered from the cache.
+     *
+     * @return the number of hits since the application started
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to go to the repository.
+     *
+     * @return the number of misses since the application started
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of books that were dropped, or not admitted, to stay within the capacity.
+     *
+     * @return the number of evictions since the application started
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private boolean contains(UUID bookId) {
+        return window.containsKey(bookId) || probation.containsKey(bookId) || protectedSegment.containsKey(bookId);
+    }
+
+    /**
+     * Finds a cached book and records the hit in its segment.
+     * Must be called while holding the lock.
+     */
+    private Book lookup(UUID bookId) {
+        Book book = window.get(bookId);
+        if (book != null) {
+            return book;
+        }
+        book = protectedSegment.get(bookId);
+        if (book != null) {
+            return book;
+        }
+        book = probation.remove(bookId);
+        if (book != null) {
+            // a second hit promotes the book; the protected segment makes room by demoting its oldest book
+            protectedSegment.put(bookId, book);
+            if (protectedSegment.size() > protectedCapacity) {
+                Map.Entry<UUID, Book> demoted = removeEldest(protectedSegment);
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return book;
+    }
+
+    /**
+     * Adds a loaded book to the window and lets the book it pushes out compete for the main space.
+     * Must be called while holding the lock.
+     */
+    private void admit(UUID bookId, Book book) {
+        window.put(bookId, book);
+        if (window.size() <= windowCapacity) {
+            return;
+        }
+
+        Map.Entry<UUID, Book> candidate = removeEldest(window);
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        LinkedHashMap<UUID, Book> victims = probation.isEmpty() ? protectedSegment : probation;
+        if (victims.isEmpty()) {
+            // only possible with a capacity of 1, when there is no main space at all
+            evictions.incrementAndGet();
+            return;
+        }
+        UUID victim = victims.keySet().iterator().next();
+        if (sketch.frequency(candidate.getKey().hashCode()) > sketch.frequency(victim.hashCode())) {
+            victims.remove(victim);
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+        evictions.incrementAndGet();
+    }
+
+    private static Map.Entry<UUID, Book> removeEldest(LinkedHashMap<UUID, Book> segment) {
+        Iterator<Map.Entry<UUID, Book>> iterator = segment.entrySet().iterator();
+        Map.Entry<UUID, Book> eldest = iterator.next();
+        Map.Entry<UUID, Book> result = Map.entry(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+        return result;
+    }
+
+    private static Book copy(Book book) {
+        return new Book()
+                .bookId(book.getBookId())
+                .title(book.getTitle())
+                .authors(book.getAuthors() == null ? null : new ArrayList<>(book.getAuthors()))
+                .genres(book.getGenres() == null ? null : new ArrayList<>(book.getGenres()))
+                .description(book.getDescription())
+                .numPages(book.getNumPages())
+                .version(book.getVersion())
+                .titleFolded(book.getTitleFolded())
+                .authorsFolded(book.getAuthorsFolded());
+    }
+}
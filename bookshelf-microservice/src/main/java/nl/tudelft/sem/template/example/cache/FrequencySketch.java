@@ -0,0 +1,90 @@
+package nl.tudelft.sem.template.example.cache;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch that estimates how often keys were seen recently, the TinyLFU part of the book cache.
+ * Counters saturate at 15, and all of them are halved once as many increments as ten times the
+ * capacity have been recorded, so keys that were popular long ago slowly lose their weight.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int MAX_WIDTH = 1 << 26;
+    private static final int[] SEEDS = {0x97cb3127, 0x9e3779b9, 0x7f4a7c15, 0xc2b2ae35};
+
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Constructor for the FrequencySketch.
+     *
+     * @param capacity the number of keys the sketch is sized for, at least 1
+     */
+    FrequencySketch(int capacity) {
+        // four counters per key keep the collisions, and so the overestimates, rare
+        int width = Integer.highestOneBit(Math.min(MAX_WIDTH, Math.max(16, 4 * capacity - 1)) << 1);
+        this.table = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * Math.max(1, capacity);
+    }
+
+    /**
+     * Records one access to a key.
+     *
+     * @param hash the hash code of the key
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (table[row][index] < MAX_COUNT) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Estimates how often a key was accessed recently.
+     *
+     * @param hash the hash code of the key
+     * @return the estimated number of accesses, at most 15
+     */
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[row][indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Forgets every recorded access.
+     */
+    void clear() {
+        for (byte[] row : table) {
+            Arrays.fill(row, (byte) 0);
+        }
+        additions = 0;
+    }
+
+    private void reset() {
+        for (byte[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+        return (h ^ (h >>> 15)) & mask;
+    }
+}
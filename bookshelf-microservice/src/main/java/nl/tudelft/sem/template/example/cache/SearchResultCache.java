@@ -0,0 +1,171 @@
+package nl.tudelft.sem.template.example.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the ids of the books that match a title/author search, bounded in size and evicted LRU.
+ * Searches are keyed on their mode as well, such as whether they tolerate typos and which genres they
+ * filter on, so that the different kinds of search over the same query don't share results.
+ * Every entry remembers the generation of the catalog it was computed for. Writes to the catalog bump
+ * the generation instead of looking for the entries they affect, so an entry computed before the
+ * latest write is never served again and simply ages out.
+ */
+public class SearchResultCache {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final AtomicLong generation = new AtomicLong();
+
+    //access-ordered: the first entry is the least recently used one
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructor for the SearchResultCache, holding at most DEFAULT_CAPACITY searches.
+     */
+    public SearchResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for the SearchResultCache.
+     *
+     * @param capacity the maximum number of searches to keep, at least 1
+     */
+    public SearchResultCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the current generation, to be passed to put() once the search has been computed.
+     * It has to be read before the search, so that a write racing with the search makes the result stale.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Marks every cached search as stale. Called after every write to the catalog.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Gets the result of a search, if it was cached in the current generation.
+     *
+     * @param mode   the mode of the search, such as its typo tolerance and genre filter
+     * @param title  the normalized title query
+     * @param author the normalized author query
+     * @return the ids of the matching books, or null if the search is not cached or stale
+     */
+    public synchronized List<UUID> get(String mode, String title, String author) {
+        Key key = new Key(mode, title, author);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.generation != generation.get()) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.bookIds;
+    }
+
+    /**
+     * Caches the result of a search. Does nothing if the catalog changed since the given generation.
+     *
+     * @param mode       the mode of the search, such as its typo tolerance and genre filter
+     * @param title      the normalized title query
+     * @param author     the normalized author query
+     * @param generation the generation read before the search was computed
+     * @param bookIds    the ids of the matching books
+     */
+    public synchronized void put(String mode, String title, String author, long generation, List<UUID> bookIds) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        entries.put(new Key(mode, title, author), new Entry(generation, List.copyOf(bookIds)));
+        if (entries.size() > capacity) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Gets the number of cached searches, including stale ones that were not asked for since.
+     *
+     * @return the number of cached searches
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of searches answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of searches that had to be computed.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class Key {
+        private final String mode;
+        private final String title;
+        private final String author;
+
+        private Key(String mode, String title, String author) {
+            this.mode = mode;
+            this.title = title;
+            this.author = author;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mode.equals(other.mode) && title.equals(other.title) && author.equals(other.author);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mode, title, author);
+        }
+    }
+
+    private static final class Entry {
+        private final long generation;
+        private final List<UUID> bookIds;
+
+        private Entry(long generation, List<UUID> bookIds) {
+            this.generation = generation;
+            this.bookIds = bookIds;
+        }
+    }
+}
@@ -7,14 +7,23 @@ import nl.tudelft.sem.template.example.services.CategoryService;
 import nl.tudelft.sem.template.model.Bookshelf;
 import nl.tudelft.sem.template.model.BookshelfBookshelfIdPutRequest;
 import nl.tudelft.sem.template.model.BookshelfPostRequest;
+import nl.tudelft.sem.template.example.services.BookshelfPage;
 import nl.tudelft.sem.template.example.services.BookshelfService;
 import nl.tudelft.sem.template.example.services.CircleService;
 import nl.tudelft.sem.template.example.exceptions.ValidationException;
 import nl.tudelft.sem.template.model.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.UUID;
@@ -43,12 +52,17 @@ public class BookshelfController implements BookshelfApi {
 
     /**
      * Returns all the bookshelves that exist in the database.
+     * The summaries asked for with view=summary are returned by bookshelfSummariesGet.
      *
+     * @param view how much of every bookshelf to return, only full is served here (optional)
      * @return a list of bookshelves present in the database
      */
     @Override
-    public ResponseEntity<List<Bookshelf>> bookshelfGet() {
+    public ResponseEntity<List<Bookshelf>> bookshelfGet(String view) {
         try {
+            if (!isFullView(view)) {
+                return ResponseEntity.badRequest().build();
+            }
             List<Bookshelf> bookshelves = bookshelfService.getAllBookshelves();
             if (bookshelves.isEmpty()) {
                 return ResponseEntity.noContent().build();
@@ -59,16 +73,58 @@ public class BookshelfController implements BookshelfApi {
         }
     }
 
+    /**
+     * Returns the summaries of all the bookshelves that exist in the database, for GET /bookshelf?view=summary.
+     *
+     * @return a list of the summaries of the bookshelves present in the database
+     */
+    @Operation(
+            operationId = "bookshelfSummariesGet",
+            summary = "Get the summaries of all the bookshelves in the database.",
+            tags = {"bookshelf"},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK.", content = {
+                            @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = BookshelfSummary.class)))
+                    }),
+                    @ApiResponse(responseCode = "204", description = "No bookshelves currently in the database."),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/bookshelf",
+            params = "view=summary",
+            produces = {"application/json"}
+    )
+    public ResponseEntity<List<BookshelfSummary>> bookshelfSummariesGet() {
+        try {
+            List<BookshelfSummary> summaries = bookshelfService.getAllBookshelfSummaries();
+            if (summaries.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(summaries);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Returns the bookshelf with the specified ID.
      *
-     * @return the bookshelf with its details
+     * @param bookshelfId the id of the bookshelf
+     * @param ifNoneMatch the ETag of a version of the bookshelf the client already has
+     * @return the bookshelf with its details, or nothing if the client's version is current
      */
     @Override
-    public ResponseEntity<Bookshelf> bookshelfBookshelfIdGet(UUID bookshelfId) {
+    public ResponseEntity<Bookshelf> bookshelfBookshelfIdGet(UUID bookshelfId, String ifNoneMatch) {
         try {
+            String etag = bookshelfService.getVersionTag(bookshelfId);
+            if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+                return ConditionalRequests.notModified(etag);
+            }
             Bookshelf bookshelf = bookshelfService.getBookshelfById(bookshelfId);
-            return ResponseEntity.ok(bookshelf);
+            return ConditionalRequests.ok(etag, bookshelf);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (NotFoundException e) {
@@ -78,20 +134,104 @@ public class BookshelfController implements BookshelfApi {
         }
     }
 
+    /**
+     * Returns one page of the public bookshelves.
+     * The summaries asked for with view=summary are returned by bookshelfGetPublicSummariesGet.
+     *
+     * @param limit       the maximum number of bookshelves on the page (optional)
+     * @param after       the cursor of the page to get (optional)
+     * @param title       the text the titles have to contain (optional)
+     * @param view        how much of every bookshelf to return, only full is served here (optional)
+     * @param ifNoneMatch the ETag of a version of the list the client already has
+     * @return the public bookshelves, or nothing if the client's version is current
+     */
     @Override
-    public ResponseEntity<List<Bookshelf>> bookshelfGetPublicGet() {
+    public ResponseEntity<List<Bookshelf>> bookshelfGetPublicGet(Integer limit, String after, String title,
+                                                                 String view, String ifNoneMatch) {
         try {
-            List<Bookshelf> bookshelves = bookshelfService.getAllPublicBookshelves();
-            if (bookshelves.isEmpty()) {
-                return ResponseEntity.noContent().build();
+            if (!isFullView(view)) {
+                return ResponseEntity.badRequest().build();
             }
-            return ResponseEntity.ok(bookshelves);
+            String etag = bookshelfService.getPublicVersionTag();
+            if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+                return ConditionalRequests.notModified(etag);
+            }
+            return pageResponse(etag, bookshelfService.getPublicBookshelves(limit, after, title));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
 
     }
 
+    /**
+     * Returns one page of the summaries of the public bookshelves, for GET /bookshelf/get_public?view=summary.
+     *
+     * @param limit       the maximum number of bookshelves on the page (optional)
+     * @param after       the cursor of the page to get (optional)
+     * @param title       the text the titles have to contain (optional)
+     * @param ifNoneMatch the ETag of a version of the list the client already has
+     * @return the summaries of the public bookshelves, or nothing if the client's version is current
+     */
+    @Operation(
+            operationId = "bookshelfGetPublicSummariesGet",
+            summary = "Get the summaries of the public bookshelves, one page at a time.",
+            tags = {"bookshelf"},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK.", content = {
+                            @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = BookshelfSummary.class)))
+                    }),
+                    @ApiResponse(responseCode = "204", description = "No public bookshelves on this page."),
+                    @ApiResponse(responseCode = "304", description = "Not modified."),
+                    @ApiResponse(responseCode = "400", description = "Invalid limit or cursor."),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/bookshelf/get_public",
+            params = "view=summary",
+            produces = {"application/json"}
+    )
+    public ResponseEntity<List<BookshelfSummary>> bookshelfGetPublicSummariesGet(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "title", required = false) String title,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            String etag = bookshelfService.getPublicVersionTag();
+            if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+                return ConditionalRequests.notModified(etag);
+            }
+            return pageResponse(etag, bookshelfService.getPublicBookshelfSummaries(limit, after, title));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    //the view parameter defaults to full, summaries are served by their own mappings
+    private static boolean isFullView(String view) {
+        return view == null || view.equals("full");
+    }
+
+    private static <T> ResponseEntity<List<T>> pageResponse(String etag, BookshelfPage<T> page) {
+        if (page.getBookshelves().isEmpty()) {
+            return etag == null ? ResponseEntity.noContent().build() : ResponseEntity.noContent().eTag(etag).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getBookshelves());
+    }
+
     /**
      * Creates a new bookshelf
      *
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.example.controllers;
 
 import javassist.NotFoundException;
+import nl.tudelft.sem.template.example.services.CatalogPage;
 import nl.tudelft.sem.template.example.services.CatalogService;
 import nl.tudelft.sem.template.model.*;
 import nl.tudelft.sem.template.api.CatalogApi;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -32,17 +34,34 @@ public class CatalogController implements CatalogApi {
     }
 
     /**
-     * Get all the books in the catalog.
+     * Get all the books in the catalog, or one page of them if any of the parameters is given.
      *
+     * @param limit the maximum number of books on the page (optional)
+     * @param after the cursor of the page to get (optional)
+     * @param sort  the field to order the pages by (optional)
      * @return a list of all the available books a user can access
      */
     @Override
-    public ResponseEntity<List<Book>> catalogGet() {
+    public ResponseEntity<List<Book>> catalogGet(Integer limit, String after, String sort) {
         try {
-            List<Book> books = catalogService.getAllBooks();
+            if (limit == null && after == null && sort == null) {
+                List<Book> books = catalogService.getAllBooks();
 
-            // 200: OK. Books returned.
-            return ResponseEntity.ok(books);
+                // 200: OK. Books returned.
+                return ResponseEntity.ok(books);
+            }
+
+            CatalogPage page = catalogService.getPage(limit, after, sort);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header("X-Next-Cursor", page.getNextCursor());
+            }
+
+            // 200: OK. Page of books returned.
+            return response.body(page.getBooks());
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid limit, cursor or sort field.
+            return ResponseEntity.badRequest().build();
         } catch (EmptyResultDataAccessException e) {
             // 204: No books in the catalog.
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
@@ -127,19 +146,26 @@ public class CatalogController implements CatalogApi {
     /**
      * Get the details about a book by its ID.
      *
-     * @param bookId The ID of the book we are looking for.
-     * @return all the details about a specific book.
+     * @param bookId      The ID of the book we are looking for.
+     * @param ifNoneMatch The ETag of a version of the book the client already has.
+     * @return all the details about a specific book, or nothing if the client's version is current.
      */
     @Override
-    public ResponseEntity<List<Book>> catalogBookIdGet(UUID bookId) {
+    public ResponseEntity<List<Book>> catalogBookIdGet(UUID bookId, String ifNoneMatch) {
         try {
+            String etag = catalogService.getVersionTag(bookId);
+            if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+                // 304: Not Modified.
+                return ConditionalRequests.notModified(etag);
+            }
+
             Book book = catalogService.getById(bookId);
 
             List<Book> books = new ArrayList<>();
             books.add(book);
 
             // 200: Successful response.
-            return ResponseEntity.ok(books);
+            return ConditionalRequests.ok(etag, books);
         } catch (IllegalArgumentException e) {
             // 400: Invalid Request.
             return ResponseEntity.badRequest().build();
@@ -177,20 +203,83 @@ public class CatalogController implements CatalogApi {
         }
     }
 
+    /**
+     * Get the books most similar to a book.
+     *
+     * @param bookId ID of the book to find similar books for.
+     * @param limit  The maximum number of books to return (optional)
+     * @return the most similar books, most similar first
+     */
+    @Override
+    public ResponseEntity<List<Book>> catalogBookIdSimilarGet(UUID bookId, Integer limit) {
+        try {
+            List<Book> books = catalogService.getSimilar(bookId, limit);
+            if (books.isEmpty()) {
+                // 204: No similar books found.
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            }
+
+            // 200: Successful response.
+            return ResponseEntity.ok(books);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid Request.
+            return ResponseEntity.badRequest().build();
+        } catch (NotFoundException e) {
+            // 404: Book not found.
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            // 500: Internal Server Error.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Search for books in the catalog.
      *
-     * @param title  The title of the book we are searching for (optional)
-     * @param author The author of the book we are searching for (optional)
+     * @param title      The title of the book we are searching for (optional)
+     * @param author     The author of the book we are searching for (optional)
+     * @param fuzzy      Whether to tolerate typos in the query (optional)
+     * @param genres     The genres to filter on (optional)
+     * @param genreMatch Whether books need any or all of the genres (optional)
      * @return a list of books that match the search query
      */
     @Override
-    public ResponseEntity<List<Book>> catalogSearchGet(String title, String author) {
+    public ResponseEntity<List<Book>> catalogSearchGet(String title, String author, Boolean fuzzy,
+                                                       List<String> genres, String genreMatch) {
+        try {
+            List<Book> books = catalogService.search(title, author, Boolean.TRUE.equals(fuzzy), genres, genreMatch);
+
+            // 200: Successful response.
+            return ResponseEntity.ok(books);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid genre filter.
+            return ResponseEntity.badRequest().build();
+        } catch (NotFoundException e) {
+            // 204: No matching books found.
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        } catch (Exception e) {
+            // 500: Internal Server Error.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Search for the books that best match a free-text query.
+     *
+     * @param q     The words to search for
+     * @param limit The maximum number of books to return (optional)
+     * @return the best matching books, best match first
+     */
+    @Override
+    public ResponseEntity<List<Book>> catalogSearchRankedGet(String q, Integer limit) {
         try {
-            List<Book> books = catalogService.search(title, author);
+            List<Book> books = catalogService.rankedSearch(q, limit);
 
             // 200: Successful response.
             return ResponseEntity.ok(books);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid Request.
+            return ResponseEntity.badRequest().build();
         } catch (NotFoundException e) {
             // 204: No matching books found.
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
@@ -199,4 +288,80 @@ public class CatalogController implements CatalogApi {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Count the books that match a search query, per genre.
+     *
+     * @param title      The title of the book we are searching for (optional)
+     * @param author     The author of the book we are searching for (optional)
+     * @param fuzzy      Whether to tolerate typos in the query (optional)
+     * @param genres     The genres to filter on (optional)
+     * @param genreMatch Whether books need any or all of the genres (optional)
+     * @return the number of matching books per genre
+     */
+    @Override
+    public ResponseEntity<Map<String, Integer>> catalogSearchFacetsGet(String title, String author, Boolean fuzzy,
+                                                                       List<String> genres, String genreMatch) {
+        try {
+            Map<String, Integer> facets = catalogService.getGenreFacets(title, author, Boolean.TRUE.equals(fuzzy),
+                    genres, genreMatch);
+
+            // 200: Successful response.
+            return ResponseEntity.ok(facets);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid genre filter.
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            // 500: Internal Server Error.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get several books at once.
+     *
+     * @param bookIds The ids of the books, at most 10000.
+     * @return the books that were found, in the order of the ids, and the ids that were not found
+     */
+    @Override
+    public ResponseEntity<BookBatch> catalogBatchPost(List<UUID> bookIds) {
+        try {
+            BookBatch batch = catalogService.getBatch(bookIds);
+
+            // 200: Successful response.
+            return ResponseEntity.ok(batch);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid Request.
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            // 500: Internal Server Error.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get autocomplete suggestions for a search query.
+     *
+     * @param prefix The start of the title or author name
+     * @param limit  The maximum number of suggestions (optional)
+     * @return the matching titles and author names, most popular first
+     */
+    @Override
+    public ResponseEntity<List<String>> catalogSuggestGet(String prefix, Integer limit) {
+        try {
+            List<String> suggestions = catalogService.suggest(prefix, limit);
+
+            // 200: Successful response.
+            return ResponseEntity.ok(suggestions);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid Request.
+            return ResponseEntity.badRequest().build();
+        } catch (NotFoundException e) {
+            // 204: No suggestions found.
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        } catch (Exception e) {
+            // 500: Internal Server Error.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package nl.tudelft.sem.template.example.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import nl.tudelft.sem.template.example.services.CatalogExportService;
+import nl.tudelft.sem.template.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams the catalog as newline-delimited JSON.
+ * Not part of the generated CatalogApi, because generated endpoints cannot stream their response body.
+ */
+@RestController
+@RequestMapping("/bookshelf_service")
+public class CatalogExportController {
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final CatalogExportService exportService;
+
+    /**
+     * Constructor for the CatalogExportController.
+     *
+     * @param exportService the catalog export service
+     */
+    @Autowired
+    public CatalogExportController(CatalogExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Export the whole catalog, one JSON book per line.
+     * The response is written while the books are read, so it is never held in memory as a whole.
+     *
+     * @return the catalog as application/x-ndjson
+     */
+    @Operation(
+            operationId = "catalogExportGet",
+            summary = "Export the whole catalog.",
+            description = "Streams every book in the catalog as newline-delimited JSON, one book per line.",
+            tags = {"catalog"},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK. Catalog streamed.", content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = Book.class))
+                    }),
+                    @ApiResponse(responseCode = "500", description = "Internal server error.")
+            }
+    )
+    @GetMapping(value = "/catalog/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> catalogExportGet() {
+        StreamingResponseBody body = exportService::export;
+
+        // 200: OK. Catalog streamed.
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,102 @@
+package nl.tudelft.sem.template.example.controllers;
+
+import nl.tudelft.sem.template.model.CatalogImportReport;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import nl.tudelft.sem.template.example.services.CatalogImportService;
+import nl.tudelft.sem.template.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * Imports books into the catalog in bulk.
+ * Not part of the generated CatalogApi, because generated endpoints read the whole request body into memory.
+ */
+@RestController
+@RequestMapping("/bookshelf_service")
+public class CatalogImportController {
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final CatalogImportService importService;
+
+    /**
+     * Constructor for the CatalogImportController.
+     *
+     * @param importService the catalog import service
+     */
+    @Autowired
+    public CatalogImportController(CatalogImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Import books from a streamed NDJSON or CSV body.
+     *
+     * @param contentType application/x-ndjson or text/csv
+     * @param chunkSize   the number of books per batch insert (optional)
+     * @param body        the books to import
+     * @return one of three valid responses: 200 with the import report, 400, 500.
+     */
+    @Operation(
+            operationId = "catalogBulkPost",
+            summary = "Import books into the catalog in bulk.",
+            description = "Reads the books while the request body is streamed in and inserts them in chunks. "
+                    + "Rows that are invalid or whose id is already in the catalog are skipped and reported.",
+            tags = {"catalog"},
+            requestBody = @RequestBody(description = "The books to import. As NDJSON, one JSON book per line; "
+                    + "as CSV, a header line naming the columns bookId, title, authors, genres, description and "
+                    + "numPages, followed by one book per line, with the authors and genres separated by '|'.",
+                    required = true, content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = Book.class)),
+                            @Content(mediaType = "text/csv", schema = @Schema(type = "string"))
+                    }),
+            parameters = {
+                    @Parameter(name = "chunkSize", in = ParameterIn.QUERY,
+                            description = "The number of books per batch insert, between 1 and 10000 (default 1000)")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK. Import report returned.", content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = CatalogImportReport.class))
+                    }),
+                    @ApiResponse(responseCode = "400", description = "Invalid chunk size or CSV header."),
+                    @ApiResponse(responseCode = "500", description = "Internal server error.")
+            }
+    )
+    @PostMapping(value = "/catalog/bulk", consumes = {"application/x-ndjson", "text/csv"},
+            produces = "application/json")
+    public ResponseEntity<CatalogImportReport> catalogBulkPost(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            InputStream body) {
+        try {
+            CatalogImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(CSV)
+                    ? CatalogImportService.Format.CSV : CatalogImportService.Format.NDJSON;
+            CatalogImportReport report = importService.importBooks(body, format, chunkSize);
+
+            // 200: OK. Import report returned.
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            // 400: Invalid chunk size or CSV header.
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            // 500: Internal Server Error.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
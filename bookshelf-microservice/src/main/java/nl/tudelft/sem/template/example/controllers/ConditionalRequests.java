@@ -0,0 +1,64 @@
+package nl.tudelft.sem.template.example.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Helpers for answering conditional GET requests (If-None-Match) with entity tags.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Checks whether the entity tags a client sent include the current one.
+     * Weak tags are compared by their value, as RFC 7232 prescribes for If-None-Match.
+     *
+     * @param ifNoneMatch the value of the If-None-Match header, can be null
+     * @param etag        the current quoted entity tag, can be null if the resource doesn't exist
+     * @return true if the client already has the current version
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a 304 response carrying the current entity tag.
+     *
+     * @param etag the current quoted entity tag
+     * @param <T>  the type of the body the endpoint normally returns
+     * @return the 304 response, without a body
+     */
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Builds a 200 response carrying the entity tag, if there is one.
+     *
+     * @param etag the quoted entity tag of the body, can be null
+     * @param body the body
+     * @param <T>  the type of the body
+     * @return the 200 response
+     */
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(body);
+    }
+}
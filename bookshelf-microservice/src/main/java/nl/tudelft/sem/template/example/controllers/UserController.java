@@ -18,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
@@ -374,12 +375,17 @@ public class UserController implements UserApi {
 
     /**
      * Get the bookshelves owned by a specific user
+     * The summaries asked for with view=summary are returned by userUserIdBookshelfSummariesGet.
      * @param userId The ID of the user whose bookshelves we are looking for. (required)
+     * @param view How much of every bookshelf to return, only full is served here. (optional)
      * @return The bookshelves if any were found
      */
     @Override
-    public ResponseEntity<List<Bookshelf>> userUserIdBookshelvesGet(UUID userId) {
+    public ResponseEntity<List<Bookshelf>> userUserIdBookshelvesGet(UUID userId, String view) {
         try {
+            if (view != null && !view.equals("full")) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
             List<Bookshelf> books = userService.getByOwner(userId);
 
             // 200: OK. Books returned.
@@ -397,6 +403,46 @@ public class UserController implements UserApi {
         }
     }
 
+    /**
+     * Get the summaries of the bookshelves owned by a specific user, for GET /user/{userId}/bookshelves?view=summary
+     * @param userId The ID of the user whose bookshelves we are looking for. (required)
+     * @return The summaries of the bookshelves if any were found
+     */
+    @Operation(
+            operationId = "userUserIdBookshelfSummariesGet",
+            summary = "Get the summaries of the bookshelves owned by a specific user",
+            tags = {"user"},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK. User's bookshelves returned.", content = {
+                            @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = BookshelfSummary.class)))
+                    }),
+                    @ApiResponse(responseCode = "204", description = "No bookshelves found for the user."),
+                    @ApiResponse(responseCode = "400", description = "Invalid user id."),
+                    @ApiResponse(responseCode = "404", description = "User not found."),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/user/{userId}/bookshelves",
+            params = "view=summary",
+            produces = {"application/json"}
+    )
+    public ResponseEntity<List<BookshelfSummary>> userUserIdBookshelfSummariesGet(@PathVariable("userId") UUID userId) {
+        try {
+            return ResponseEntity.ok(userService.getSummariesByOwner(userId));
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     //TODO THIS METHOD IS NOT IN THE YAML BUT I NEED IT FOR TESTING, also idk in which controller to put it cause we don't have a category controller
     /**
      * Method that gets all the categories in the database
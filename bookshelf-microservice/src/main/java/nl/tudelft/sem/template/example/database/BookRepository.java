@@ -2,12 +2,86 @@ package nl.tudelft.sem.template.example.database;
 
 
 import nl.tudelft.sem.template.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, UUID> {
 
+    //number of rows the export cursor fetches per round trip
+    int EXPORT_FETCH_SIZE = 500;
+
+    //first page of the catalog ordered by title (keyset pagination)
+    @Query(value = "SELECT b FROM Book b ORDER BY b.title, b.bookId")
+    List<Book> findFirstPageByTitle(Pageable pageable);
+
+    //page of the catalog ordered by title, starting after the given title and id
+    @Query(value = "SELECT b FROM Book b WHERE b.title > :title OR (b.title = :title AND b.bookId > :bookId) "
+            + "ORDER BY b.title, b.bookId")
+    List<Book> findPageByTitleAfter(@Param("title") String title, @Param("bookId") UUID bookId, Pageable pageable);
+
+    //first page of the catalog ordered by number of pages (keyset pagination)
+    @Query(value = "SELECT b FROM Book b ORDER BY b.numPages, b.bookId")
+    List<Book> findFirstPageByNumPages(Pageable pageable);
+
+    //page of the catalog ordered by number of pages, starting after the given number of pages and id
+    @Query(value = "SELECT b FROM Book b WHERE b.numPages > :numPages OR (b.numPages = :numPages AND b.bookId > :bookId) "
+            + "ORDER BY b.numPages, b.bookId")
+    List<Book> findPageByNumPagesAfter(@Param("numPages") Integer numPages, @Param("bookId") UUID bookId,
+                                       Pageable pageable);
+
+    //whole catalog as a forward-only, read-only cursor; has to be consumed inside a transaction
+    @QueryHints(value = {
+        @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query(value = "SELECT b FROM Book b")
+    Stream<Book> streamAll();
+
+    //ids out of the given ones that are already in the catalog
+    @Query(value = "SELECT b.bookId FROM Book b WHERE b.bookId IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    //books whose folded title and folded authors contain the given folded strings, matched in the database
+    List<Book> findByTitleFoldedContainingAndAuthorsFoldedContaining(String titleFolded, String authorsFolded);
+
+    //books whose folded title starts with the given folded prefix, a range scan on the title_folded index
+    List<Book> findByTitleFoldedStartingWith(String titlePrefix);
+
+    //books whose first folded author starts with the given folded prefix, a range scan on the authors_folded index
+    List<Book> findByAuthorsFoldedStartingWith(String authorPrefix);
+
+    //books with a later folded author that starts with the given folded prefix, found after the separator
+    //that precedes it; a containment match, which no index serves, so the folded authors column is scanned
+    List<Book> findByAuthorsFoldedContaining(String laterAuthorPrefix);
+
+    //id, version and content hash of every book, without loading the books
+    @Query(value = "SELECT b.bookId AS bookId, b.version AS version, b.contentHash AS contentHash FROM Book b")
+    List<IdAndVersion> findAllVersions();
+
+    //get the version of a book without loading it
+    @Query(value = "SELECT b.version FROM Book b WHERE b.bookId = :bookId")
+    Optional<Long> findVersionById(@Param("bookId") UUID bookId);
+
+    /**
+     * The id, version and content hash of a book.
+     */
+    interface IdAndVersion {
+        UUID getBookId();
+
+        Long getVersion();
+
+        Long getContentHash();
+    }
 }
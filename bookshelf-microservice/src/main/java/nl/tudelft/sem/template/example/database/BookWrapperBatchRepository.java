@@ -0,0 +1,18 @@
+package nl.tudelft.sem.template.example.database;
+
+import nl.tudelft.sem.template.model.BookWrapper;
+
+import java.util.Collection;
+
+/**
+ * Writes to the book wrappers that are done in bulk, outside of the entity manager.
+ */
+public interface BookWrapperBatchRepository {
+
+    /**
+     * Inserts new book wrappers with a single JDBC batch statement.
+     *
+     * @param wrappers the wrappers to insert, none of which exists yet
+     */
+    void insertAll(Collection<BookWrapper> wrappers);
+}
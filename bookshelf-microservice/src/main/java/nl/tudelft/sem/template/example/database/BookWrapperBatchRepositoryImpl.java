@@ -0,0 +1,44 @@
+package nl.tudelft.sem.template.example.database;
+
+import nl.tudelft.sem.template.model.BookWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of the bulk writes of BookWrapperRepository.
+ * Writes to the table Hibernate maps BookWrapper to, storing the ids the way BookBatchWriter does.
+ */
+public class BookWrapperBatchRepositoryImpl implements BookWrapperBatchRepository {
+    private static final String INSERT_WRAPPER = "INSERT INTO bookwrapper (book_id, owner_id, reading_status, "
+            + "current_page, shelf_count) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for the BookWrapperBatchRepositoryImpl.
+     *
+     * @param jdbcTemplate the JDBC template of the database
+     */
+    @Autowired
+    public BookWrapperBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(Collection<BookWrapper> wrappers) {
+        List<Object[]> rows = new ArrayList<>(wrappers.size());
+        for (BookWrapper wrapper : wrappers) {
+            rows.add(new Object[] {BookBatchWriter.toBytes(wrapper.getBookId()),
+                BookBatchWriter.toBytes(wrapper.getUserId()),
+                wrapper.getReadingStatus() == null ? null : wrapper.getReadingStatus().ordinal(),
+                wrapper.getCurrentPage(), wrapper.getShelfCount()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_WRAPPER, rows);
+    }
+}
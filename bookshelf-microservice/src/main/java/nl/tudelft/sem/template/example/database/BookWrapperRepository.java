@@ -4,17 +4,94 @@ package nl.tudelft.sem.template.example.database;
 import nl.tudelft.sem.template.example.entities.BookWrapperId;
 import nl.tudelft.sem.template.model.BookWrapper;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface BookWrapperRepository extends JpaRepository<BookWrapper, BookWrapperId> {
+public interface BookWrapperRepository extends JpaRepository<BookWrapper, BookWrapperId>, BookWrapperBatchRepository {
 
     @Query(value = "SELECT b FROM BookWrapper b WHERE b.userId = :userId")
     List<BookWrapper> findByUserId(@Param("userId") UUID userId);
 
+    //find which of the given users already have a wrapper for which of the given books, in a single query
+    @Query(value = "SELECT new nl.tudelft.sem.template.example.entities.BookWrapperId(w.bookId, w.userId) "
+            + "FROM BookWrapper w WHERE w.bookId IN :bookIds AND w.userId IN :userIds")
+    List<BookWrapperId> findIds(@Param("bookIds") Collection<UUID> bookIds, @Param("userIds") Collection<UUID> userIds);
+
+    //count one more bookshelf for every existing wrapper of the given books and users, in a single statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE BookWrapper w SET w.shelfCount = w.shelfCount + 1 "
+            + "WHERE w.bookId IN :bookIds AND w.userId IN :userIds")
+    int incrementShelfCounts(@Param("bookIds") Collection<UUID> bookIds, @Param("userIds") Collection<UUID> userIds);
+
+    //count one bookshelf less for every wrapper of the given books and users, in a single statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE BookWrapper w SET w.shelfCount = w.shelfCount - 1 "
+            + "WHERE w.bookId IN :bookIds AND w.userId IN :userIds")
+    int decrementShelfCounts(@Param("bookIds") Collection<UUID> bookIds, @Param("userIds") Collection<UUID> userIds);
+
+    //unlink the tags of the wrappers of the given books and users that are on no bookshelf any more,
+    //which a bulk delete of the wrappers does not do by itself
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM bookwrapper_tags t WHERE EXISTS (SELECT 1 FROM bookwrapper w "
+            + "WHERE w.book_id = t.book_wrapper_book_id AND w.owner_id = t.book_wrapper_owner_id "
+            + "AND w.book_id IN (:bookIds) AND w.owner_id IN (:userIds) AND w.shelf_count <= 0)", nativeQuery = true)
+    int deleteUnshelvedTags(@Param("bookIds") Collection<UUID> bookIds, @Param("userIds") Collection<UUID> userIds);
+
+    //delete the wrappers of the given books and users that are on no bookshelf any more, in a single statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM BookWrapper w "
+            + "WHERE w.bookId IN :bookIds AND w.userId IN :userIds AND w.shelfCount <= 0")
+    int deleteUnshelved(@Param("bookIds") Collection<UUID> bookIds, @Param("userIds") Collection<UUID> userIds);
+
+    //count one bookshelf less for every wrapper of a book on the given bookshelf and a user it gives access to,
+    //its owner and its members, in a single statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE bookwrapper SET shelf_count = shelf_count - 1 "
+            + "WHERE book_id IN (SELECT books_id FROM bookshelf_books WHERE bookshelf_id = :bookshelfId) "
+            + "AND owner_id IN (SELECT owner_id FROM bookshelf WHERE id = :bookshelfId "
+            + "UNION SELECT members_id FROM bookshelf_members WHERE bookshelf_id = :bookshelfId)", nativeQuery = true)
+    int decrementShelfCountsOfBookshelf(@Param("bookshelfId") UUID bookshelfId);
+
+    //unlink the tags of the wrappers of the books on the given bookshelf that are on no bookshelf any more
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM bookwrapper_tags t WHERE EXISTS (SELECT 1 FROM bookwrapper w "
+            + "WHERE w.book_id = t.book_wrapper_book_id AND w.owner_id = t.book_wrapper_owner_id AND w.shelf_count <= 0 "
+            + "AND w.book_id IN (SELECT books_id FROM bookshelf_books WHERE bookshelf_id = :bookshelfId))",
+            nativeQuery = true)
+    int deleteUnshelvedTagsOfBookshelf(@Param("bookshelfId") UUID bookshelfId);
+
+    //delete the wrappers of the books on the given bookshelf that are on no bookshelf any more, in a single statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM bookwrapper WHERE shelf_count <= 0 "
+            + "AND book_id IN (SELECT books_id FROM bookshelf_books WHERE bookshelf_id = :bookshelfId)",
+            nativeQuery = true)
+    int deleteUnshelvedOfBookshelf(@Param("bookshelfId") UUID bookshelfId);
+
+    //unlink the tags of every wrapper of a book, which a bulk delete of the wrappers does not do by itself
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM bookwrapper_tags t WHERE t.book_wrapper_book_id = :bookId", nativeQuery = true)
+    int deleteTagsOfBook(@Param("bookId") UUID bookId);
+
+    //delete every wrapper of a book, in a single statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM BookWrapper w WHERE w.bookId = :bookId")
+    int deleteAllOfBook(@Param("bookId") UUID bookId);
+
 }
@@ -1,19 +1,156 @@
 package nl.tudelft.sem.template.example.database;
 
 
+import nl.tudelft.sem.template.model.BookWrapper;
 import nl.tudelft.sem.template.model.Bookshelf;
+import nl.tudelft.sem.template.model.BookshelfSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface BookshelfRepository extends JpaRepository<Bookshelf, UUID> {
+public interface BookshelfRepository extends JpaRepository<Bookshelf, UUID>, DeletedBookshelfRepository {
+    //the columns of a summary, with the books and members counted by subqueries instead of loaded
+    String SELECT_SUMMARY = "SELECT s.bookshelfId AS bookshelfId, s.title AS title, s.privacy AS privacy, "
+            + "o.userId AS ownerId, SIZE(s.books) AS bookCount, SIZE(s.members) AS memberCount "
+            + "FROM Bookshelf s LEFT JOIN s.owner o ";
 
     //find all bookshelves of a user
     @Query(value = "SELECT b FROM Bookshelf b WHERE b.owner.userId = :ownerId")
     List<Bookshelf> findByOwnerId(@Param("ownerId") UUID ownerId);
+
+    //find the summaries of all bookshelves
+    @Query(value = SELECT_SUMMARY)
+    List<Summary> findAllSummaries();
+
+    //find the summaries of all bookshelves of a user
+    @Query(value = SELECT_SUMMARY + "WHERE o.userId = :ownerId")
+    List<Summary> findSummariesByOwnerId(@Param("ownerId") UUID ownerId);
+
+    //first page of the bookshelves with a privacy and a title matching a LIKE pattern, on the (privacy, title, id) index
+    @Query(value = "SELECT s FROM Bookshelf s WHERE s.privacy = :privacy AND LOWER(s.title) LIKE :title ESCAPE '!' "
+            + "ORDER BY s.title, s.bookshelfId")
+    List<Bookshelf> findFirstPageByPrivacy(@Param("privacy") Bookshelf.PrivacyEnum privacy, @Param("title") String title,
+                                           Pageable pageable);
+
+    //next page of the bookshelves with a privacy and a title matching a LIKE pattern, after the given title and id
+    @Query(value = "SELECT s FROM Bookshelf s WHERE s.privacy = :privacy AND LOWER(s.title) LIKE :title ESCAPE '!' "
+            + "AND (s.title > :afterTitle OR (s.title = :afterTitle AND s.bookshelfId > :afterId)) "
+            + "ORDER BY s.title, s.bookshelfId")
+    List<Bookshelf> findPageByPrivacyAfter(@Param("privacy") Bookshelf.PrivacyEnum privacy, @Param("title") String title,
+                                           @Param("afterTitle") String afterTitle, @Param("afterId") UUID afterId,
+                                           Pageable pageable);
+
+    //first page of the summaries of the bookshelves with a privacy and a title matching a LIKE pattern
+    @Query(value = SELECT_SUMMARY + "WHERE s.privacy = :privacy AND LOWER(s.title) LIKE :title ESCAPE '!' "
+            + "ORDER BY s.title, s.bookshelfId")
+    List<Summary> findFirstSummaryPageByPrivacy(@Param("privacy") Bookshelf.PrivacyEnum privacy,
+                                                @Param("title") String title, Pageable pageable);
+
+    //next page of the summaries of the bookshelves with a privacy and a title matching a LIKE pattern
+    @Query(value = SELECT_SUMMARY + "WHERE s.privacy = :privacy AND LOWER(s.title) LIKE :title ESCAPE '!' "
+            + "AND (s.title > :afterTitle OR (s.title = :afterTitle AND s.bookshelfId > :afterId)) "
+            + "ORDER BY s.title, s.bookshelfId")
+    List<Summary> findSummaryPageByPrivacyAfter(@Param("privacy") Bookshelf.PrivacyEnum privacy,
+                                                @Param("title") String title, @Param("afterTitle") String afterTitle,
+                                                @Param("afterId") UUID afterId, Pageable pageable);
+
+    //get the version of a bookshelf and the sum of the versions of its books, without loading any of them
+    @Query(value = "SELECT s.version AS version, COALESCE(SUM(b.version), 0) AS bookVersions "
+            + "FROM Bookshelf s LEFT JOIN s.books b WHERE s.bookshelfId = :bookshelfId GROUP BY s.bookshelfId, s.version")
+    Optional<VersionSummary> findVersionSummaryById(@Param("bookshelfId") UUID bookshelfId);
+
+    //find the books of a bookshelf every wrapper of which, among those of the owner and members, has the given status;
+    //one grouped query over the books joined to the members and to the wrappers of the owner and every member,
+    //in which books without any wrapper of the circle count as well
+    @Query(value = "SELECT b.bookId FROM Bookshelf s JOIN s.books b JOIN s.owner o LEFT JOIN s.members m "
+            + "LEFT JOIN BookWrapper w ON w.bookId = b.bookId AND (w.userId = o.userId OR w.userId = m.userId) "
+            + "WHERE s.bookshelfId = :bookshelfId GROUP BY b.bookId "
+            + "HAVING SUM(CASE WHEN w.userId IS NOT NULL AND (w.readingStatus IS NULL OR w.readingStatus <> :status) "
+            + "THEN 1 ELSE 0 END) = 0")
+    List<UUID> findBookIdsWithCircleStatus(@Param("bookshelfId") UUID bookshelfId,
+                                           @Param("status") BookWrapper.ReadingStatusEnum status);
+
+    //check whether a bookshelf holds a book, a lookup on the unique (bookshelf, book) index of the join table
+    @Query(value = "SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END "
+            + "FROM Bookshelf s JOIN s.books b WHERE s.bookshelfId = :bookshelfId AND b.bookId = :bookId")
+    boolean containsBook(@Param("bookshelfId") UUID bookshelfId, @Param("bookId") UUID bookId);
+
+    //bump the version of every bookshelf that contains a book, before the book is removed from them by a statement
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE Bookshelf s SET s.version = s.version + 1 WHERE s.bookshelfId IN "
+            + "(SELECT c.bookshelfId FROM Bookshelf c JOIN c.books b WHERE b.bookId = :bookId)")
+    int incrementVersionOfBookshelvesWith(@Param("bookId") UUID bookId);
+
+    //remove a book from every bookshelf that contains it, in a single statement on the indexed join table column
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM bookshelf_books WHERE books_id = :bookId", nativeQuery = true)
+    int removeBookFromBookshelves(@Param("bookId") UUID bookId);
+
+    //find which of the given books a bookshelf holds, in a single query on the unique (bookshelf, book) index
+    @Query(value = "SELECT b.bookId FROM Bookshelf s JOIN s.books b WHERE s.bookshelfId = :bookshelfId AND b.bookId IN :bookIds")
+    List<UUID> findBookIdsIn(@Param("bookshelfId") UUID bookshelfId, @Param("bookIds") Collection<UUID> bookIds);
+
+    //remove the given books from a bookshelf, in a single statement on the unique (bookshelf, book) index
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM bookshelf_books WHERE bookshelf_id = :bookshelfId AND books_id IN (:bookIds)",
+            nativeQuery = true)
+    int removeBooksFromBookshelf(@Param("bookshelfId") UUID bookshelfId, @Param("bookIds") Collection<UUID> bookIds);
+
+    //bump the version of a bookshelf whose books were changed by a statement, so its entity tag changes as well
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE Bookshelf s SET s.version = s.version + 1 WHERE s.bookshelfId = :bookshelfId")
+    int incrementVersion(@Param("bookshelfId") UUID bookshelfId);
+
+    /**
+     * The versions that together identify the state of a bookshelf.
+     * Membership changes bump the version of the bookshelf, edits of its books bump the sum.
+     */
+    interface VersionSummary {
+        Long getVersion();
+
+        Long getBookVersions();
+    }
+
+    /**
+     * The details of a bookshelf needed to list it, read in one query without loading its books or members.
+     */
+    interface Summary {
+        UUID getBookshelfId();
+
+        String getTitle();
+
+        Bookshelf.PrivacyEnum getPrivacy();
+
+        UUID getOwnerId();
+
+        Integer getBookCount();
+
+        Integer getMemberCount();
+
+        /**
+         * Converts the summary to the model returned by the API.
+         *
+         * @return the bookshelf summary
+         */
+        default BookshelfSummary toModel() {
+            BookshelfSummary.PrivacyEnum privacy = getPrivacy() == null
+                    ? null : BookshelfSummary.PrivacyEnum.fromValue(getPrivacy().getValue());
+            return new BookshelfSummary(getBookshelfId(), getTitle(), privacy, getOwnerId(), getBookCount(),
+                    getMemberCount());
+        }
+    }
 }
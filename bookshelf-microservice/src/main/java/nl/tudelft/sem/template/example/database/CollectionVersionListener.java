@@ -0,0 +1,59 @@
+package nl.tudelft.sem.template.example.database;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the version of the list of bookshelves, which changes whenever a bookshelf or a book
+ * on one is written.
+ * The version is held in memory and starts from a random epoch, so versions handed out before
+ * a restart never match the ones handed out after it.
+ */
+public class CollectionVersionListener {
+    private static final String EPOCH = UUID.randomUUID().toString().substring(0, 8);
+    private static final AtomicLong BOOKSHELVES = new AtomicLong();
+
+    /**
+     * Gets the current version of the list of bookshelves.
+     *
+     * @return the version, unique for this run of the application
+     */
+    public static String bookshelvesVersion() {
+        return EPOCH + "." + BOOKSHELVES.get();
+    }
+
+    /**
+     * Marks the list of bookshelves as changed after an entity is written.
+     *
+     * @param entity the written book or bookshelf
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        markChanged();
+    }
+
+    /**
+     * Marks the list of bookshelves as changed, for writes that go around the entities.
+     * The version is bumped now, when the change is made, and again when it is committed,
+     * so a reader never sees the old data under the new version.
+     */
+    public static void markChanged() {
+        BOOKSHELVES.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    BOOKSHELVES.incrementAndGet();
+                }
+            });
+        }
+    }
+}
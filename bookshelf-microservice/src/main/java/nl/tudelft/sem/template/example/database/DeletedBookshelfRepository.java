@@ -0,0 +1,35 @@
+package nl.tudelft.sem.template.example.database;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads and writes of the bookshelves that were deleted, which the entity manager no longer sees.
+ */
+public interface DeletedBookshelfRepository {
+
+    /**
+     * Finds deleted bookshelves that are not removed yet.
+     *
+     * @param limit the maximum number of bookshelves to find
+     * @return the ids of the deleted bookshelves
+     */
+    List<UUID> findDeletedIds(int limit);
+
+    /**
+     * Finds books that are still on a deleted bookshelf.
+     *
+     * @param bookshelfId the id of the deleted bookshelf
+     * @param limit       the maximum number of books to find
+     * @return the ids of the books, in the order they were added
+     */
+    List<UUID> findBookIdsOfDeleted(UUID bookshelfId, int limit);
+
+    /**
+     * Removes a deleted bookshelf, with its members, pending members and the categories it is in.
+     * Its books have to be removed first.
+     *
+     * @param bookshelfId the id of the deleted bookshelf
+     */
+    void purgeDeleted(UUID bookshelfId);
+}
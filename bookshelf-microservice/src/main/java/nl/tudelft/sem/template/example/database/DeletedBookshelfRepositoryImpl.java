@@ -0,0 +1,56 @@
+package nl.tudelft.sem.template.example.database;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of the reads and writes of deleted bookshelves of BookshelfRepository.
+ * Works on the tables Hibernate maps Bookshelf to, storing the ids the way BookBatchWriter does.
+ */
+public class DeletedBookshelfRepositoryImpl implements DeletedBookshelfRepository {
+    private static final String SELECT_DELETED = "SELECT id FROM bookshelf WHERE deleted = true LIMIT ?";
+    private static final String SELECT_BOOKS = "SELECT books_id FROM bookshelf_books WHERE bookshelf_id = ? "
+            + "ORDER BY shelf_position LIMIT ?";
+    private static final String DELETE_MEMBERS = "DELETE FROM bookshelf_members WHERE bookshelf_id = ?";
+    private static final String DELETE_PENDING_MEMBERS = "DELETE FROM bookshelf_pending_members WHERE bookshelf_id = ?";
+    private static final String DELETE_CATEGORY_LINKS = "DELETE FROM category_bookshelves WHERE bookshelves_id = ?";
+    private static final String DELETE_BOOKSHELF = "DELETE FROM bookshelf WHERE id = ? AND deleted = true";
+    private static final RowMapper<UUID> ID = (rs, row) -> BookBatchWriter.fromBytes(rs.getBytes(1));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for the DeletedBookshelfRepositoryImpl.
+     *
+     * @param jdbcTemplate the JDBC template of the database
+     */
+    @Autowired
+    public DeletedBookshelfRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<UUID> findDeletedIds(int limit) {
+        return jdbcTemplate.query(SELECT_DELETED, ID, limit);
+    }
+
+    @Override
+    public List<UUID> findBookIdsOfDeleted(UUID bookshelfId, int limit) {
+        return jdbcTemplate.query(SELECT_BOOKS, ID, BookBatchWriter.toBytes(bookshelfId), limit);
+    }
+
+    @Override
+    @Transactional
+    public void purgeDeleted(UUID bookshelfId) {
+        byte[] id = BookBatchWriter.toBytes(bookshelfId);
+        jdbcTemplate.update(DELETE_MEMBERS, (Object) id);
+        jdbcTemplate.update(DELETE_PENDING_MEMBERS, (Object) id);
+        jdbcTemplate.update(DELETE_CATEGORY_LINKS, (Object) id);
+        jdbcTemplate.update(DELETE_BOOKSHELF, (Object) id);
+    }
+}
@@ -0,0 +1,29 @@
+package nl.tudelft.sem.template.example.database;
+
+import nl.tudelft.sem.template.example.search.BookRecord;
+import nl.tudelft.sem.template.example.search.TextNormalizer;
+import nl.tudelft.sem.template.model.Book;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Keeps the folded search columns of a book in line with its title and authors,
+ * so searches can match on them without folding every row in the query.
+ * Also keeps the content hash the catalog snapshot is checked against.
+ */
+public class SearchColumnsListener {
+
+    /**
+     * Fills in the folded title and authors and the content hash of a book before it is written.
+     *
+     * @param book the book that is about to be inserted or updated
+     */
+    @PrePersist
+    @PreUpdate
+    public void fold(Book book) {
+        book.setTitleFolded(TextNormalizer.fold(book.getTitle()));
+        book.setAuthorsFolded(TextNormalizer.foldAuthors(book.getAuthors()));
+        book.setContentHash(BookRecord.of(book).getContentHash());
+    }
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.example.entities;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,6 +13,7 @@ import java.util.UUID;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
+@EqualsAndHashCode
 public class BookWrapperId implements Serializable {
     private UUID bookId;
     private UUID userId;
@@ -0,0 +1,129 @@
+package nl.tudelft.sem.template.example.search;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree over a set of words, using the Levenshtein distance.
+ * Finding every word within a distance of a query only visits the subtrees whose
+ * edge distance can still satisfy the triangle inequality, instead of every word.
+ * Words are never removed from the tree; callers decide which words are still relevant.
+ * Not thread-safe.
+ */
+public class BkTree {
+    private Node root;
+    private int size;
+
+    /**
+     * Adds a word to the tree. Does nothing if the word is already in it.
+     *
+     * @param word the word to add
+     */
+    public void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds every word within a maximum distance of a query.
+     *
+     * @param query       the word to search for
+     * @param maxDistance the maximum number of edits
+     * @return the matching words, mapped to their distance to the query
+     */
+    public Map<String, Integer> search(String query, int maxDistance) {
+        Map<String, Integer> result = new HashMap<>();
+        if (root == null) {
+            return result;
+        }
+
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int distance = distance(query, node.word);
+            if (distance <= maxDistance) {
+                result.put(node.word, distance);
+            }
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    stack.push(child.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes every word from the tree.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of words in the tree.
+     *
+     * @return the number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @return the minimum number of insertions, deletions and substitutions turning a into b
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Node {
+        private final String word;
+        private final Map<Integer, Node> children = new HashMap<>();
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index over the title, authors and description of the books in the catalog,
+ * ranking matches with BM25.
+ * Every field is scored on its own, with its own average length, and the field scores are
+ * added up weighted by the boost of the field. Only the best k matches are kept while scoring,
+ * in a heap of size k, so a query never sorts the whole result set.
+ */
+public class Bm25Index implements CatalogIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    //boosts of the title, authors and description fields, in that order
+    private static final double[] BOOSTS = {3.0, 2.0, 1.0};
+
+    private final Map<String, Map<UUID, int[]>> postings = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final long[] totalLengths = new long[BOOSTS.length];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long sequence = 0;
+
+    /**
+     * Adds a book to the index, replacing any previously indexed version of it.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+
+        List<List<String>> fields = new ArrayList<>();
+        fields.add(TextNormalizer.tokens(book.getTitle()));
+        List<String> authors = new ArrayList<>();
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> authors.addAll(TextNormalizer.tokens(author)));
+        }
+        fields.add(authors);
+        fields.add(TextNormalizer.tokens(book.getDescription()));
+
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.get(book.getBookId());
+            long ordinal = old == null ? sequence++ : old.ordinal;
+            if (old != null) {
+                unpost(book.getBookId(), old);
+            }
+
+            int[] lengths = new int[BOOSTS.length];
+            Map<String, int[]> frequencies = new HashMap<>();
+            for (int field = 0; field < BOOSTS.length; field++) {
+                lengths[field] = fields.get(field).size();
+                totalLengths[field] += lengths[field];
+                for (String term : fields.get(field)) {
+                    frequencies.computeIfAbsent(term, t -> new int[BOOSTS.length])[field]++;
+                }
+            }
+
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                    .put(book.getBookId(), tf));
+            entries.put(book.getBookId(), new Entry(ordinal, lengths, frequencies.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public void remove(UUID bookId) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.remove(bookId);
+            if (old != null) {
+                unpost(bookId, old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every book from the index.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            entries.clear();
+            for (int field = 0; field < BOOSTS.length; field++) {
+                totalLengths[field] = 0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books that best match a free-text query.
+     * A book matches if it contains at least one of the query words in any field.
+     *
+     * @param query the words to search for
+     * @param k     the maximum number of books to return
+     * @return the ids of the best matching books, highest score first; equal scores in the order
+     *     the books were first indexed
+     */
+    public List<UUID> search(String query, int k) {
+        List<Scored> top = scoreTop(query, k);
+        List<UUID> result = new ArrayList<>(top.size());
+        for (Scored scored : top) {
+            result.add(scored.bookId);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the BM25 scores of the best matching books.
+     *
+     * @param query the words to search for
+     * @param k     the maximum number of books to return
+     * @return the best matching books and their scores, highest score first
+     */
+    List<Scored> scoreTop(String query, int k) {
+        lock.readLock().lock();
+        try {
+            int n = entries.size();
+            if (n == 0 || k <= 0) {
+                return List.of();
+            }
+            double[] averageLengths = new double[BOOSTS.length];
+            for (int field = 0; field < BOOSTS.length; field++) {
+                averageLengths[field] = Math.max(1.0, (double) totalLengths[field] / n);
+            }
+
+            Map<UUID, Double> scores = new HashMap<>();
+            for (String term : new LinkedHashSet<>(TextNormalizer.tokens(query))) {
+                Map<UUID, int[]> list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - list.size() + 0.5) / (list.size() + 0.5));
+                list.forEach((bookId, tf) -> {
+                    int[] lengths = entries.get(bookId).lengths;
+                    double score = 0;
+                    for (int field = 0; field < BOOSTS.length; field++) {
+                        if (tf[field] > 0) {
+                            double norm = K1 * (1 - B + B * lengths[field] / averageLengths[field]);
+                            score += BOOSTS[field] * idf * tf[field] * (K1 + 1) / (tf[field] + norm);
+                        }
+                    }
+                    scores.merge(bookId, score, Double::sum);
+                });
+            }
+
+            // min-heap of the best k: its head is the worst match kept so far
+            Comparator<Scored> byRank = Comparator.comparingDouble((Scored s) -> s.score)
+                    .thenComparingLong(s -> -s.ordinal);
+            PriorityQueue<Scored> heap = new PriorityQueue<>(k + 1, byRank);
+            scores.forEach((bookId, score) -> {
+                heap.add(new Scored(bookId, score, entries.get(bookId).ordinal));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            });
+
+            List<Scored> result = new ArrayList<>(heap);
+            result.sort(Collections.reverseOrder(byRank));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unpost(UUID bookId, Entry entry) {
+        for (int field = 0; field < BOOSTS.length; field++) {
+            totalLengths[field] -= entry.lengths[field];
+        }
+        for (String term : entry.terms) {
+            postings.computeIfPresent(term, (t, list) -> {
+                list.remove(bookId);
+                return list.isEmpty() ? null : list;
+            });
+        }
+    }
+
+    static final class Scored {
+        final UUID bookId;
+        final double score;
+        final long ordinal;
+
+        private Scored(UUID bookId, double score, long ordinal) {
+            this.bookId = bookId;
+            this.score = score;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private static final class Entry {
+        private final long ordinal;
+        private final int[] lengths;
+        private final Set<String> terms;
+
+        private Entry(long ordinal, int[] lengths, Set<String> terms) {
+            this.ordinal = ordinal;
+            this.lengths = lengths;
+            this.terms = terms;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The fields of a book the in-memory indexes are built from, with the genres packed into a bitmask.
+ * Records are immutable, so they can be handed out without copying.
+ * The content hash covers the title, authors, genres and description, so a record can be recognised
+ * as stale even when the version of its book starts over, as it does when a book is deleted and re-created.
+ */
+public final class BookRecord {
+    private static final Book.GenresEnum[] GENRES = Book.GenresEnum.values();
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final UUID bookId;
+    private final long version;
+    private final String title;
+    private final List<String> authors;
+    private final int genres;
+    private final String description;
+    private final long contentHash;
+
+    /**
+     * Constructor for the BookRecord.
+     *
+     * @param bookId      the id of the book
+     * @param version     the version of the book, -1 if it is not known
+     * @param title       the title, can be null
+     * @param authors     the authors
+     * @param genres      the genres, bit i set for the genre with ordinal i
+     * @param description the description, can be null
+     */
+    public BookRecord(UUID bookId, long version, String title, List<String> authors, int genres, String description) {
+        this.bookId = bookId;
+        this.version = version;
+        this.title = title;
+        this.authors = List.copyOf(authors);
+        this.genres = genres;
+        this.description = description;
+        this.contentHash = hash();
+    }
+
+    /**
+     * Creates the record of a book.
+     *
+     * @param book the book
+     * @return the record
+     */
+    public static BookRecord of(Book book) {
+        int genres = 0;
+        if (book.getGenres() != null) {
+            for (Book.GenresEnum genre : book.getGenres()) {
+                genres |= 1 << genre.ordinal();
+            }
+        }
+        List<String> authors = new ArrayList<>();
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> authors.add(author == null ? "" : author));
+        }
+        return new BookRecord(book.getBookId(), book.getVersion() == null ? -1 : book.getVersion(),
+                book.getTitle(), authors, genres, book.getDescription());
+    }
+
+    /**
+     * Creates a book, not attached to the database, with the fields of this record.
+     *
+     * @return the book
+     */
+    public Book toBook() {
+        List<Book.GenresEnum> genreList = new ArrayList<>();
+        for (Book.GenresEnum genre : GENRES) {
+            if ((genres & (1 << genre.ordinal())) != 0) {
+                genreList.add(genre);
+            }
+        }
+        return new Book()
+                .bookId(bookId)
+                .version(version < 0 ? null : version)
+                .title(title)
+                .authors(new ArrayList<>(authors))
+                .genres(genreList)
+                .description(description);
+    }
+
+    public UUID getBookId() {
+        return bookId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public List<String> getAuthors() {
+        return authors;
+    }
+
+    public int getGenres() {
+        return genres;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    //64-bit FNV-1a over the fields; every string is preceded by its length, -1 for null, so fields cannot run together
+    private long hash() {
+        long h = hash(FNV_OFFSET, title);
+        h = hash(h, authors.size());
+        for (String author : authors) {
+            h = hash(h, author);
+        }
+        h = hash(h, genres);
+        return hash(h, description);
+    }
+
+    private static long hash(long h, String s) {
+        if (s == null) {
+            return hash(h, -1);
+        }
+        h = hash(h, s.length());
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static long hash(long h, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            h = (h ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,31 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.UUID;
+
+/**
+ * An in-memory structure derived from the books in the catalog.
+ * Implementations are kept current by the CatalogService whenever the catalog changes.
+ */
+public interface CatalogIndex {
+
+    /**
+     * Adds a book to the index, replacing any previously indexed version of it.
+     *
+     * @param book the book to index
+     */
+    void index(Book book);
+
+    /**
+     * Removes a book from the index. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    void remove(UUID bookId);
+
+    /**
+     * Removes every book from the index.
+     */
+    void clear();
+}
@@ -0,0 +1,83 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The record of every book in the catalog, in the order the books were first indexed.
+ * This is the data the other indexes are built from, kept so it can be written to a snapshot
+ * without reading the database.
+ */
+public class CatalogRecords implements CatalogIndex {
+    private final Map<UUID, BookRecord> records = new LinkedHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Stores the record of a book, replacing any previous record of it.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+
+        BookRecord record = BookRecord.of(book);
+        lock.writeLock().lock();
+        try {
+            records.put(record.getBookId(), record);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the record of a book. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public void remove(UUID bookId) {
+        lock.writeLock().lock();
+        try {
+            records.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every record.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            records.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all the records.
+     *
+     * @return a copy of the records, in the order the books were first indexed
+     */
+    public List<BookRecord> all() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(records.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package nl.tudelft.sem.template.example.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary snapshot file of the book records, read back through a memory mapping.
+ * The file is a header (magic number, format version, number of records) followed by the records;
+ * a record is the id, the version, the genre bitmask, the title, the authors and the description.
+ * Strings are stored as their UTF-8 length followed by the bytes, with length -1 for null.
+ */
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x424b534e;
+    static final int FORMAT = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Writes the records to a snapshot file.
+     * The file is written next to the target and moved over it, so a reader never sees half a snapshot.
+     *
+     * @param path    the snapshot file
+     * @param records the records to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Collection<BookRecord> records) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(records.size());
+            for (BookRecord record : records) {
+                out.writeLong(record.getBookId().getMostSignificantBits());
+                out.writeLong(record.getBookId().getLeastSignificantBits());
+                out.writeLong(record.getVersion());
+                out.writeInt(record.getGenres());
+                writeString(out, record.getTitle());
+                out.writeInt(record.getAuthors().size());
+                for (String author : record.getAuthors()) {
+                    writeString(out, author);
+                }
+                writeString(out, record.getDescription());
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the records of a snapshot file, mapping the file into memory instead of copying it.
+     *
+     * @param path the snapshot file
+     * @return the records, in the order they were written
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static List<BookRecord> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+
+            int count = buffer.getInt();
+            List<BookRecord> records = new ArrayList<>(Math.max(0, Math.min(count, buffer.remaining() / 32)));
+            for (int i = 0; i < count; i++) {
+                UUID bookId = new UUID(buffer.getLong(), buffer.getLong());
+                long version = buffer.getLong();
+                int genres = buffer.getInt();
+                String title = readString(buffer);
+                int authorCount = checkedLength(buffer, buffer.getInt());
+                List<String> authors = new ArrayList<>(authorCount);
+                for (int a = 0; a < authorCount; a++) {
+                    authors.add(readString(buffer));
+                }
+                records.add(new BookRecord(bookId, version, title, authors, genres, readString(buffer)));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Trailing data in catalog snapshot: " + path);
+            }
+            return records;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt catalog snapshot: " + path, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[checkedLength(buffer, length)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //a length read from the file, which cannot be negative or point past its end
+    private static int checkedLength(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,238 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Typo-tolerant word index over the titles and authors of the books in the catalog.
+ * Every distinct word is kept in a BK-tree, so the words within a few edits of a query word
+ * are found without comparing the query to every book; their posting lists then give the books.
+ * The number of edits allowed grows with the length of the query word.
+ */
+public class FuzzyIndex implements CatalogIndex {
+    private final BkTree words = new BkTree();
+    private final Map<String, Set<UUID>> titlePostings = new HashMap<>();
+    private final Map<String, Set<UUID>> authorPostings = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<String, Integer> wordCounts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long sequence = 0;
+
+    /**
+     * Adds a book to the index, replacing any previously indexed version of it.
+     * A re-indexed book keeps its original position in the result order.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+
+        Set<String> titleWords = new HashSet<>(TextNormalizer.tokens(book.getTitle()));
+        Set<String> authorWords = new HashSet<>();
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> authorWords.addAll(TextNormalizer.tokens(author)));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.get(book.getBookId());
+            long ordinal = old == null ? sequence++ : old.ordinal;
+            if (old != null) {
+                unpost(book.getBookId(), old);
+            }
+
+            Entry entry = new Entry(ordinal, titleWords, authorWords);
+            post(titlePostings, titleWords, book.getBookId());
+            post(authorPostings, authorWords, book.getBookId());
+            entries.put(book.getBookId(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public void remove(UUID bookId) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.remove(bookId);
+            if (old != null) {
+                unpost(bookId, old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every book from the index.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            words.clear();
+            titlePostings.clear();
+            authorPostings.clear();
+            entries.clear();
+            wordCounts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Typo-tolerant search on title and authors.
+     * Every word of a query field has to be within its allowed number of edits of a word in that field
+     * of the book; the words of the authors of a book are pooled. An empty or null query field does
+     * not restrict the result, but at least one of them has to contain a word.
+     *
+     * @param title  the words of the title, can be null
+     * @param author the words of the author names, can be null
+     * @return the ids of the matching books, closest matches first and then in the order they were first indexed
+     */
+    public List<UUID> search(String title, String author) {
+        List<String> titleQuery = TextNormalizer.tokens(title);
+        List<String> authorQuery = TextNormalizer.tokens(author);
+        if (titleQuery.isEmpty() && authorQuery.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Integer> matches = intersect(match(titlePostings, titleQuery), match(authorPostings, authorQuery));
+            return matches.entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<UUID, Integer> e) -> e.getValue())
+                            .thenComparingLong(e -> entries.get(e.getKey()).ordinal))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of edits a query word may be away from an indexed word.
+     *
+     * @param word the query word
+     * @return 0 for words of up to 2 characters, 1 for up to 4 characters and 2 for longer words
+     */
+    static int maxEdits(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 4 ? 1 : 2;
+    }
+
+    /**
+     * Finds the books that match every query word in one field.
+     *
+     * @param postings the postings of the field being queried
+     * @param query    the query words
+     * @return the matching books mapped to their total number of edits, or null if the query is empty
+     */
+    private Map<UUID, Integer> match(Map<String, Set<UUID>> postings, List<String> query) {
+        if (query.isEmpty()) {
+            return null;
+        }
+
+        Map<UUID, Integer> result = null;
+        for (String queryWord : query) {
+            Map<UUID, Integer> books = new HashMap<>();
+            words.search(queryWord, maxEdits(queryWord)).forEach((word, distance) -> {
+                for (UUID id : postings.getOrDefault(word, Set.of())) {
+                    books.merge(id, distance, Math::min);
+                }
+            });
+            result = intersect(result, books);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intersects two sets of matches, adding up their edits, where null stands for "no restriction".
+     */
+    private static Map<UUID, Integer> intersect(Map<UUID, Integer> a, Map<UUID, Integer> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        Map<UUID, Integer> result = new HashMap<>();
+        a.forEach((id, distance) -> {
+            Integer other = b.get(id);
+            if (other != null) {
+                result.put(id, distance + other);
+            }
+        });
+        return result;
+    }
+
+    private void post(Map<String, Set<UUID>> postings, Set<String> bookWords, UUID bookId) {
+        for (String word : bookWords) {
+            words.add(word);
+            wordCounts.merge(word, 1, Integer::sum);
+            postings.computeIfAbsent(word, w -> new HashSet<>()).add(bookId);
+        }
+    }
+
+    private void unpost(UUID bookId, Entry entry) {
+        unpost(titlePostings, entry.titleWords, bookId);
+        unpost(authorPostings, entry.authorWords, bookId);
+        compact();
+    }
+
+    private void unpost(Map<String, Set<UUID>> postings, Set<String> bookWords, UUID bookId) {
+        for (String word : bookWords) {
+            wordCounts.computeIfPresent(word, (w, count) -> count == 1 ? null : count - 1);
+            postings.computeIfPresent(word, (w, ids) -> {
+                ids.remove(bookId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the BK-tree once more than half of its words no longer occur in any book.
+     */
+    private void compact() {
+        if (words.size() <= 2 * wordCounts.size()) {
+            return;
+        }
+        words.clear();
+        wordCounts.keySet().forEach(words::add);
+    }
+
+    private static final class Entry {
+        private final long ordinal;
+        private final Set<String> titleWords;
+        private final Set<String> authorWords;
+
+        private Entry(long ordinal, Set<String> titleWords, Set<String> authorWords) {
+            this.ordinal = ordinal;
+            this.titleWords = titleWords;
+            this.authorWords = authorWords;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap per genre over dense book ordinals.
+ * Ordinals of removed books are handed out again, so the bitmaps stay as small as the catalog;
+ * genre filters and facet counts are then bitwise operations on them.
+ */
+public class GenreIndex implements CatalogIndex {
+    private final Map<Book.GenresEnum, BitSet> bitmaps = new EnumMap<>(Book.GenresEnum.class);
+    private final BitSet live = new BitSet();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UUID> books = new ArrayList<>();
+    private final Deque<Integer> free = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor for the GenreIndex.
+     */
+    public GenreIndex() {
+        for (Book.GenresEnum genre : Book.GenresEnum.values()) {
+            bitmaps.put(genre, new BitSet());
+        }
+    }
+
+    /**
+     * Sets the genre bits of a book, replacing any previously indexed genres.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(book.getBookId());
+            if (ordinal == null) {
+                ordinal = free.isEmpty() ? books.size() : free.pop();
+                if (ordinal == books.size()) {
+                    books.add(book.getBookId());
+                } else {
+                    books.set(ordinal, book.getBookId());
+                }
+                ordinals.put(book.getBookId(), ordinal);
+            }
+
+            for (BitSet bitmap : bitmaps.values()) {
+                bitmap.clear(ordinal);
+            }
+            if (book.getGenres() != null) {
+                for (Book.GenresEnum genre : book.getGenres()) {
+                    bitmaps.get(genre).set(ordinal);
+                }
+            }
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clears the bits of a book and frees its ordinal. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public void remove(UUID bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(bookId);
+            if (ordinal == null) {
+                return;
+            }
+            for (BitSet bitmap : bitmaps.values()) {
+                bitmap.clear(ordinal);
+            }
+            live.clear(ordinal);
+            books.set(ordinal, null);
+            free.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every book from the index.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            bitmaps.values().forEach(BitSet::clear);
+            live.clear();
+            ordinals.clear();
+            books.clear();
+            free.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the books that have all, or any, of the given genres.
+     *
+     * @param genres   the genres to filter on, an empty set does not restrict the result
+     * @param matchAll true if a book needs every genre, false if one of them is enough
+     * @return a new bitmap of the matching books
+     */
+    public BitSet filter(Set<Book.GenresEnum> genres, boolean matchAll) {
+        lock.readLock().lock();
+        try {
+            if (genres.isEmpty()) {
+                return (BitSet) live.clone();
+            }
+            BitSet result = matchAll ? (BitSet) live.clone() : new BitSet();
+            for (Book.GenresEnum genre : genres) {
+                if (matchAll) {
+                    result.and(bitmaps.get(genre));
+                } else {
+                    result.or(bitmaps.get(genre));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the bitmap of a set of books. Books that are not indexed are skipped.
+     *
+     * @param bookIds the ids of the books
+     * @return a new bitmap of the books
+     */
+    public BitSet bitmapOf(Collection<UUID> bookIds) {
+        lock.readLock().lock();
+        try {
+            BitSet result = new BitSet();
+            for (UUID id : bookIds) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null) {
+                    result.set(ordinal);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a book is in a bitmap.
+     *
+     * @param bitmap the bitmap
+     * @param bookId the id of the book
+     * @return true if the book is indexed and its bit is set
+     */
+    public boolean contains(BitSet bitmap, UUID bookId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(bookId);
+            return ordinal != null && bitmap.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the ids of the books in a bitmap.
+     *
+     * @param bitmap the bitmap
+     * @return the ids of the books, in ordinal order
+     */
+    public List<UUID> idsOf(BitSet bitmap) {
+        lock.readLock().lock();
+        try {
+            List<UUID> result = new ArrayList<>();
+            for (int i = bitmap.nextSetBit(0); i >= 0 && i < books.size(); i = bitmap.nextSetBit(i + 1)) {
+                if (books.get(i) != null) {
+                    result.add(books.get(i));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the books of every genre within a bitmap.
+     *
+     * @param bitmap the books to count
+     * @return the number of books in the bitmap per genre, including genres without books
+     */
+    public Map<Book.GenresEnum, Integer> counts(BitSet bitmap) {
+        lock.readLock().lock();
+        try {
+            Map<Book.GenresEnum, Integer> result = new EnumMap<>(Book.GenresEnum.class);
+            for (Map.Entry<Book.GenresEnum, BitSet> entry : bitmaps.entrySet()) {
+                BitSet count = (BitSet) entry.getValue().clone();
+                count.and(bitmap);
+                result.put(entry.getKey(), count.cardinality());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
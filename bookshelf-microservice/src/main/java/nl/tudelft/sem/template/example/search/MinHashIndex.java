@@ -0,0 +1,270 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locality-sensitive hashing index that finds the books most similar to a given book.
+ * A book is described by the set of its authors, its genres and the words of its title; the similarity
+ * of two books is the Jaccard similarity of their sets. Every book gets a MinHash signature, cut into
+ * bands that are hashed into buckets, so only books sharing a bucket with the given book are compared
+ * exactly. Two books with Jaccard similarity J share a bucket with probability 1 - (1 - J^ROWS)^BANDS.
+ */
+public class MinHashIndex implements CatalogIndex {
+    static final int BANDS = 32;
+    static final int ROWS = 2;
+    static final int MAX_CANDIDATES = 2000;
+
+    //hash functions h(x) = a * x + b, fixed so signatures are the same on every run
+    private static final long[] A = new long[BANDS * ROWS];
+    private static final long[] B = new long[BANDS * ROWS];
+
+    static {
+        Random random = new Random(0x5eed);
+        for (int i = 0; i < A.length; i++) {
+            A[i] = random.nextLong() | 1;
+            B[i] = random.nextLong();
+        }
+    }
+
+    private final Map<Long, Set<UUID>> buckets = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long sequence = 0;
+
+    /**
+     * Adds a book to the index, replacing any previously indexed version of it.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+
+        Set<String> features = features(book);
+        long[] bands = bands(features);
+
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.get(book.getBookId());
+            long ordinal = old == null ? sequence++ : old.ordinal;
+            if (old != null) {
+                unbucket(book.getBookId(), old);
+            }
+            for (long band : bands) {
+                buckets.computeIfAbsent(band, b -> new LinkedHashSet<>()).add(book.getBookId());
+            }
+            entries.put(book.getBookId(), new Entry(ordinal, features, bands));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public void remove(UUID bookId) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.remove(bookId);
+            if (old != null) {
+                unbucket(bookId, old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every book from the index.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            buckets.clear();
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books most similar to a book.
+     * Only books sharing at least one bucket with it are considered, so a book that has little
+     * in common with it may be missed.
+     *
+     * @param bookId the id of the book
+     * @param k      the maximum number of books to return
+     * @return the ids of the most similar books, most similar first; equal similarities in the order
+     *     the books were first indexed. Empty if the book is not indexed.
+     */
+    public List<UUID> similar(UUID bookId, int k) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(bookId);
+            if (entry == null || k <= 0) {
+                return List.of();
+            }
+
+            // capped, so a bucket shared by most of the catalog cannot make this a full scan
+            Set<UUID> candidates = new LinkedHashSet<>();
+            for (long band : entry.bands) {
+                for (UUID candidate : buckets.get(band)) {
+                    if (candidates.size() >= MAX_CANDIDATES) {
+                        break;
+                    }
+                    if (!candidate.equals(bookId)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+
+            List<Scored> scored = new ArrayList<>(candidates.size());
+            for (UUID candidate : candidates) {
+                Entry other = entries.get(candidate);
+                scored.add(new Scored(candidate, jaccard(entry.features, other.features), other.ordinal));
+            }
+            scored.sort(Comparator.comparingDouble((Scored s) -> -s.similarity).thenComparingLong(s -> s.ordinal));
+
+            List<UUID> result = new ArrayList<>(Math.min(k, scored.size()));
+            for (Scored s : scored.subList(0, Math.min(k, scored.size()))) {
+                result.add(s.bookId);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the features of a book: its folded authors, its genres and the words of its title,
+     * each prefixed with its kind so that, for example, an author and a title word never coincide.
+     *
+     * @param book the book
+     * @return the features of the book
+     */
+    static Set<String> features(Book book) {
+        Set<String> features = new HashSet<>();
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> features.add("a:" + TextNormalizer.normalize(author)));
+        }
+        if (book.getGenres() != null) {
+            book.getGenres().forEach(genre -> features.add("g:" + genre.name()));
+        }
+        TextNormalizer.tokens(book.getTitle()).forEach(word -> features.add("t:" + word));
+        return features;
+    }
+
+    static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String feature : a) {
+            if (b.contains(feature)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    /**
+     * Computes the MinHash signature of a set of features and hashes every band of it to a bucket key.
+     *
+     * @param features the features
+     * @return the bucket key of every band
+     */
+    private static long[] bands(Set<String> features) {
+        long[] signature = new long[A.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String feature : features) {
+            long x = hash(feature);
+            for (int i = 0; i < A.length; i++) {
+                signature[i] = Math.min(signature[i], mix(A[i] * x + B[i]));
+            }
+        }
+
+        long[] bands = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            bands[band] = key;
+        }
+        return bands;
+    }
+
+    //64-bit FNV-1a
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    //finalizer of MurmurHash3, spreads every input bit over the whole output
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private void unbucket(UUID bookId, Entry entry) {
+        for (long band : entry.bands) {
+            buckets.computeIfPresent(band, (b, books) -> {
+                books.remove(bookId);
+                return books.isEmpty() ? null : books;
+            });
+        }
+    }
+
+    private static final class Scored {
+        private final UUID bookId;
+        private final double similarity;
+        private final long ordinal;
+
+        private Scored(UUID bookId, double similarity, long ordinal) {
+            this.bookId = bookId;
+            this.similarity = similarity;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private static final class Entry {
+        private final long ordinal;
+        private final Set<String> features;
+        private final long[] bands;
+
+        private Entry(long ordinal, Set<String> features, long[] bands) {
+            this.ordinal = ordinal;
+            this.features = features;
+            this.bands = bands;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package nl.tudelft.sem.template.example.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Filters an in-memory list by splitting it into contiguous partitions and scanning them in parallel
+ * on the common ForkJoin pool.
+ * The matches of every partition are concatenated in partition order, so the result is in the same
+ * order as a sequential scan. Lists too small to be worth splitting are scanned on the calling thread.
+ */
+public class ParallelScanner {
+    static final int MIN_PARTITION_SIZE = 1024;
+
+    private final int partitions;
+    private final int minPartitionSize;
+
+    /**
+     * Constructor for the ParallelScanner.
+     *
+     * @param partitions the number of partitions to split a list into, 0 for one per available core
+     */
+    public ParallelScanner(int partitions) {
+        this(partitions, MIN_PARTITION_SIZE);
+    }
+
+    /**
+     * Constructor for the ParallelScanner.
+     *
+     * @param partitions       the number of partitions to split a list into, 0 for one per available core
+     * @param minPartitionSize the smallest number of elements worth giving a partition of its own
+     */
+    ParallelScanner(int partitions, int minPartitionSize) {
+        if (partitions < 0 || minPartitionSize < 1) {
+            throw new IllegalArgumentException("Invalid partitioning");
+        }
+        this.partitions = partitions == 0 ? Runtime.getRuntime().availableProcessors() : partitions;
+        this.minPartitionSize = minPartitionSize;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Gets the elements of a list that match a predicate.
+     * The predicate is called from several threads at once, so it must not touch shared mutable state.
+     *
+     * @param items     the list to scan, not changed while it is scanned
+     * @param predicate the condition the elements have to meet
+     * @param <T>       the type of the elements
+     * @return the matching elements, in list order
+     */
+    public <T> List<T> filter(List<T> items, Predicate<? super T> predicate) {
+        int size = items.size();
+        int count = Math.min(partitions, Math.max(1, size / minPartitionSize));
+        if (count == 1) {
+            return scan(items, 0, size, predicate);
+        }
+
+        // an ordered parallel stream collects the partitions back in partition order
+        return IntStream.range(0, count)
+                .parallel()
+                .mapToObj(p -> scan(items, bound(size, count, p), bound(size, count, p + 1), predicate))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private static int bound(int size, int count, int partition) {
+        return (int) ((long) size * partition / count);
+    }
+
+    private static <T> List<T> scan(List<T> items, int from, int to, Predicate<? super T> predicate) {
+        List<T> matches = new ArrayList<>();
+        for (T item : items.subList(from, to)) {
+            if (predicate.test(item)) {
+                matches.add(item);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,286 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed prefix trie (radix tree) over the normalized titles and author names in the catalog,
+ * used to autocomplete search queries.
+ * The popularity of a completion is the number of books that carry it. Every node also stores the
+ * highest popularity in its subtree, so the top completions of a prefix are found best-first
+ * without visiting the rest of the subtree.
+ */
+public class SuggestionTrie implements CatalogIndex {
+    private static final Comparator<Candidate> ORDER = Comparator
+            .comparingInt((Candidate c) -> c.weight).reversed()
+            .thenComparing(c -> c.path)
+            .thenComparing(c -> !c.complete);
+
+    private final Node root = new Node("");
+    private final Map<UUID, Set<String>> bookTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds the title and authors of a book to the trie, replacing any previously indexed version of it.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+
+        Map<String, String> terms = new LinkedHashMap<>();
+        addTerm(terms, book.getTitle());
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> addTerm(terms, author));
+        }
+
+        lock.writeLock().lock();
+        try {
+            unindex(book.getBookId());
+            terms.forEach((term, display) -> adjust(term, display, 1));
+            bookTerms.put(book.getBookId(), terms.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the title and authors of a book from the trie.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public void remove(UUID bookId) {
+        lock.writeLock().lock();
+        try {
+            unindex(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every completion from the trie.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.weight = 0;
+            root.maxWeight = 0;
+            bookTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the most popular completions of a prefix.
+     * Completions with the same popularity are returned in alphabetical order.
+     *
+     * @param prefix the prefix to complete, matched case-insensitively
+     * @param limit  the maximum number of completions
+     * @return the completions, most popular first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String query = TextNormalizer.normalize(prefix);
+        List<String> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Candidate start = find(query);
+            if (start == null) {
+                return result;
+            }
+
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(ORDER);
+            queue.add(start);
+            while (!queue.isEmpty() && result.size() < limit) {
+                Candidate candidate = queue.poll();
+                Node node = candidate.node;
+                if (candidate.complete) {
+                    result.add(node.display);
+                    continue;
+                }
+                if (node.weight > 0) {
+                    queue.add(new Candidate(node, candidate.path, node.weight, true));
+                }
+                for (Node child : node.children.values()) {
+                    queue.add(new Candidate(child, candidate.path + child.label, child.maxWeight, false));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the highest node whose path starts with the query.
+     *
+     * @param query the normalized prefix
+     * @return the node with its full path, or null if no completion starts with the query
+     */
+    private Candidate find(String query) {
+        Node node = root;
+        int i = 0;
+        while (i < query.length()) {
+            Node child = node.children.get(query.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, query, i);
+            if (i + common == query.length()) {
+                return new Candidate(child, query + child.label.substring(common), child.maxWeight, false);
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return new Candidate(node, query, node.maxWeight, false);
+    }
+
+    private void unindex(UUID bookId) {
+        Set<String> old = bookTerms.remove(bookId);
+        if (old != null) {
+            old.forEach(term -> adjust(term, null, -1));
+        }
+    }
+
+    /**
+     * Changes the popularity of a term, inserting it or pruning it from the trie as needed.
+     * Must be called while holding the write lock.
+     *
+     * @param term    the normalized term
+     * @param display the text to suggest for the term, null to keep the current one
+     * @param delta   the change in popularity
+     */
+    private void adjust(String term, String display, int delta) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+
+        int i = 0;
+        while (i < term.length()) {
+            Node child = node.children.get(term.charAt(i));
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = new Node(term.substring(i));
+                node.children.put(child.label.charAt(0), child);
+                node = child;
+                path.push(node);
+                break;
+            }
+
+            int common = commonPrefix(child.label, term, i);
+            if (common < child.label.length()) {
+                if (delta < 0) {
+                    return;
+                }
+                // split the edge where the term leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                middle.maxWeight = child.maxWeight;
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            path.push(node);
+            i += common;
+        }
+
+        node.weight = Math.max(0, node.weight + delta);
+        if (node.weight == 0) {
+            node.display = null;
+        } else if (display != null) {
+            node.display = display;
+        }
+
+        // walk back up: drop empty leaves, merge pass-through nodes and refresh the subtree maxima
+        while (!path.isEmpty()) {
+            Node current = path.pop();
+            Node parent = path.peek();
+            if (parent != null && current.weight == 0) {
+                if (current.children.isEmpty()) {
+                    parent.children.remove(current.label.charAt(0));
+                    continue;
+                }
+                if (current.children.size() == 1) {
+                    Node only = current.children.values().iterator().next();
+                    only.label = current.label + only.label;
+                    parent.children.put(only.label.charAt(0), only);
+                    continue;
+                }
+            }
+            current.maxWeight = current.weight;
+            for (Node child : current.children.values()) {
+                current.maxWeight = Math.max(current.maxWeight, child.maxWeight);
+            }
+        }
+    }
+
+    private static void addTerm(Map<String, String> terms, String text) {
+        String term = TextNormalizer.normalize(text);
+        if (!term.isEmpty()) {
+            terms.putIfAbsent(term, text.trim());
+        }
+    }
+
+    private static int commonPrefix(String label, String s, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < s.length()
+                && label.charAt(length) == s.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Node {
+        private String label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private int weight;
+        private int maxWeight;
+        private String display;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Candidate {
+        private final Node node;
+        private final String path;
+        private final int weight;
+        private final boolean complete;
+
+        private Candidate(Node node, String path, int weight, boolean complete) {
+            this.node = node;
+            this.path = path;
+            this.weight = weight;
+            this.complete = complete;
+        }
+    }
+}
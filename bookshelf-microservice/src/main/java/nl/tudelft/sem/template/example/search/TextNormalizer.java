@@ -0,0 +1,82 @@
+package nl.tudelft.sem.template.example.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public final class TextNormalizer {
+    /**
+     * Separates the authors in the folded authors column. Folding removes it, so it can never be
+     * part of a folded query and a match never spans two authors.
+     */
+    public static final String AUTHOR_SEPARATOR = "\u001f";
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Folds a string to the form used for case- and accent-insensitive matching:
+     * Unicode case folding (so the German sharp s folds to "ss"), then accents stripped.
+     *
+     * @param s the string to fold, can be null
+     * @return the folded string, or an empty string if s is null
+     */
+    public static String fold(String s) {
+        if (s == null) {
+            return "";
+        }
+        String folded = s.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT).replace(AUTHOR_SEPARATOR, "");
+        for (int i = 0; i < folded.length(); i++) {
+            if (folded.charAt(i) > 0x7f) {
+                return MARKS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return folded;
+    }
+
+    /**
+     * Folds a list of authors into the value of the folded authors column.
+     *
+     * @param authors the authors, can be null
+     * @return the folded authors separated by AUTHOR_SEPARATOR, or an empty string if there are none
+     */
+    public static String foldAuthors(Collection<String> authors) {
+        if (authors == null) {
+            return "";
+        }
+        return authors.stream().map(TextNormalizer::fold).collect(Collectors.joining(AUTHOR_SEPARATOR));
+    }
+
+    /**
+     * Normalizes a phrase such as a title or an author name: folds it,
+     * trims it and collapses every run of whitespace into a single space.
+     *
+     * @param s the phrase to normalize, can be null
+     * @return the normalized phrase, or an empty string if s is null
+     */
+    public static String normalize(String s) {
+        return fold(s).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Splits a phrase into its folded words, dropping punctuation.
+     *
+     * @param s the phrase to split, can be null
+     * @return the words of the phrase, in order
+     */
+    public static List<String> tokens(String s) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : fold(s).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,247 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted trigram index over the titles and authors of the books in the catalog.
+ * Substring queries of three or more characters are answered by intersecting the posting
+ * lists of their trigrams; every candidate is then verified against the indexed text,
+ * so the result is exactly the set of books a case-insensitive contains() scan would return.
+ * Reads are lock-free, writes are serialized.
+ */
+public class TrigramIndex implements CatalogIndex {
+    private static final int GRAM = 3;
+
+    private final Map<String, Set<UUID>> titlePostings = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> authorPostings = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Adds a book to the index, replacing any previously indexed version of it.
+     * A re-indexed book keeps its original position in the result order.
+     *
+     * @param book the book to index
+     */
+    @Override
+    public synchronized void index(Book book) {
+        if (book == null || book.getBookId() == null) {
+            return;
+        }
+        Entry old = entries.get(book.getBookId());
+        long ordinal = old == null ? sequence.getAndIncrement() : old.ordinal;
+        if (old != null) {
+            unpost(book.getBookId(), old);
+        }
+
+        List<String> authors = book.getAuthors() == null ? List.of()
+                : book.getAuthors().stream().map(TextNormalizer::fold).collect(Collectors.toList());
+        Entry entry = new Entry(ordinal, TextNormalizer.fold(book.getTitle()), authors);
+
+        for (String gram : trigrams(entry.title)) {
+            titlePostings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(book.getBookId());
+        }
+        for (String author : entry.authors) {
+            for (String gram : trigrams(author)) {
+                authorPostings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(book.getBookId());
+            }
+        }
+        entries.put(book.getBookId(), entry);
+    }
+
+    /**
+     * Removes a book from the index. Does nothing if the book is not indexed.
+     *
+     * @param bookId the id of the book to remove
+     */
+    @Override
+    public synchronized void remove(UUID bookId) {
+        if (bookId == null) {
+            return;
+        }
+        Entry old = entries.remove(bookId);
+        if (old != null) {
+            unpost(bookId, old);
+        }
+    }
+
+    /**
+     * Removes every book from the index and marks it as not ready.
+     */
+    @Override
+    public synchronized void clear() {
+        ready = false;
+        titlePostings.clear();
+        authorPostings.clear();
+        entries.clear();
+    }
+
+    /**
+     * Marks the index as complete, after it has been filled with the whole catalog.
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    /**
+     * Checks whether the index holds the whole catalog and can be used to answer queries.
+     *
+     * @return true if the index is ready, false while it is still being built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the number of indexed books.
+     *
+     * @return the number of indexed books
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Case-insensitive substring search on title and authors.
+     * An empty or null query field does not restrict the result.
+     *
+     * @param title  the text the title should contain, can be null
+     * @param author the text one of the authors should contain, can be null
+     * @return the ids of the matching books, in the order they were first indexed
+     */
+    public List<UUID> search(String title, String author) {
+        String foldedTitle = TextNormalizer.fold(title);
+        String foldedAuthor = TextNormalizer.fold(author);
+
+        Collection<UUID> candidates = intersect(
+                candidates(titlePostings, foldedTitle),
+                candidates(authorPostings, foldedAuthor));
+        if (candidates == null) {
+            // no query field is long enough to use the postings, check every indexed book
+            candidates = entries.keySet();
+        }
+
+        List<Map.Entry<UUID, Entry>> matches = new ArrayList<>();
+        for (UUID id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.matches(foldedTitle, foldedAuthor)) {
+                matches.add(Map.entry(id, entry));
+            }
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().ordinal))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the books whose postings contain every trigram of the query.
+     *
+     * @param postings the postings of the field being queried
+     * @param query    the folded query
+     * @return the candidate ids, or null if the query is too short to restrict the candidates
+     */
+    private Set<UUID> candidates(Map<String, Set<UUID>> postings, String query) {
+        if (query.length() < GRAM) {
+            return null;
+        }
+
+        List<Set<UUID>> lists = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            Set<UUID> list = postings.get(gram);
+            if (list == null) {
+                return Set.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<UUID> result = new HashSet<>();
+        Set<UUID> smallest = lists.get(0);
+        for (UUID id : smallest) {
+            if (lists.stream().allMatch(list -> list.contains(id))) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intersects two candidate sets, where null stands for "no restriction".
+     */
+    private static Set<UUID> intersect(Set<UUID> a, Set<UUID> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        Set<UUID> result = new HashSet<>(a);
+        result.retainAll(b);
+        return result;
+    }
+
+    private void unpost(UUID bookId, Entry entry) {
+        for (String gram : trigrams(entry.title)) {
+            unpost(titlePostings, gram, bookId);
+        }
+        for (String author : entry.authors) {
+            for (String gram : trigrams(author)) {
+                unpost(authorPostings, gram, bookId);
+            }
+        }
+    }
+
+    private static void unpost(Map<String, Set<UUID>> postings, String gram, UUID bookId) {
+        postings.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(bookId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Splits a string into its distinct trigrams.
+     *
+     * @param s the folded string
+     * @return the trigrams of s, empty if s is shorter than three characters
+     */
+    static Set<String> trigrams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            grams.add(s.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class Entry {
+        private final long ordinal;
+        private final String title;
+        private final List<String> authors;
+
+        private Entry(long ordinal, String title, List<String> authors) {
+            this.ordinal = ordinal;
+            this.title = title;
+            this.authors = authors;
+        }
+
+        private boolean matches(String title, String author) {
+            return this.title.contains(title)
+                    && (author.isEmpty() || authors.stream().anyMatch(a -> a.contains(author)));
+        }
+    }
+}
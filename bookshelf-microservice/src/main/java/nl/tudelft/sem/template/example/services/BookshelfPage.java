@@ -0,0 +1,21 @@
+package nl.tudelft.sem.template.example.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * One page of the public bookshelves, together with the cursor to request the next page with.
+ *
+ * @param <T> the type the bookshelves are returned as, the full bookshelves or their summaries
+ */
+@Getter
+@AllArgsConstructor
+public class BookshelfPage<T> {
+    private final List<T> bookshelves;
+
+    /**
+     * The cursor of the next page, or null if this is the last page.
+     */
+    private final String nextCursor;
+}
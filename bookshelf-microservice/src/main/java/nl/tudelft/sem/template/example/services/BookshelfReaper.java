@@ -0,0 +1,81 @@
+package nl.tudelft.sem.template.example.services;
+
+import nl.tudelft.sem.template.example.database.BookshelfRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the bookshelves that were deleted, in the background.
+ * Deleting a bookshelf marks it as deleted and releases the book wrappers of its users; this takes its books
+ * off it a batch at a time, every batch in a transaction of its own, so neither the delete request nor any
+ * other request waits for it. A bookshelf that cannot be removed is skipped until the next run.
+ */
+@Service
+public class BookshelfReaper {
+    private final BookshelfService bookshelfService;
+    private final BookshelfRepository bookshelfRepository;
+    private final int batchSize;
+
+    /**
+     * Constructor for the BookshelfReaper.
+     *
+     * @param bookshelfService    the service that releases the books of a deleted bookshelf
+     * @param bookshelfRepository the repository of the bookshelves
+     * @param batchSize           the number of books released in one transaction
+     */
+    @Autowired
+    public BookshelfReaper(BookshelfService bookshelfService, BookshelfRepository bookshelfRepository,
+                           @Value("${bookshelf.reaper.batch:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The reaper batch size must be positive");
+        }
+        this.bookshelfService = bookshelfService;
+        this.bookshelfRepository = bookshelfRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Removes every deleted bookshelf, releasing its books first.
+     * A bookshelf whose release fails is left deleted and not tried again in this run, so a failure that
+     * keeps happening cannot keep the reaper busy.
+     *
+     * @return the number of bookshelves removed
+     */
+    @Scheduled(fixedDelayString = "${bookshelf.reaper.interval:10000}",
+            initialDelayString = "${bookshelf.reaper.interval:10000}")
+    public int reap() {
+        int removed = 0;
+        Set<UUID> failed = new HashSet<>();
+        List<UUID> deleted = findDeletedIds(failed);
+        while (!deleted.isEmpty()) {
+            for (UUID bookshelfId : deleted) {
+                try {
+                    while (bookshelfService.releaseDeletedBookshelf(bookshelfId, batchSize)) {
+                        // the next batch of books of this bookshelf
+                    }
+                    removed++;
+                } catch (RuntimeException e) {
+                    failed.add(bookshelfId);
+                }
+            }
+            deleted = findDeletedIds(failed);
+        }
+        return removed;
+    }
+
+    //the next batch of deleted bookshelves, leaving out the ones that failed; the limit is raised by their
+    //number, so failed bookshelves cannot hide the ones after them
+    private List<UUID> findDeletedIds(Set<UUID> failed) {
+        return bookshelfRepository.findDeletedIds(batchSize + failed.size()).stream()
+                .filter(bookshelfId -> !failed.contains(bookshelfId))
+                .collect(Collectors.toList());
+    }
+}
@@ -3,6 +3,7 @@ package nl.tudelft.sem.template.example.services;
 import javassist.NotFoundException;
 import lombok.Setter;
 import nl.tudelft.sem.template.example.database.BookWrapperRepository;
+import nl.tudelft.sem.template.example.database.CollectionVersionListener;
 import nl.tudelft.sem.template.example.entities.BookWrapperId;
 import nl.tudelft.sem.template.example.exceptions.ValidationException;
 import nl.tudelft.sem.template.example.exceptions.NullException;
@@ -11,7 +12,10 @@ import nl.tudelft.sem.template.model.*;
 import nl.tudelft.sem.template.example.database.BookRepository;
 import nl.tudelft.sem.template.example.database.BookshelfRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,6 +27,9 @@ public class BookshelfService {
     private final BookshelfRepository bookshelfRepository;
     private final BookRepository bookRepository;
     private final BookWrapperRepository bookWrapperRepository;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
 
     @Setter
@@ -52,18 +59,95 @@ public class BookshelfService {
     }
 
     /**
-     * Retrieves only the public bookshelves existent in the database
+     * Retrieves one page of the public bookshelves, using keyset pagination.
+     * The bookshelves are ordered by title and then by id, and every page starts right after the
+     * bookshelf the cursor points to, so a page costs the same no matter how many bookshelves there are.
      *
-     * @return a List of Bookshelf objects that have the privacy variable set to PUBLIC
+     * @param limit the maximum number of bookshelves on the page, null for the default page size
+     * @param after the cursor returned with the previous page, null for the first page
+     * @param title the text the titles have to contain, ignoring case, null for any title
+     * @return the page of public bookshelves and the cursor of the next page
+     * @throws IllegalArgumentException if the limit or the cursor is invalid
      */
-    public List<Bookshelf> getAllPublicBookshelves() {
-        List<Bookshelf> publicBookshelves = new ArrayList<>();
-        for (Bookshelf b : bookshelfRepository.findAll()) {
-            if (b.getPrivacy() == Bookshelf.PrivacyEnum.PUBLIC) {
-                publicBookshelves.add(b);
-            }
+    public BookshelfPage<Bookshelf> getPublicBookshelves(Integer limit, String after, String title) {
+        int pageSize = pageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize);
+        String pattern = titlePattern(title);
+
+        List<Bookshelf> bookshelves;
+        if (after == null) {
+            bookshelves = bookshelfRepository.findFirstPageByPrivacy(Bookshelf.PrivacyEnum.PUBLIC, pattern, pageable);
+        } else {
+            String[] key = PageCursor.decode(after);
+            bookshelves = bookshelfRepository.findPageByPrivacyAfter(Bookshelf.PrivacyEnum.PUBLIC, pattern,
+                    key[0], UUID.fromString(key[1]), pageable);
+        }
+        return page(bookshelves, pageSize, Bookshelf::getTitle, Bookshelf::getBookshelfId);
+    }
+
+    /**
+     * Retrieves the summaries of all the bookshelves, without loading their books or members.
+     *
+     * @return the summaries of all bookshelves
+     */
+    public List<BookshelfSummary> getAllBookshelfSummaries() {
+        return bookshelfRepository.findAllSummaries().stream()
+                .map(BookshelfRepository.Summary::toModel)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves one page of the summaries of the public bookshelves, paged like the public bookshelves themselves.
+     *
+     * @param limit the maximum number of bookshelves on the page, null for the default page size
+     * @param after the cursor returned with the previous page, null for the first page
+     * @param title the text the titles have to contain, ignoring case, null for any title
+     * @return the page of summaries and the cursor of the next page
+     * @throws IllegalArgumentException if the limit or the cursor is invalid
+     */
+    public BookshelfPage<BookshelfSummary> getPublicBookshelfSummaries(Integer limit, String after, String title) {
+        int pageSize = pageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize);
+        String pattern = titlePattern(title);
+
+        List<BookshelfRepository.Summary> summaries;
+        if (after == null) {
+            summaries = bookshelfRepository.findFirstSummaryPageByPrivacy(Bookshelf.PrivacyEnum.PUBLIC, pattern, pageable);
+        } else {
+            String[] key = PageCursor.decode(after);
+            summaries = bookshelfRepository.findSummaryPageByPrivacyAfter(Bookshelf.PrivacyEnum.PUBLIC, pattern,
+                    key[0], UUID.fromString(key[1]), pageable);
         }
-        return publicBookshelves;
+        return page(summaries.stream().map(BookshelfRepository.Summary::toModel).collect(Collectors.toList()),
+                pageSize, BookshelfSummary::getTitle, BookshelfSummary::getBookshelfId);
+    }
+
+    private static int pageSize(Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    private static String titlePattern(String title) {
+        return title == null ? "%" : "%" + escapeLike(title.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    //a full page may be followed by another one, which starts after the title and id of its last bookshelf
+    private static <T> BookshelfPage<T> page(List<T> bookshelves, int pageSize, Function<T, String> title,
+                                             Function<T, UUID> id) {
+        String nextCursor = null;
+        if (bookshelves.size() == pageSize) {
+            T last = bookshelves.get(bookshelves.size() - 1);
+            nextCursor = PageCursor.encode(title.apply(last), id.apply(last));
+        }
+        return new BookshelfPage<>(bookshelves, nextCursor);
+    }
+
+    //escape the wildcards of a LIKE pattern, with the escape character the queries declare
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     /**
@@ -106,7 +190,11 @@ public class BookshelfService {
     }
 
     /**
-     * Deletes a certain Bookshelf from the database
+     * Deletes a certain Bookshelf from the database.
+     * The bookshelf is marked as deleted, which hides it from every read at once. The book wrappers its books
+     * gave its users are counted down at once as well, with a fixed number of statements however many books
+     * and users it has, so no read of a user's books still finds a book that only this bookshelf gave them.
+     * Only the rows of its books are removed later on, by {@link BookshelfReaper}.
      *
      * @param bookshelfId the id of the Bookshelf we want to delete
      * @param userId      the user who wants to delete the bookshelf
@@ -114,6 +202,7 @@ public class BookshelfService {
      * @throws IllegalArgumentException if the user is not allowed to delete the bookshelf
      * @throws NotFoundException        if there is no such bookshelf
      */
+    @Transactional
     public Bookshelf deleteBookshelf(UUID bookshelfId, UUID userId) throws Exception {
         if (bookshelfId == null || userId == null) {
             throw new IllegalArgumentException();
@@ -123,16 +212,37 @@ public class BookshelfService {
             throw new IllegalArgumentException();
         }
 
-        List<Book> books = bookshelfRepository.findById(bookshelfId).get().getBooks();
-        List<Book> booksCopy = new ArrayList<>(books);
-        for (Book b : booksCopy) {
-            removeBookFromBookshelf(bookshelfId, userId, b.getBookId());
-        }
+        bookWrapperRepository.decrementShelfCountsOfBookshelf(bookshelfId);
+        bookWrapperRepository.deleteUnshelvedTagsOfBookshelf(bookshelfId);
+        bookWrapperRepository.deleteUnshelvedOfBookshelf(bookshelfId);
+
+        // written when the transaction commits, bumping the versions like any other change
         Bookshelf b = bookshelfRepository.findById(bookshelfId).get();
-        bookshelfRepository.deleteById(bookshelfId);
+        b.setDeleted(true);
         return b;
     }
 
+    /**
+     * Releases the next batch of books of a deleted bookshelf by taking them off the bookshelf.
+     * The book wrappers they gave its users were already counted down when the bookshelf was deleted.
+     * Once no books are left, the bookshelf itself is removed.
+     *
+     * @param bookshelfId the id of the deleted bookshelf
+     * @param batchSize   the maximum number of books to release
+     * @return true if books were released, false if the bookshelf was removed
+     */
+    @Transactional
+    public boolean releaseDeletedBookshelf(UUID bookshelfId, int batchSize) {
+        List<UUID> bookIds = bookshelfRepository.findBookIdsOfDeleted(bookshelfId, batchSize);
+        if (bookIds.isEmpty()) {
+            bookshelfRepository.purgeDeleted(bookshelfId);
+            return false;
+        }
+
+        bookshelfRepository.removeBooksFromBookshelf(bookshelfId, bookIds);
+        return true;
+    }
+
     /**
      * Edits all the fields of a bookshelf
      *
@@ -239,6 +349,17 @@ public class BookshelfService {
         return bookshelfRepository.save(bookshelf);
     }
 
+    /**
+     * Adds a book to the end of a bookshelf.
+     * The bookshelf is changed in place and written on commit, as a single row of the join table.
+     *
+     * @param bookshelfId the ID of the bookshelf
+     * @param userId      the ID of the user adding the book
+     * @param bookId      the ID of the book
+     * @return the updated bookshelf
+     * @throws Exception if the bookshelf or book is not found, or the book is already on the bookshelf
+     */
+    @Transactional
     public Bookshelf addBookToBookshelf(UUID bookshelfId, UUID userId, UUID bookId) throws Exception {
         // Validate inputs
         circleValidator.handle(bookshelfId, userId, userId);
@@ -248,76 +369,85 @@ public class BookshelfService {
 
         Book book = bookRepository.findById(bookId).orElseThrow(() ->
                 new NotFoundException("Book not found"));
-        if (bookshelf.getBooks().contains(book)) {
+        if (bookshelfRepository.containsBook(bookshelfId, bookId)) {
             throw new ValidationException("Book already exists in the bookshelf");
         }
-        // Add book to bookshelf
+        // Add book to bookshelf, saving the bookshelf would merge it and rewrite all of its rows
         bookshelf.addBooksItem(book);
 
-        // Save the updated bookshelf back to the database
-        bookshelfRepository.save(bookshelf);
-
         // Add book to all user's set of books
-        List<User> members = new ArrayList<>(bookshelf.getMembers());
-        members.add(bookshelf.getOwner());
-        for (User user: members) {
-            addBookWrapper(bookId, user.getUserId());
-        }
-        return bookshelf;
+        addBookWrappers(List.of(bookId), shelfUsers(bookshelf));
+
+        // counting up existing wrappers cleared the persistence context, so the bookshelf is read again
+        return bookshelfRepository.findById(bookshelfId).orElseThrow(() ->
+                new NotFoundException("Bookshelf not found"));
     }
 
     /**
-     * Adds multiple books to a bookshelf
+     * Adds multiple books to a bookshelf.
+     * The books are validated and loaded with a single query, checked against the bookshelf with another,
+     * and the book wrappers of all users of the bookshelf are updated with a fixed number of statements, however many books and members there are.
      *
      * @param bookshelfId  the ID of the bookshelf that is edited
      * @param userId       the ID of the user the owns the bookshelf
-     * @param bookIdsToAdd the IDs of the books that are added
+     * @param bookIdsToAdd the IDs of the books that are added, a book listed twice is added once
      * @return A list of books that are added
      * @throws IllegalArgumentException if any of the provided details is null or empty
      */
+    @Transactional
     public List<Book> addMultipleBooksToBookshelf(UUID bookshelfId, UUID userId, List<UUID> bookIdsToAdd)
             throws Exception {
         circleValidator.handle(bookshelfId, userId, userId);
         Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).orElseThrow(() -> new ValidationException("Bookshelf not found"));
-        List<UUID> bookIds = bookshelf.getBooks().stream().map(Book::getBookId).collect(Collectors.toList());
-        // assert if all the bookIdsToAdd are not in the bookIds
-        // otherwise throw exception
         for (UUID bookId : bookIdsToAdd) {
             if (bookId == null) {
                 throw new ValidationException("Book id cannot be null");
             }
         }
-        for (UUID bookId : bookIdsToAdd) {
-            if (!bookRepository.existsById(bookId)) {
-                throw new ValidationException("Book not found");
-            }
+        Set<UUID> bookIdsRequested = new LinkedHashSet<>(bookIdsToAdd);
+        Map<UUID, Book> booksFound = new HashMap<>();
+        for (Book book : bookRepository.findAllById(bookIdsRequested)) {
+            booksFound.put(book.getBookId(), book);
         }
-        for (UUID bookId : bookIdsToAdd) {
-            if (bookIds.contains(bookId)) {
-                throw new ValidationException("Book already exists in the bookshelf");
-            }
+        if (booksFound.size() != bookIdsRequested.size()) {
+            throw new ValidationException("Book not found");
+        }
+        // only the requested books are looked up on the join table, the books of the bookshelf are not loaded
+        if (!bookshelfRepository.findBookIdsIn(bookshelfId, bookIdsRequested).isEmpty()) {
+            throw new ValidationException("Book already exists in the bookshelf");
+        }
+        // add all the books to the bookshelf, one row each when the transaction commits
+        for (UUID bookId : bookIdsRequested) {
+            bookshelf.addBooksItem(booksFound.get(bookId));
         }
-        List<Book> booksAdded = new ArrayList<>();
-        // add all the books to the bookshelf
-        for (UUID bookId : bookIdsToAdd) {
-            Book book = bookRepository.findById(bookId).orElseThrow(() -> new ValidationException("Book not found"));
-            bookshelf.addBooksItem(book);
-            booksAdded.add(book);
-            bookIds.add(bookId);
-        }
-        bookshelfRepository.save(bookshelf);
-        List<User> members = bookshelf.getMembers();
-        UUID ownerId = bookshelf.getOwner().getUserId();
         // add all the books to all the users' set of books
-        for (UUID bookId : bookIdsToAdd) {
-            for (User user : members) {
-                addBookWrapper(bookId, user.getUserId());
-            }
-            addBookWrapper(bookId, ownerId);
+        addBookWrappers(bookIdsRequested, shelfUsers(bookshelf));
+
+        // counting up existing wrappers cleared the persistence context, so the books are read again
+        booksFound.clear();
+        for (Book book : bookRepository.findAllById(bookIdsRequested)) {
+            booksFound.put(book.getBookId(), book);
+        }
+        List<Book> booksAdded = new ArrayList<>();
+        for (UUID bookId : bookIdsRequested) {
+            booksAdded.add(booksFound.get(bookId));
         }
         return booksAdded;
     }
 
+    /**
+     * Removes a book from a bookshelf.
+     * Whether the bookshelf holds the book is checked on the index of the join table, without loading its books,
+     * and the book is removed like in {@link #removeMultipleBooksFromBookshelf}: by deleting its single join row.
+     * Nothing changes if the bookshelf doesn't hold the book.
+     *
+     * @param bookshelfId the ID of the bookshelf
+     * @param userId      the ID of the user removing the book
+     * @param bookId      the ID of the book
+     * @return the updated bookshelf
+     * @throws Exception if the bookshelf, book or the user's book wrapper is not found
+     */
+    @Transactional
     public Bookshelf removeBookFromBookshelf(UUID bookshelfId, UUID userId, UUID bookId) throws Exception {
         // Validate inputs
         circleValidator.handle(bookshelfId, userId, userId);
@@ -326,96 +456,71 @@ public class BookshelfService {
         Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).orElseThrow(() ->
                 new NotFoundException("Bookshelf not found"));
 
-        Book book = bookRepository.findById(bookId).orElseThrow(() ->
-                new NotFoundException("Book not found"));
+        if (!bookRepository.existsById(bookId)) {
+            throw new NotFoundException("Book not found");
+        }
 
         BookWrapperId id = new BookWrapperId();
         id.setBookId(bookId);
         id.setUserId(userId);
-        BookWrapper bw = bookWrapperRepository.findById(id).orElseThrow(()
-                -> new NotFoundException("Book wrapper not found"));
-
-        // Remove book from bookshelf
-        bookshelf.getBooks().remove(book);
-
-        // Save the updated bookshelf back to the database
-        bookshelfRepository.save(bookshelf);
-
-        // Remove book wrapper from repository if the book is not in any other bookshelf
-        for (User user : bookshelf.getMembers()) {
-            if (countBookWrapperInstances(user.getUserId(), bw) == 0) {
-                bookWrapperRepository.delete(bw);
-            }
+        if (!bookWrapperRepository.existsById(id)) {
+            throw new NotFoundException("Book wrapper not found");
         }
-        if (countBookWrapperInstances(bookshelf.getOwner().getUserId(), bw) == 0) {
-            bookWrapperRepository.delete(bw);
+
+        if (!bookshelfRepository.containsBook(bookshelfId, bookId)) {
+            return bookshelf;
         }
+        removeBooks(bookshelfId, Set.of(bookId), shelfUsers(bookshelf));
 
-        return bookshelf;
+        // the statements cleared the persistence context, so the bookshelf is read again without the book
+        return bookshelfRepository.findById(bookshelfId).orElseThrow(() ->
+                new NotFoundException("Bookshelf not found"));
     }
 
     /**
      * Deletes multiple books from a specified bookshelf.
+     * The whole list is validated in one pass and the books are removed with a fixed number of statements,
+     * however many books are listed or users share the bookshelf: one for the join rows, one for the
+     * version of the bookshelf and one each to release and delete the book wrappers of the users.
+     * A book listed twice is only removed once.
+     *
      * @param bookshelfId the ID of the bookshelf from which the user wants to delete the books
      * @param userId the ID of the user that wants to delete the books
      * @param bookIdListToRemove a list of IDs of the books that should be removed
      * @throws Exception if something goes wrong
      */
+    @Transactional
     public void removeMultipleBooksFromBookshelf(UUID bookshelfId, UUID userId, List<UUID> bookIdListToRemove) throws Exception {
         circleValidator.handle(bookshelfId, userId, userId);
 
         Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).orElseThrow(() ->
                 new ValidationException("Bookshelf not found"));
-        List<UUID> bookIdsAlreadyInBookshelf = bookshelf.getBooks().stream().map(Book::getBookId).collect(Collectors.toList());
-        Map<UUID, BookWrapperId> wrappers = new HashMap<>();
+
+        if (bookIdListToRemove.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Book id cannot be null");
+        }
+        Set<UUID> bookIds = new LinkedHashSet<>(bookIdListToRemove);
+        if (bookIds.isEmpty()) {
+            return;
+        }
 
         //Check that it is ok to remove the books
-        for(UUID bookId: bookIdListToRemove) {
-            if(bookId == null) {
-                throw new ValidationException("Book id cannot be null");
-            } else if (!bookRepository.existsById(bookId)) {
+        Set<UUID> existing = new HashSet<>(bookRepository.findExistingIds(bookIds));
+        Set<UUID> inBookshelf = new HashSet<>(bookshelfRepository.findBookIdsIn(bookshelfId, bookIds));
+        Set<BookWrapperId> wrapped = new HashSet<>(bookWrapperRepository.findIds(bookIds, List.of(userId)));
+        for (UUID bookId : bookIds) {
+            if (!existing.contains(bookId)) {
                 throw new ValidationException("Book not found");
-            } else if(!bookIdsAlreadyInBookshelf.contains(bookId)) {
+            } else if (!inBookshelf.contains(bookId)) {
                 //then the book is not in the bookshelf
                 throw new ValidationException("Book is not found in specified bookshelf");
-            } else {
-                BookWrapperId wrapperId = new BookWrapperId();
-                wrapperId.setBookId(bookId);
-                wrapperId.setUserId(userId);
-                if(!bookWrapperRepository.existsById(wrapperId)) {
-                    throw new ValidationException("Book wrapper not found");
-                }
-                wrappers.put(bookId, wrapperId);
-            }
-        }
-        //Remove the books
-        for(UUID bookId: bookIdListToRemove) {
-            // Get the book wrapper
-            // (it shouldn't throw the exception here because we already check that the wrapper exists)
-            BookWrapperId wrapperId = wrappers.get(bookId);
-            BookWrapper bookWrapper = bookWrapperRepository.findById(wrapperId).orElseThrow(()
-                    -> new ValidationException("Book wrapper not found"));
-
-            // Get the book
-            // (it shouldn't throw the exception here because we already check that the book exists)
-            Book book = bookRepository.findById(bookId).orElseThrow(() ->
-                    new ValidationException("Book not found"));
-
-            //Remove the book
-            bookshelf.getBooks().remove(book);
-
-            // Remove book wrapper from repository if the book is not in any other bookshelves
-            for (User user : bookshelf.getMembers()) {
-                if (countBookWrapperInstances(user.getUserId(), bookWrapper) == 0) {
-                    bookWrapperRepository.delete(bookWrapper);
-                }
-            }
-            if (countBookWrapperInstances(bookshelf.getOwner().getUserId(), bookWrapper) == 0) {
-                bookWrapperRepository.delete(bookWrapper);
+            } else if (!wrapped.contains(new BookWrapperId(bookId, userId))) {
+                throw new ValidationException("Book wrapper not found");
             }
         }
 
-        bookshelfRepository.save(bookshelf);
+        // The bookshelf no longer gives its users access to the books
+        removeBooks(bookshelfId, bookIds, shelfUsers(bookshelf));
     }
 
     /**
@@ -435,47 +540,134 @@ public class BookshelfService {
     }
 
     /**
-     * Count the number of a user's bookshelves that contain a specific book.
+     * Get the current version of a bookshelf, including the versions of its books, as an entity tag.
+     * Nothing is loaded besides the version numbers.
      *
-     * @param userId the user id
-     * @param bw     the book wrapper
-     * @return the number of bookshelves that contain the book
+     * @param bookshelfId the id of the bookshelf
+     * @return the quoted entity tag, or null if the bookshelf doesn't exist
      */
-    private int countBookWrapperInstances(UUID userId, BookWrapper bw) throws Exception {
-        List<Bookshelf> allBookshelves = bookshelfRepository.findAll();
-        Book book = bookRepository.findById(bw.getBookId()).orElseThrow();
-        User user = userService.findById(userId);
-
-        int count = 0;
-        for (Bookshelf bs : allBookshelves) {
-            if ((bs.getMembers().contains(user) || bs.getOwner().getUserId().equals(userId)) && bs.getBooks().contains(book)) {
-                count++;
-            }
+    public String getVersionTag(UUID bookshelfId) {
+        if (bookshelfId == null) {
+            return null;
         }
+        return bookshelfRepository.findVersionSummaryById(bookshelfId)
+                .map(summary -> "\"" + summary.getVersion() + "." + summary.getBookVersions() + "\"")
+                .orElse(null);
+    }
 
-        return count;
+    /**
+     * Get the current version of the list of public bookshelves as an entity tag.
+     *
+     * @return the quoted entity tag
+     */
+    public String getPublicVersionTag() {
+        return "\"" + CollectionVersionListener.bookshelvesVersion() + "\"";
     }
 
     /**
-     * Add a book wrapper to the repository.
+     * Record that one more bookshelf gives a user access to a book.
+     * The book wrapper is created for the first such bookshelf, after that only its shelf count goes up.
      *
      * @param bookId the book id
      * @param userId the user id
      */
     public void addBookWrapper(UUID bookId, UUID userId) throws Exception {
-        // Add book to the user's set of books
-        BookWrapper bw = new BookWrapper();
-        bw.setBookId(bookId);
-        bw.setUserId(userId);
-        bw.setCurrentPage(0);
+        addBookWrappers(List.of(bookId), List.of(userId));
+    }
 
-        if (countBookWrapperInstances(userId, bw) == 1)
-            bookWrapperRepository.save(bw);
+    /**
+     * Record that one bookshelf less gives a user access to a book.
+     * The book wrapper is deleted, together with the user's progress, when no bookshelf is left.
+     *
+     * @param bookId the book id
+     * @param userId the user id
+     */
+    public void removeBookWrapper(UUID bookId, UUID userId) {
+        removeBookWrappers(List.of(bookId), List.of(userId));
+    }
+
+    /**
+     * Record that one more bookshelf gives each of the users access to each of the books.
+     * Existing book wrappers are counted up with one statement and the missing ones inserted with one batch.
+     *
+     * @param bookIds the book ids
+     * @param userIds the user ids
+     */
+    private void addBookWrappers(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        if (bookIds.isEmpty() || userIds.isEmpty()) {
+            return;
+        }
+        Set<BookWrapperId> existing = new HashSet<>(bookWrapperRepository.findIds(bookIds, userIds));
+        if (!existing.isEmpty()) {
+            bookWrapperRepository.incrementShelfCounts(bookIds, userIds);
+        }
+
+        List<BookWrapper> missing = new ArrayList<>();
+        for (UUID bookId : bookIds) {
+            for (UUID userId : userIds) {
+                if (!existing.contains(new BookWrapperId(bookId, userId))) {
+                    missing.add(new BookWrapper().bookId(bookId).userId(userId).currentPage(0).shelfCount(1));
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            bookWrapperRepository.insertAll(missing);
+        }
+    }
+
+    /**
+     * Removes books a bookshelf holds from it and releases the book wrappers they gave its users.
+     * The join rows are deleted and the wrappers counted down and deleted with set-based statements,
+     * bumping the versions by hand as no entity is written.
+     *
+     * @param bookshelfId the id of the bookshelf
+     * @param bookIds     the ids of the books, all of them on the bookshelf
+     * @param users       the users the bookshelf gives access to its books
+     */
+    private void removeBooks(UUID bookshelfId, Collection<UUID> bookIds, Collection<UUID> users) {
+        bookshelfRepository.removeBooksFromBookshelf(bookshelfId, bookIds);
+        bookshelfRepository.incrementVersion(bookshelfId);
+        CollectionVersionListener.markChanged();
+
+        removeBookWrappers(bookIds, users);
+    }
+
+    /**
+     * Record that one bookshelf less gives each of the users access to each of the books.
+     * The shelf counts are updated in the database rather than read and written back, so concurrent
+     * changes cannot lose a count; the wrappers left on no bookshelf are deleted with their tags.
+     *
+     * @param bookIds the book ids
+     * @param userIds the user ids
+     */
+    private void removeBookWrappers(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        if (bookIds.isEmpty() || userIds.isEmpty()) {
+            return;
+        }
+        bookWrapperRepository.decrementShelfCounts(bookIds, userIds);
+        bookWrapperRepository.deleteUnshelvedTags(bookIds, userIds);
+        bookWrapperRepository.deleteUnshelved(bookIds, userIds);
+    }
+
+    /**
+     * Get the users a bookshelf gives access to its books, its owner and its members.
+     *
+     * @param bookshelf the bookshelf
+     * @return the ids of the users, each of them once
+     */
+    private static Set<UUID> shelfUsers(Bookshelf bookshelf) {
+        Set<UUID> users = new LinkedHashSet<>();
+        for (User member : bookshelf.getMembers()) {
+            users.add(member.getUserId());
+        }
+        users.add(bookshelf.getOwner().getUserId());
+        return users;
     }
 
     /**
      * Get the number of books that have been read by all users.
-     * The book must have been marked as read by all users for it to count.
+     * The book must have been marked as read by all users for it to count; users without a wrapper
+     * of the book are not taken into account. The books are counted by a single grouped query.
      *
      * @param bookshelfId The bookshelfId of the shelf to count the read books for.
      * @return The number of books that have been read by all users.
@@ -489,18 +681,7 @@ public class BookshelfService {
         if (!exist) {
             throw new NotFoundException("Bookshelf not found");
         }
-        Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).get();
-        Set<User> users = new HashSet<>();
-        users.add(bookshelf.getOwner());
-        users.addAll(bookshelf.getMembers());
-        List<Book> books = bookshelf.getBooks();
-        return (int) books.stream()
-                .filter(b -> users.stream()
-                        .map(u -> new BookWrapperId(b.getBookId(), u.getUserId()))
-                        .map(id -> bookWrapperRepository.findById(id).orElse(null))
-                        .filter(Objects::nonNull)
-                        .allMatch(wrapper -> wrapper.getReadingStatus().equals(BookWrapper.ReadingStatusEnum.READ)))
-                .count();
+        return bookshelfRepository.findBookIdsWithCircleStatus(bookshelfId, BookWrapper.ReadingStatusEnum.READ).size();
     }
 
     /**
@@ -539,9 +720,7 @@ public class BookshelfService {
      * @throws Exception something went wrong
      */
     public void addBookWrapperMultiple(UUID userId, List<Book> books) throws Exception{
-        for (Book b : books) {
-            addBookWrapper(b.getBookId(), userId);
-        }
+        addBookWrappers(books.stream().map(Book::getBookId).collect(Collectors.toSet()), List.of(userId));
     }
 
     /**
@@ -550,16 +729,6 @@ public class BookshelfService {
      * @param books the list of books whose wrappers we want gone
      */
     public void deleteBookWrapperMultiple(UUID userId, List<Book> books) throws Exception{
-        for (Book b : books) {
-            BookWrapperId id = new BookWrapperId(b.getBookId(), userId);
-            Optional<BookWrapper> bw = bookWrapperRepository.findById(id);
-            if (bw.isEmpty()) continue; // this should technically never be the case, assuming the code is correct
-                                        // and that each user has a book wrapper for all the books in their bookshelves
-                                        // so if we end up in this case, just skip and dont break the code
-            BookWrapper bookWrapper = bw.get();
-            if (countBookWrapperInstances(userId, bookWrapper) == 0) {
-                bookWrapperRepository.deleteById(id);
-            }
-        }
+        removeBookWrappers(books.stream().map(Book::getBookId).collect(Collectors.toSet()), List.of(userId));
     }
 }
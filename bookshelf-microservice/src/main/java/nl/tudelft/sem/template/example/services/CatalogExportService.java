@@ -0,0 +1,70 @@
+package nl.tudelft.sem.template.example.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class CatalogExportService {
+    private final BookRepository catalog;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for the CatalogExportService.
+     *
+     * @param catalog       the book repository
+     * @param entityManager the entity manager the books are loaded into
+     * @param objectMapper  the mapper used to write the books as JSON
+     */
+    @Autowired
+    public CatalogExportService(BookRepository catalog, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.catalog = catalog;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the whole catalog as newline-delimited JSON, one book per line.
+     * The books are read through a database cursor and written through a streaming JSON generator,
+     * and the persistence context is cleared after every fetch, so memory use does not grow with
+     * the size of the catalog.
+     *
+     * @param out the stream to write to, left open
+     * @return the number of books written
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Book> books = catalog.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+                count++;
+
+                if (count % BookRepository.EXPORT_FETCH_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
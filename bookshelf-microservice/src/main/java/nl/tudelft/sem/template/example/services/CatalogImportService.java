@@ -0,0 +1,291 @@
+package nl.tudelft.sem.template.example.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.tudelft.sem.template.example.database.BookBatchWriter;
+import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.model.CatalogImportReport;
+import nl.tudelft.sem.template.model.CatalogImportRowError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class CatalogImportService {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int MAX_CHUNK_SIZE = 10000;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final List<String> CSV_COLUMNS = List.of("bookId", "title", "authors", "genres",
+            "description", "numPages");
+
+    /**
+     * The formats a bulk import can be read from.
+     */
+    public enum Format {
+        /**
+         * One JSON book per line.
+         */
+        NDJSON,
+
+        /**
+         * A header line naming the columns, followed by one book per line.
+         * Authors and genres are separated by '|'.
+         */
+        CSV
+    }
+
+    private final BookRepository catalog;
+    private final BookBatchWriter writer;
+    private final CatalogService catalogService;
+    private final ObjectMapper objectMapper;
+    private final UtilityService util;
+
+    /**
+     * Constructor for the CatalogImportService.
+     *
+     * @param catalog        the book repository
+     * @param writer         the writer the books are inserted with
+     * @param catalogService the catalog service, whose indexes are updated with the imported books
+     * @param objectMapper   the mapper used to read JSON books
+     */
+    @Autowired
+    public CatalogImportService(BookRepository catalog, BookBatchWriter writer,
+                                CatalogService catalogService, ObjectMapper objectMapper) {
+        this.catalog = catalog;
+        this.writer = writer;
+        this.catalogService = catalogService;
+        this.objectMapper = objectMapper;
+        this.util = new UtilityService();
+    }
+
+    /**
+     * Imports books into the catalog while reading them from a stream.
+     * Every row is validated with the same rules as adding a single book; rows that are invalid
+     * or whose id is already in the catalog are reported and skipped. The valid rows are inserted
+     * with batch statements, one transaction per chunk, so only one chunk is held in memory.
+     *
+     * @param in        the rows to import
+     * @param format    the format of the rows
+     * @param chunkSize the number of rows per insert, null for the default
+     * @return the number of imported and failed rows, the throughput and the first errors
+     * @throws IllegalArgumentException if the chunk size is invalid or a CSV header is missing a column
+     * @throws IOException              if reading the stream fails
+     */
+    public CatalogImportReport importBooks(InputStream in, Format format, Integer chunkSize) throws IOException {
+        int size = chunkSize == null ? DEFAULT_CHUNK_SIZE : chunkSize;
+        if (size < 1 || size > MAX_CHUNK_SIZE) {
+            // 400: Invalid Request.
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(size);
+        Function<String, Book> parser = null;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (parser == null) {
+                parser = format == Format.CSV ? csvParser(line) : this::readJson;
+                if (format == Format.CSV) {
+                    continue;
+                }
+            }
+
+            try {
+                Book book = parser.apply(line);
+                if (!util.validBook(book)) {
+                    throw new IllegalArgumentException("Book is missing a title, description, author, genre or "
+                            + "positive number of pages");
+                }
+                if (book.getBookId() == null) {
+                    book.setBookId(UUID.randomUUID());
+                }
+                chunk.add(new Row(lineNumber, book));
+            } catch (RuntimeException e) {
+                progress.fail(lineNumber, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            }
+
+            if (chunk.size() == size) {
+                insert(chunk, progress);
+                chunk.clear();
+            }
+        }
+        insert(chunk, progress);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = progress.imported * 1000.0 / Math.max(1, elapsedMillis);
+        return new CatalogImportReport(progress.imported, progress.failed, elapsedMillis, rowsPerSecond,
+                progress.errors);
+    }
+
+    /**
+     * Inserts a chunk of valid rows, skipping and reporting rows whose id is already taken.
+     */
+    private void insert(List<Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> taken = new HashSet<>(catalog.findExistingIds(
+                chunk.stream().map(row -> row.book.getBookId()).collect(Collectors.toList())));
+        List<Book> books = new ArrayList<>(chunk.size());
+        List<Row> rows = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (taken.add(row.book.getBookId())) {
+                books.add(row.book);
+                rows.add(row);
+            } else {
+                progress.fail(row.line, "Book " + row.book.getBookId() + " already exists");
+            }
+        }
+        if (books.isEmpty()) {
+            return;
+        }
+
+        try {
+            writer.insert(books);
+        } catch (RuntimeException e) {
+            for (Row row : rows) {
+                progress.fail(row.line, "Chunk could not be inserted: " + e.getMessage());
+            }
+            return;
+        }
+        catalogService.indexBooks(books);
+        progress.imported += books.size();
+    }
+
+    private Book readJson(String line) {
+        try {
+            return objectMapper.readValue(line, Book.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the parser of the CSV rows following a header.
+     *
+     * @param header the header line
+     * @return the parser of the rows
+     * @throws IllegalArgumentException if the header is missing a required column
+     */
+    private Function<String, Book> csvParser(String header) {
+        List<String> names = splitCsv(header).stream().map(String::trim).collect(Collectors.toList());
+        Map<String, Integer> columns = CSV_COLUMNS.stream()
+                .filter(names::contains)
+                .collect(Collectors.toMap(Function.identity(), names::indexOf));
+        for (String column : CSV_COLUMNS.subList(1, CSV_COLUMNS.size())) {
+            if (!columns.containsKey(column)) {
+                // 400: Invalid Request.
+                throw new IllegalArgumentException("CSV header is missing column " + column);
+            }
+        }
+
+        return line -> {
+            List<String> fields = splitCsv(line);
+            if (fields.size() != names.size()) {
+                throw new IllegalArgumentException("Expected " + names.size() + " fields but got " + fields.size());
+            }
+
+            Book book = new Book()
+                    .title(fields.get(columns.get("title")))
+                    .authors(splitValues(fields.get(columns.get("authors"))))
+                    .genres(splitValues(fields.get(columns.get("genres"))).stream()
+                            .map(Book.GenresEnum::fromValue)
+                            .collect(Collectors.toList()))
+                    .description(fields.get(columns.get("description")))
+                    .numPages(Integer.valueOf(fields.get(columns.get("numPages")).trim()));
+            if (columns.containsKey("bookId") && !fields.get(columns.get("bookId")).isBlank()) {
+                book.setBookId(UUID.fromString(fields.get(columns.get("bookId")).trim()));
+            }
+            return book;
+        };
+    }
+
+    /**
+     * Splits one CSV line into its fields. Fields can be quoted, with "" for a quote inside a quoted field.
+     *
+     * @param line the line
+     * @return the fields of the line
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static List<String> splitValues(String field) {
+        return Arrays.stream(field.split("\\|"))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static final class Row {
+        private final long line;
+        private final Book book;
+
+        private Row(long line, Book book) {
+            this.line = line;
+            this.book = book;
+        }
+    }
+
+    private static final class Progress {
+        private long imported;
+        private long failed;
+        private final List<CatalogImportRowError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CatalogImportRowError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package nl.tudelft.sem.template.example.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import nl.tudelft.sem.template.model.Book;
+
+import java.util.List;
+
+/**
+ * One page of the catalog, together with the cursor to request the next page with.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogPage {
+    private final List<Book> books;
+
+    /**
+     * The cursor of the next page, or null if this is the last page.
+     */
+    private final String nextCursor;
+}
@@ -1,40 +1,217 @@
 package nl.tudelft.sem.template.example.services;
 
 import javassist.NotFoundException;
+import nl.tudelft.sem.template.example.cache.BookCache;
+import nl.tudelft.sem.template.example.cache.SearchResultCache;
 import nl.tudelft.sem.template.example.database.BookRepository;
 import nl.tudelft.sem.template.example.database.BookshelfRepository;
+import nl.tudelft.sem.template.example.database.BookWrapperRepository;
+import nl.tudelft.sem.template.example.search.Bm25Index;
+import nl.tudelft.sem.template.example.search.BookRecord;
+import nl.tudelft.sem.template.example.search.CatalogIndex;
+import nl.tudelft.sem.template.example.search.CatalogRecords;
+import nl.tudelft.sem.template.example.search.CatalogSnapshot;
+import nl.tudelft.sem.template.example.search.FuzzyIndex;
+import nl.tudelft.sem.template.example.search.GenreIndex;
+import nl.tudelft.sem.template.example.search.MinHashIndex;
+import nl.tudelft.sem.template.example.search.ParallelScanner;
+import nl.tudelft.sem.template.example.search.SuggestionTrie;
+import nl.tudelft.sem.template.example.search.TextNormalizer;
+import nl.tudelft.sem.template.example.search.TrigramIndex;
 import nl.tudelft.sem.template.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class CatalogService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int DEFAULT_RANKED_RESULTS = 10;
+    private static final int MAX_RANKED_RESULTS = 100;
+    private static final int DEFAULT_SIMILAR = 10;
+    private static final int MAX_SIMILAR = 100;
+    private static final int MAX_BATCH_IDS = 10_000;
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
     private final BookRepository catalog;
     private final BookshelfRepository bookshelfRepository;
+    private final BookWrapperRepository bookWrapperRepository;
+    private final BookCache bookCache;
     private final UtilityService util;
+    private final TrigramIndex searchIndex;
+    private final SuggestionTrie suggestionTrie;
+    private final FuzzyIndex fuzzyIndex;
+    private final GenreIndex genreIndex;
+    private final Bm25Index rankedIndex;
+    private final MinHashIndex similarityIndex;
+    private final CatalogRecords records;
+    private final List<CatalogIndex> indexes;
+    private final SearchResultCache searchCache;
+    private ParallelScanner scanner = new ParallelScanner(0);
+    private Path snapshotPath = null;
     private boolean simulateError = false;
 
     /**
-     * Constructor for the CatalogService.
+     * Constructor for the CatalogService, with a book cache of its own.
      *
      * @param catalog the book repository
      */
+    public CatalogService(BookRepository catalog, BookshelfRepository bookshelfRepository,
+                          BookWrapperRepository bookWrapperRepository) {
+        this(catalog, bookshelfRepository, bookWrapperRepository, new BookCache(catalog));
+    }
+
+    /**
+     * Constructor for the CatalogService.
+     *
+     * @param catalog   the book repository
+     * @param bookCache the cache in front of the book repository, shared with the other services
+     */
     @Autowired
-    public CatalogService(BookRepository catalog, BookshelfRepository bookshelfRepository) {
+    public CatalogService(BookRepository catalog, BookshelfRepository bookshelfRepository,
+                          BookWrapperRepository bookWrapperRepository, BookCache bookCache) {
         this.catalog = catalog;
         this.bookshelfRepository = bookshelfRepository;
+        this.bookWrapperRepository = bookWrapperRepository;
+        this.bookCache = bookCache;
         this.util = new UtilityService();
+        this.searchIndex = new TrigramIndex();
+        this.suggestionTrie = new SuggestionTrie();
+        this.fuzzyIndex = new FuzzyIndex();
+        this.genreIndex = new GenreIndex();
+        this.rankedIndex = new Bm25Index();
+        this.similarityIndex = new MinHashIndex();
+        this.records = new CatalogRecords();
+        this.indexes = List.of(searchIndex, suggestionTrie, fuzzyIndex, genreIndex, rankedIndex, similarityIndex,
+                records);
+        this.searchCache = new SearchResultCache();
     }
 
     public void setSimulateError(boolean simulateError) {
         this.simulateError = simulateError;
     }
 
+    /**
+     * Sets the number of partitions the catalog is split into when it has to be scanned.
+     *
+     * @param partitions the number of partitions, 0 for one per available core
+     */
+    @Value("${catalog.search.partitions:0}")
+    public void setSearchPartitions(int partitions) {
+        this.scanner = new ParallelScanner(partitions);
+    }
+
+    /**
+     * Sets the file the catalog snapshot is written to and warm-started from.
+     *
+     * @param snapshotPath the path of the snapshot file, empty to not use a snapshot
+     */
+    @Value("${catalog.snapshot.path:}")
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
+    SearchResultCache getSearchCache() {
+        return searchCache;
+    }
+
+    /**
+     * (Re)builds the in-memory search indexes from the whole catalog.
+     * Runs once the application has started; until it has finished, searches scan the catalog.
+     * If there is a snapshot, only the books changed since it was written are read from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndexes() {
+        indexes.forEach(CatalogIndex::clear);
+        List<Book> books = snapshotPath == null ? null : loadSnapshot();
+        for (Book book : books == null ? catalog.findAll() : books) {
+            indexBook(book);
+        }
+        searchIndex.markReady();
+        searchCache.invalidateAll();
+    }
+
+    /**
+     * Writes the records the in-memory indexes are built from to the snapshot file.
+     * Runs periodically and when the application shuts down; does nothing without a snapshot file,
+     * or while the indexes are being built.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.interval:600000}",
+            initialDelayString = "${catalog.snapshot.interval:600000}")
+    @PreDestroy
+    public void writeSnapshot() throws IOException {
+        if (snapshotPath == null || !searchIndex.isReady()) {
+            return;
+        }
+        CatalogSnapshot.write(snapshotPath, records.all());
+    }
+
+    /**
+     * Gets the books of the catalog from the snapshot file, replacing the ones whose version or content hash
+     * changed since the snapshot was written by their current version in the database. The hash catches
+     * books that were deleted and re-created under the same id, whose version starts over.
+     *
+     * @return the books of the catalog, or null if there is no usable snapshot
+     */
+    private List<Book> loadSnapshot() {
+        List<BookRecord> snapshot;
+        try {
+            snapshot = CatalogSnapshot.read(snapshotPath);
+        } catch (IOException e) {
+            // missing or unreadable: build from the database as if there was no snapshot
+            return null;
+        }
+
+        Map<UUID, BookRepository.IdAndVersion> versions = new HashMap<>();
+        for (BookRepository.IdAndVersion book : catalog.findAllVersions()) {
+            versions.put(book.getBookId(), book);
+        }
+
+        // books deleted since the snapshot are not in versions, so they are dropped
+        List<Book> books = new ArrayList<>(versions.size());
+        Set<UUID> changed = new LinkedHashSet<>(versions.keySet());
+        for (BookRecord record : snapshot) {
+            BookRepository.IdAndVersion current = versions.get(record.getBookId());
+            if (current != null && current.getVersion() == record.getVersion()
+                    && current.getContentHash() != null && current.getContentHash() == record.getContentHash()) {
+                books.add(record.toBook());
+                changed.remove(record.getBookId());
+            }
+        }
+        books.addAll(findAllInOrder(new ArrayList<>(changed)));
+        return books;
+    }
+
     /**
      * Get all the books in the catalog.
      *
@@ -46,12 +223,69 @@ public class CatalogService {
             throw new Exception();
         }
 
-        if (catalog.findAll().isEmpty()) {
+        List<Book> books = catalog.findAll();
+        if (books.isEmpty()) {
             // 204: No books in the catalog.
             throw new EmptyResultDataAccessException(0);
         }
 
-        return catalog.findAll();
+        return books;
+    }
+
+    /**
+     * Get one page of the catalog, using keyset pagination.
+     * The books are ordered by the sort field and then by id, and every page starts
+     * right after the book the cursor points to, so a page costs the same no matter how deep it is.
+     *
+     * @param limit the maximum number of books on the page, null for the default page size
+     * @param after the cursor returned with the previous page, null for the first page
+     * @param sort  the field to order by, either "title" or "numPages", null for "title"
+     * @return the page of books and the cursor of the next page
+     * @throws IllegalArgumentException       if the limit, cursor or sort field is invalid
+     * @throws EmptyResultDataAccessException if the page is empty
+     * @throws Exception                      for testing purposes
+     */
+    public CatalogPage getPage(Integer limit, String after, String sort) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            // 400: Invalid Request.
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Pageable pageable = PageRequest.of(0, pageSize);
+        String sortField = sort == null ? "title" : sort;
+
+        List<Book> books;
+        String[] key = after == null ? null : PageCursor.decode(after);
+        switch (sortField) {
+            case "title":
+                books = key == null ? catalog.findFirstPageByTitle(pageable)
+                        : catalog.findPageByTitleAfter(key[0], UUID.fromString(key[1]), pageable);
+                break;
+            case "numPages":
+                books = key == null ? catalog.findFirstPageByNumPages(pageable)
+                        : catalog.findPageByNumPagesAfter(Integer.valueOf(key[0]), UUID.fromString(key[1]), pageable);
+                break;
+            default:
+                // 400: Invalid Request.
+                throw new IllegalArgumentException("Cannot sort the catalog by " + sortField);
+        }
+
+        if (books.isEmpty()) {
+            // 204: No (more) books in the catalog.
+            throw new EmptyResultDataAccessException(0);
+        }
+
+        String nextCursor = null;
+        if (books.size() == pageSize) {
+            Book last = books.get(books.size() - 1);
+            String lastKey = sortField.equals("title") ? last.getTitle() : String.valueOf(last.getNumPages());
+            nextCursor = PageCursor.encode(lastKey, last.getBookId());
+        }
+        return new CatalogPage(books, nextCursor);
     }
 
     /**
@@ -67,27 +301,32 @@ public class CatalogService {
             throw new Exception();
         }
 
-        if (util.isNullOrEmpty(book.getTitle())
-                || util.isNullOrEmpty(book.getDescription())
-                || book.getAuthors().isEmpty()
-                || book.getGenres().isEmpty()
-                || book.getNumPages() == null
-                || book.getNumPages() <= 0) {
-
+        if (!util.validBook(book)) {
             // 400: Invalid Request.
             throw new IllegalArgumentException();
         }
 
-        return catalog.save(book);
+        // the version is managed by the database; an existing book keeps its own, so it is overwritten as before
+        book.setVersion(book.getBookId() == null ? null : catalog.findVersionById(book.getBookId()).orElse(null));
+        Book saved = catalog.save(book);
+        bookCache.invalidate(saved.getBookId());
+        indexBook(saved);
+        searchCache.invalidateAll();
+
+        return saved;
     }
 
     /**
      * Delete a book from the catalog and from all the bookshelves that contain it.
+     * The versions of those bookshelves are bumped in the same transaction, so their entity tags
+     * never return to a value they had while they still held the book. As no bookshelf holds the book
+     * any more, the shelf counts of all its book wrappers drop to zero, so the wrappers are deleted as well.
      *
      * @param bookId the id of the book to delete
      * @throws NotFoundException if the book doesn't exist
      * @throws Exception         for testing purposes
      */
+    @Transactional(rollbackFor = Exception.class)
     public void deleteBook(UUID bookId) throws Exception {
         if (simulateError) {
             throw new Exception();
@@ -102,26 +341,22 @@ public class CatalogService {
             // 404: Not Found.
             throw new NotFoundException("Book not found.");
         }
+        // the join table rows have to go first, they reference the book
+        bookshelfRepository.incrementVersionOfBookshelvesWith(bookId);
+        bookshelfRepository.removeBookFromBookshelves(bookId);
+        bookWrapperRepository.deleteTagsOfBook(bookId);
+        bookWrapperRepository.deleteAllOfBook(bookId);
         catalog.deleteById(bookId);
-
-        for (Bookshelf bookshelf : bookshelfRepository.findAll()) {
-            List<Book> books = bookshelf.getBooks();
-            for (Book book : books) {
-                if (book.getBookId().equals(bookId)) {
-                    books.remove(book);
-                    break;
-                }
-            }
-
-            bookshelf.setBooks(books);
-            bookshelfRepository.save(bookshelf);
-        }
+        bookCache.invalidate(bookId);
+        unindexBook(bookId);
+        searchCache.invalidateAll();
     }
 
     /**
-     * Get a book by its id.
+     * Get a book by its id, from the book cache if it is there.
      *
      * @param bookId the id of the book to get
+     * @return a copy of the book, which can be changed without affecting the catalog
      * @throws NotFoundException if the book doesn't exist
      * @throws Exception         for testing purposes
      */
@@ -135,12 +370,21 @@ public class CatalogService {
             throw new IllegalArgumentException();
         }
 
-        if (!catalog.existsById(bookId)) {
-            // 404: Not Found.
-            throw new NotFoundException("Book not found");
-        }
+        // 404: Not Found.
+        return bookCache.get(bookId).orElseThrow(() -> new NotFoundException("Book not found"));
+    }
 
-        return catalog.findById(bookId).orElseThrow(() -> new NotFoundException("Book not found"));
+    /**
+     * Get the current version of a book as an entity tag, without loading the book.
+     *
+     * @param bookId the id of the book
+     * @return the quoted entity tag, or null if the book doesn't exist
+     */
+    public String getVersionTag(UUID bookId) {
+        if (!util.validId(bookId)) {
+            return null;
+        }
+        return catalog.findVersionById(bookId).map(version -> "\"" + version + "\"").orElse(null);
     }
 
     /**
@@ -155,13 +399,7 @@ public class CatalogService {
             throw new Exception();
         }
 
-        if (util.isNullOrEmpty(book.getTitle())
-                || util.isNullOrEmpty(book.getDescription())
-                || book.getAuthors().isEmpty()
-                || book.getGenres().isEmpty()
-                || book.getNumPages() == null
-                || book.getNumPages() <= 0) {
-
+        if (!util.validBook(book)) {
             // 400: Invalid Request.
             throw new IllegalArgumentException();
         }
@@ -171,7 +409,8 @@ public class CatalogService {
             throw new NotFoundException("Book not found.");
         }
 
-        Book bookFromRepo = getById(book.getBookId());
+        // the managed book, not a cached copy, so that it is updated in place
+        Book bookFromRepo = catalog.findById(book.getBookId()).orElseThrow(() -> new NotFoundException("Book not found."));
 
         bookFromRepo.setTitle(book.getTitle());
         bookFromRepo.setDescription(book.getDescription());
@@ -179,15 +418,11 @@ public class CatalogService {
         bookFromRepo.setGenres(book.getGenres());
         bookFromRepo.setNumPages(book.getNumPages());
 
+        // bookshelves only reference the book by its id, so they see the new values without being saved
         catalog.save(bookFromRepo);
-
-        for (Bookshelf bookshelf : bookshelfRepository.findAll()) {
-            if (bookshelf.getBooks().contains(book)) {
-                bookshelf.getBooks().remove(book);
-                bookshelf.getBooks().add(bookFromRepo);
-                bookshelfRepository.save(bookshelf);
-            }
-        }
+        bookCache.invalidate(bookFromRepo.getBookId());
+        indexBook(bookFromRepo);
+        searchCache.invalidateAll();
     }
 
     /**
@@ -220,6 +455,9 @@ public class CatalogService {
 
     /**
      * Case-insensitive search for books in the catalog.
+     * Matching is done on the in-memory search index; only the matching books are loaded.
+     * Surrounding whitespace in the queries is ignored. The ids of the matching books are cached per
+     * query until the next write to the catalog, so repeated searches skip the matching.
      *
      * @param title  the title of the book to search for
      * @param author the author of the book to search for
@@ -232,30 +470,134 @@ public class CatalogService {
             throw new Exception();
         }
 
-        List<Book> books = new ArrayList<>();
+        String titleQuery = TextNormalizer.fold(title).trim();
+        String authorQuery = TextNormalizer.fold(author).trim();
+        if (titleQuery.isEmpty() && authorQuery.isEmpty()) { // query with no content
+            return getAllBooks();
+        }
+
+        List<Book> books = searchIndex.isReady()
+                ? findAllInOrder(indexSearch(titleQuery, authorQuery, false, EnumSet.noneOf(Book.GenresEnum.class), false))
+                : scan(titleQuery, authorQuery);
 
-        if (util.isNullOrEmpty(title) && util.isNullOrEmpty(author)) { // query with no content
+        if (books.isEmpty()) {
+            //204: No matching books found.
+            throw new NotFoundException("No matching books found.");
+        }
+
+        return books;
+    }
+
+    /**
+     * Typo-tolerant search for books in the catalog.
+     * Every word of the title and author queries has to be within a few edits of a word of the book,
+     * so misspelled queries such as "Mark Twian" still find their books. Surrounding whitespace in the
+     * queries is ignored and the results are cached like those of the exact search. Until the search
+     * indexes have been built, this falls back to the exact search.
+     *
+     * @param title  the (possibly misspelled) title of the book to search for
+     * @param author the (possibly misspelled) author of the book to search for
+     * @return a list of books that match the search query, closest matches first
+     * @throws NotFoundException if no books match the search query
+     * @throws Exception         for testing purposes
+     */
+    public List<Book> fuzzySearch(String title, String author) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        String titleQuery = TextNormalizer.fold(title).trim();
+        String authorQuery = TextNormalizer.fold(author).trim();
+        if (titleQuery.isEmpty() && authorQuery.isEmpty()) { // query with no content
             return getAllBooks();
-        } else if (util.isNullOrEmpty(title)) { // query with only author
-            for (Book book : catalog.findAll()) {
-                if (book.getAuthors().stream().anyMatch(name ->
-                        name.toLowerCase().contains(author.toLowerCase())))
-                    books.add(book);
-            }
-        } else if (util.isNullOrEmpty(author)) { // query with only title
-            for (Book book : catalog.findAll()) {
-                if (book.getTitle().toLowerCase().contains(title.toLowerCase()))
-                    books.add(book);
-            }
-        } else { // query with both title and author
+        }
+
+        List<Book> books = searchIndex.isReady()
+                ? findAllInOrder(indexSearch(titleQuery, authorQuery, true, EnumSet.noneOf(Book.GenresEnum.class), false))
+                : scan(titleQuery, authorQuery);
+
+        if (books.isEmpty()) {
+            //204: No matching books found.
+            throw new NotFoundException("No matching books found.");
+        }
+
+        return books;
+    }
+
+    /**
+     * Search for books in the catalog, optionally tolerating typos and filtering on genres.
+     * The genre filter is answered from one bitmap per genre, so it costs the same no matter
+     * how many genres are combined. The results are cached per query, typo tolerance and genre filter.
+     *
+     * @param title      the title of the book to search for
+     * @param author     the author of the book to search for
+     * @param fuzzy      whether to tolerate typos in the title and author
+     * @param genres     the genres to filter on, null or empty for no filter
+     * @param genreMatch "any" (the default) if a book needs one of the genres, "all" if it needs every genre
+     * @return a list of books that match the search query and genre filter
+     * @throws IllegalArgumentException if a genre or the genre match mode is invalid
+     * @throws NotFoundException        if no books match
+     * @throws Exception                for testing purposes
+     */
+    public List<Book> search(String title, String author, boolean fuzzy,
+                             List<String> genres, String genreMatch) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        Set<Book.GenresEnum> genreFilter = parseGenres(genres);
+        boolean matchAll = parseGenreMatch(genreMatch);
+        if (genreFilter.isEmpty()) {
+            return fuzzy ? fuzzySearch(title, author) : search(title, author);
+        }
+
+        String titleQuery = TextNormalizer.fold(title).trim();
+        String authorQuery = TextNormalizer.fold(author).trim();
+        List<Book> books = searchIndex.isReady()
+                ? findAllInOrder(indexSearch(titleQuery, authorQuery, fuzzy, genreFilter, matchAll))
+                : scan(titleQuery, authorQuery, genreFilter, matchAll);
+
+        if (books.isEmpty()) {
+            //204: No matching books found.
+            throw new NotFoundException("No matching books found.");
+        }
+
+        return books;
+    }
+
+    /**
+     * Relevance-ranked full-text search over the title, authors and description of the books.
+     * Books are scored with BM25, where matches in the title weigh more than matches in the authors,
+     * and those more than matches in the description. Until the search indexes have been built,
+     * the ranking is computed on a temporary index of the whole catalog.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of books, null for the default
+     * @return the best matching books, best match first
+     * @throws IllegalArgumentException if the query is empty or the limit is invalid
+     * @throws NotFoundException        if no books match the query
+     * @throws Exception                for testing purposes
+     */
+    public List<Book> rankedSearch(String query, Integer limit) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        int max = limit == null ? DEFAULT_RANKED_RESULTS : limit;
+        if (query == null || query.isBlank() || max < 1 || max > MAX_RANKED_RESULTS) {
+            // 400: Invalid Request.
+            throw new IllegalArgumentException();
+        }
+
+        Bm25Index index = rankedIndex;
+        if (!searchIndex.isReady()) {
+            index = new Bm25Index();
             for (Book book : catalog.findAll()) {
-                if (book.getTitle().toLowerCase().contains(title.toLowerCase()) &&
-                        book.getAuthors().stream().anyMatch(name ->
-                                name.toLowerCase().contains(author.toLowerCase())))
-                    books.add(book);
+                index.index(book);
             }
         }
 
+        List<Book> books = findAllInOrder(index.search(query, max));
         if (books.isEmpty()) {
             //204: No matching books found.
             throw new NotFoundException("No matching books found.");
@@ -263,4 +605,350 @@ public class CatalogService {
 
         return books;
     }
+
+    /**
+     * Get the books most similar to a book, judged by the authors, genres and title words they share.
+     * Candidates come from the locality-sensitive hashing buckets of the book, so only a small part of
+     * the catalog is compared exactly. Until the search indexes have been built, a temporary index of
+     * the whole catalog is used.
+     *
+     * @param bookId the id of the book
+     * @param limit  the maximum number of books to return, null for the default of 10
+     * @return the most similar books, most similar first; empty if no book is similar enough
+     * @throws IllegalArgumentException if the id or the limit is invalid
+     * @throws NotFoundException        if the book doesn't exist
+     * @throws Exception                for testing purposes
+     */
+    public List<Book> getSimilar(UUID bookId, Integer limit) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        int max = limit == null ? DEFAULT_SIMILAR : limit;
+        if (!util.validId(bookId) || max < 1 || max > MAX_SIMILAR) {
+            // 400: Invalid Request.
+            throw new IllegalArgumentException();
+        }
+
+        if (!catalog.existsById(bookId)) {
+            // 404: Not Found.
+            throw new NotFoundException("Book not found.");
+        }
+
+        MinHashIndex index = similarityIndex;
+        if (!searchIndex.isReady()) {
+            index = new MinHashIndex();
+            for (Book book : catalog.findAll()) {
+                index.index(book);
+            }
+        }
+
+        return findAllInOrder(index.similar(bookId, max));
+    }
+
+    /**
+     * Count the books that match a search query and genre filter, per genre.
+     *
+     * @param title      the title of the book to search for
+     * @param author     the author of the book to search for
+     * @param fuzzy      whether to tolerate typos in the title and author
+     * @param genres     the genres to filter on, null or empty for no filter
+     * @param genreMatch "any" (the default) if a book needs one of the genres, "all" if it needs every genre
+     * @return the number of matching books for every genre, including genres without matches
+     * @throws IllegalArgumentException if a genre or the genre match mode is invalid
+     * @throws Exception                for testing purposes
+     */
+    public Map<String, Integer> getGenreFacets(String title, String author, boolean fuzzy,
+                                               List<String> genres, String genreMatch) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        Set<Book.GenresEnum> genreFilter = parseGenres(genres);
+        boolean matchAll = parseGenreMatch(genreMatch);
+        String titleQuery = TextNormalizer.fold(title).trim();
+        String authorQuery = TextNormalizer.fold(author).trim();
+
+        Map<Book.GenresEnum, Integer> counts;
+        if (searchIndex.isReady()) {
+            BitSet matches = genreIndex.filter(genreFilter, matchAll);
+            if (!isEmptyQuery(titleQuery, authorQuery)) {
+                matches.and(genreIndex.bitmapOf(
+                        indexSearch(titleQuery, authorQuery, fuzzy, EnumSet.noneOf(Book.GenresEnum.class), false)));
+            }
+            counts = genreIndex.counts(matches);
+        } else {
+            counts = new EnumMap<>(Book.GenresEnum.class);
+            for (Book.GenresEnum genre : Book.GenresEnum.values()) {
+                counts.put(genre, 0);
+            }
+            for (Book book : scan(titleQuery, authorQuery, genreFilter, matchAll)) {
+                for (Book.GenresEnum genre : Set.copyOf(book.getGenres())) {
+                    counts.merge(genre, 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<String, Integer> facets = new LinkedHashMap<>();
+        counts.forEach((genre, count) -> facets.put(genre.getValue(), count));
+        return facets;
+    }
+
+    /**
+     * Get several books at once.
+     * The books are loaded with one IN query per BATCH_CHUNK_SIZE ids; their authors and genres
+     * are fetched in batches as well.
+     *
+     * @param bookIds the ids of the books, duplicates are looked up once
+     * @return the books that were found, in the order of the ids, and the ids that were not found
+     * @throws IllegalArgumentException if the list is missing, has more than MAX_BATCH_IDS ids or a null id
+     * @throws Exception                for testing purposes
+     */
+    public BookBatch getBatch(List<UUID> bookIds) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        if (bookIds == null || bookIds.size() > MAX_BATCH_IDS || bookIds.stream().anyMatch(id -> !util.validId(id))) {
+            // 400: Invalid Request.
+            throw new IllegalArgumentException();
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        List<Book> books = findAllInOrder(ids);
+
+        Set<UUID> found = books.stream().map(Book::getBookId).collect(Collectors.toSet());
+        List<UUID> missing = ids.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+
+        return new BookBatch().books(books).missing(missing);
+    }
+
+    /**
+     * Get autocomplete suggestions for a search query.
+     * Suggestions are the titles and author names in the catalog that start with the prefix,
+     * ordered by the number of books that carry them.
+     *
+     * @param prefix the start of the title or author name, case-insensitive
+     * @param limit  the maximum number of suggestions, null for the default
+     * @return the suggestions, most popular first
+     * @throws IllegalArgumentException if the prefix is empty or the limit is invalid
+     * @throws NotFoundException        if nothing in the catalog starts with the prefix
+     * @throws Exception                for testing purposes
+     */
+    public List<String> suggest(String prefix, Integer limit) throws Exception {
+        if (simulateError) {
+            throw new Exception();
+        }
+
+        int max = limit == null ? DEFAULT_SUGGESTIONS : limit;
+        if (prefix == null || prefix.isBlank() || max < 1 || max > MAX_SUGGESTIONS) {
+            // 400: Invalid Request.
+            throw new IllegalArgumentException();
+        }
+
+        SuggestionTrie trie = suggestionTrie;
+        if (!searchIndex.isReady()) {
+            //until the indexes are built, rank the completions of the books that match the prefix in the database;
+            //titles and first authors are looked up on their indexes, separately as an OR would not use them
+            String folded = TextNormalizer.normalize(prefix);
+            Map<UUID, Book> matches = new LinkedHashMap<>();
+            for (List<Book> books : List.of(catalog.findByTitleFoldedStartingWith(folded),
+                    catalog.findByAuthorsFoldedStartingWith(folded),
+                    catalog.findByAuthorsFoldedContaining(TextNormalizer.AUTHOR_SEPARATOR + folded))) {
+                books.forEach(book -> matches.putIfAbsent(book.getBookId(), book));
+            }
+            trie = new SuggestionTrie();
+            for (Book book : matches.values()) {
+                trie.index(book);
+            }
+        }
+
+        List<String> suggestions = trie.suggest(prefix, max);
+        if (suggestions.isEmpty()) {
+            // 204: No suggestions.
+            throw new NotFoundException("No suggestions found.");
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Parses a list of genre names.
+     *
+     * @param genres the genre names, can be null
+     * @return the genres
+     * @throws IllegalArgumentException if a name is not a genre
+     */
+    private static Set<Book.GenresEnum> parseGenres(List<String> genres) {
+        Set<Book.GenresEnum> result = EnumSet.noneOf(Book.GenresEnum.class);
+        if (genres != null) {
+            for (String genre : genres) {
+                // 400: Invalid Request.
+                result.add(Book.GenresEnum.fromValue(genre));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses the genre match mode.
+     *
+     * @param genreMatch "any" or "all", null for "any"
+     * @return true if a book needs every genre
+     * @throws IllegalArgumentException if the mode is invalid
+     */
+    private static boolean parseGenreMatch(String genreMatch) {
+        if (genreMatch == null || genreMatch.equals("any")) {
+            return false;
+        }
+        if (genreMatch.equals("all")) {
+            return true;
+        }
+        // 400: Invalid Request.
+        throw new IllegalArgumentException("Invalid genre match mode " + genreMatch);
+    }
+
+    private boolean isEmptyQuery(String title, String author) {
+        return util.isNullOrEmpty(title) && util.isNullOrEmpty(author);
+    }
+
+    /**
+     * Finds the ids of the books matching a text query and genre filter on the search indexes.
+     * The ids are cached per query, typo tolerance and genre filter until the next write to the catalog.
+     *
+     * @param title    the folded and trimmed title of the book to search for
+     * @param author   the folded and trimmed author of the book to search for
+     * @param fuzzy    whether to tolerate typos
+     * @param genres   the genres to filter on, empty for no filter
+     * @param matchAll true if a book needs every genre
+     * @return the ids of the matching books
+     */
+    private List<UUID> indexSearch(String title, String author, boolean fuzzy,
+                                   Set<Book.GenresEnum> genres, boolean matchAll) {
+        String mode = (fuzzy ? "fuzzy" : "exact") + (genres.isEmpty() ? "" : (matchAll ? " all " : " any ")
+                + EnumSet.copyOf(genres));
+
+        // read before searching, so that a write during the search keeps its result out of the cache
+        long generation = searchCache.generation();
+        List<UUID> bookIds = searchCache.get(mode, title, author);
+        if (bookIds != null) {
+            return bookIds;
+        }
+
+        if (genres.isEmpty()) {
+            bookIds = fuzzy ? fuzzyIndex.search(title, author) : searchIndex.search(title, author);
+        } else {
+            BitSet filter = genreIndex.filter(genres, matchAll);
+            bookIds = isEmptyQuery(title, author) ? genreIndex.idsOf(filter)
+                    : indexSearch(title, author, fuzzy, EnumSet.noneOf(Book.GenresEnum.class), false).stream()
+                    .filter(id -> genreIndex.contains(filter, id))
+                    .collect(Collectors.toList());
+        }
+        searchCache.put(mode, title, author, generation, bookIds);
+        return bookIds;
+    }
+
+    /**
+     * Searches the catalog with a genre filter by loading and checking every book.
+     * Only used while the search indexes are being built. The genres are copied into an in-memory
+     * snapshot on the calling thread, which is then checked in parallel partitions.
+     *
+     * @param title    the title of the book to search for
+     * @param author   the author of the book to search for
+     * @param genres   the genres to filter on, empty for no filter
+     * @param matchAll true if a book needs every genre
+     * @return a list of books that match the search query and genre filter
+     */
+    private List<Book> scan(String title, String author, Set<Book.GenresEnum> genres, boolean matchAll) {
+        List<Book> books = isEmptyQuery(title, author) ? catalog.findAll() : scan(title, author);
+        if (genres.isEmpty()) {
+            return books;
+        }
+
+        // the lazy genre collections have to be loaded here, the scanning threads cannot use the session
+        List<Map.Entry<Book, Set<Book.GenresEnum>>> snapshot = new ArrayList<>(books.size());
+        for (Book book : books) {
+            Set<Book.GenresEnum> bookGenres = EnumSet.noneOf(Book.GenresEnum.class);
+            bookGenres.addAll(book.getGenres());
+            snapshot.add(Map.entry(book, bookGenres));
+        }
+        return scanner.filter(snapshot, entry -> matchAll ? entry.getValue().containsAll(genres)
+                : entry.getValue().stream().anyMatch(genres::contains)).stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds books that were written to the catalog without going through this service,
+     * such as bulk imports, to the in-memory indexes.
+     *
+     * @param books the books that were added
+     */
+    public void indexBooks(List<Book> books) {
+        for (Book book : books) {
+            indexBook(book);
+        }
+        searchCache.invalidateAll();
+    }
+
+    /**
+     * Adds a book to all the in-memory indexes, replacing its previous version.
+     *
+     * @param book the book to index
+     */
+    private void indexBook(Book book) {
+        for (CatalogIndex index : indexes) {
+            index.index(book);
+        }
+    }
+
+    /**
+     * Removes a book from all the in-memory indexes.
+     *
+     * @param bookId the id of the book to remove
+     */
+    private void unindexBook(UUID bookId) {
+        for (CatalogIndex index : indexes) {
+            index.remove(bookId);
+        }
+    }
+
+    /**
+     * Searches the catalog in the database, on the folded title and authors columns.
+     * Only used while the search index is being built; only the matching books are loaded.
+     *
+     * @param title  the title of the book to search for
+     * @param author the author of the book to search for
+     * @return a list of books that match the case- and accent-insensitive search query
+     */
+    private List<Book> scan(String title, String author) {
+        return catalog.findByTitleFoldedContainingAndAuthorsFoldedContaining(
+                TextNormalizer.fold(title), TextNormalizer.fold(author));
+    }
+
+    /**
+     * Loads the books with the given ids, keeping the order of the ids.
+     * Ids of books that no longer exist are skipped. Long lists are split into chunks,
+     * so no single IN list gets longer than BATCH_CHUNK_SIZE ids.
+     *
+     * @param bookIds the ids of the books to load
+     * @return the books, in the same order as their ids
+     */
+    private List<Book> findAllInOrder(List<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<UUID, Integer> position = new HashMap<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            position.put(bookIds.get(i), i);
+        }
+
+        List<Book> books = new ArrayList<>(bookIds.size());
+        for (int from = 0; from < bookIds.size(); from += BATCH_CHUNK_SIZE) {
+            books.addAll(catalog.findAllById(bookIds.subList(from, Math.min(bookIds.size(), from + BATCH_CHUNK_SIZE))));
+        }
+        books.sort(Comparator.comparingInt(book -> position.get(book.getBookId())));
+        return books;
+    }
 }
@@ -0,0 +1,42 @@
+package nl.tudelft.sem.template.example.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursors of keyset pagination: the sort key and the id of the last item of a page.
+ */
+final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encodes the position of an item in a sorted listing as an opaque cursor.
+     *
+     * @param sortKey the value of the sort field of the item
+     * @param id      the id of the item
+     * @return the cursor
+     */
+    static String encode(String sortKey, UUID id) {
+        String key = sortKey + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by encode.
+     *
+     * @param cursor the cursor
+     * @return the sort key and the id of the cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static String[] decode(String cursor) {
+        String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int split = key.lastIndexOf('\n');
+        if (split < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new String[] {key.substring(0, split), key.substring(split + 1)};
+    }
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.example.services;
 
 import javassist.NotFoundException;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.example.database.BookRepository;
 import nl.tudelft.sem.template.example.database.BookWrapperRepository;
 import lombok.Getter;
@@ -31,6 +32,7 @@ public class UserService {
     private final BookshelfRepository bookshelfRepository;
     private final BookRepository catalog;
     private final BookWrapperRepository bookWrapperRepository;
+    private final BookCache bookCache;
 
     private final UtilityService util;
     private final CategoryService categoryService;
@@ -42,11 +44,12 @@ public class UserService {
     @Autowired
     public UserService(UserRepository userRepository, BookshelfRepository bookshelfRepository,
                        BookRepository catalog, BookWrapperRepository bookWrapperRepository,
-                       CategoryService categoryService, UtilityService util) {
+                       CategoryService categoryService, UtilityService util, BookCache bookCache) {
         this.userRepository = userRepository;
         this.bookshelfRepository = bookshelfRepository;
         this.catalog = catalog;
         this.bookWrapperRepository = bookWrapperRepository;
+        this.bookCache = bookCache;
         this.categoryService = categoryService;
         this.util = util;
     }
@@ -278,7 +281,7 @@ public class UserService {
                 .collect(Collectors.toList());
 
         checkSortingStrategy(order);
-        return sortingStrategy.sort(books, catalog);
+        return sortingStrategy.sort(books, bookCache);
     }
 
     /**
@@ -373,4 +376,25 @@ public class UserService {
         }
         return bookshelves;
     }
+
+    /**
+     * Gets the summaries of all the shelves that are owned by the user, without loading their books or members.
+     *
+     * @param ownerId The user id for whom to search their shelves.
+     * @return The summaries of the bookshelves owned by the user.
+     * @throws NotFoundException
+     */
+    public List<BookshelfSummary> getSummariesByOwner(UUID ownerId) throws NotFoundException {
+        boolean userExists = existsById(ownerId);
+        if (!userExists) {
+            throw new NotFoundException("User with id " + ownerId + " not found");
+        }
+        List<BookshelfSummary> summaries = bookshelfRepository.findSummariesByOwnerId(ownerId).stream()
+                .map(BookshelfRepository.Summary::toModel)
+                .collect(Collectors.toList());
+        if (summaries.isEmpty()) {
+            throw new EmptyResultDataAccessException(0);
+        }
+        return summaries;
+    }
 }
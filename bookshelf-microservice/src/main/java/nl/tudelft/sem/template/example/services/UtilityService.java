@@ -1,5 +1,6 @@
 package nl.tudelft.sem.template.example.services;
 
+import nl.tudelft.sem.template.model.Book;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
@@ -38,4 +39,19 @@ public class UtilityService {
     public boolean isNullOrEmpty(String s) {
         return s == null || s.isEmpty();
     }
+
+    /**
+     * Check if a book has all the details the catalog requires.
+     *
+     * @param book the book to check
+     * @return true if the book has a title, a description, authors, genres and a positive number of pages
+     */
+    public boolean validBook(Book book) {
+        return !isNullOrEmpty(book.getTitle())
+                && !isNullOrEmpty(book.getDescription())
+                && book.getAuthors() != null && !book.getAuthors().isEmpty()
+                && book.getGenres() != null && !book.getGenres().isEmpty()
+                && book.getNumPages() != null
+                && book.getNumPages() > 0;
+    }
 }
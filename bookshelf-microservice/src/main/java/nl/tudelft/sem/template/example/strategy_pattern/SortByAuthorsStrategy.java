@@ -1,11 +1,13 @@
 package nl.tudelft.sem.template.example.strategy_pattern;
 
-import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.model.Book;
 import nl.tudelft.sem.template.model.BookWrapper;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -17,29 +19,21 @@ public class SortByAuthorsStrategy implements SortingStrategy {
      * @return the sorted list of books
      */
     @Override
-    public List<BookWrapper> sort(List<BookWrapper> books, BookRepository catalog) {
+    public List<BookWrapper> sort(List<BookWrapper> books, BookCache catalog) {
         /*
-            Sort the authors alphabetically for every book in the bookshelf
+            Sort the authors alphabetically for every book in the bookshelf, looking every book up once
          */
-        books.forEach(bw -> {
-            UUID bookId = bw.getBookId();
-            Book book = catalog.findById(bookId).get();
+        Map<UUID, String> authors = new HashMap<>();
+        books.forEach(bw -> authors.computeIfAbsent(bw.getBookId(), bookId -> {
+            Book book = catalog.get(bookId).get();
 
             List<String> sortedAuthors = book.getAuthors().stream()
                     .sorted(Comparator.naturalOrder())
                     .collect(Collectors.toList());
-            book.setAuthors(sortedAuthors);
-        });
+            return String.join("", sortedAuthors);
+        }));
 
-        books.sort((bw1, bw2) -> {
-            UUID bookId1 = bw1.getBookId();
-            Book book1 = catalog.findById(bookId1).get();
-
-            UUID bookId2 = bw2.getBookId();
-            Book book2 = catalog.findById(bookId2).get();
-
-            return String.join("", book1.getAuthors()).compareTo(String.join("", book2.getAuthors()));
-        });
+        books.sort((bw1, bw2) -> authors.get(bw1.getBookId()).compareTo(authors.get(bw2.getBookId())));
 
         return books;
     }
@@ -1,11 +1,13 @@
 package nl.tudelft.sem.template.example.strategy_pattern;
 
-import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.model.Book;
 import nl.tudelft.sem.template.model.BookWrapper;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class SortByPagesStrategy implements SortingStrategy {
@@ -16,14 +18,17 @@ public class SortByPagesStrategy implements SortingStrategy {
      * @return the sorted list of books
      */
     @Override
-    public List<BookWrapper> sort(List<BookWrapper> books, BookRepository catalog) {
-        books.sort(Comparator.comparingDouble(bookWrapper -> {
-            UUID bookId = bookWrapper.getBookId();
-            Book book = catalog.findById(bookId).orElse(null);
-
-            return -1.0 * bookWrapper.getCurrentPage() / book.getNumPages();
+    public List<BookWrapper> sort(List<BookWrapper> books, BookCache catalog) {
+        // look every book up once, instead of once per comparison
+        Map<UUID, Integer> numPages = new HashMap<>();
+        books.forEach(bw -> numPages.computeIfAbsent(bw.getBookId(), id -> {
+            Book book = catalog.get(id).orElse(null);
+            return book.getNumPages();
         }));
 
+        books.sort(Comparator.comparingDouble(bookWrapper ->
+                -1.0 * bookWrapper.getCurrentPage() / numPages.get(bookWrapper.getBookId())));
+
         return books;
     }
 }
@@ -1,10 +1,11 @@
 package nl.tudelft.sem.template.example.strategy_pattern;
 
-import nl.tudelft.sem.template.example.database.BookRepository;
-import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.model.BookWrapper;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class SortByTitlesStrategy implements SortingStrategy {
@@ -15,16 +16,13 @@ public class SortByTitlesStrategy implements SortingStrategy {
      * @return the sorted list of books
      */
     @Override
-    public List<BookWrapper> sort(List<BookWrapper> books, BookRepository catalog) {
-        books.sort((bookWrapper1, bookWrapper2) -> {
-            UUID bookId1 = bookWrapper1.getBookId();
-            Book book1 = catalog.findById(bookId1).get();
+    public List<BookWrapper> sort(List<BookWrapper> books, BookCache catalog) {
+        // look every book up once, instead of once per comparison
+        Map<UUID, String> titles = new HashMap<>();
+        books.forEach(bw -> titles.computeIfAbsent(bw.getBookId(), id -> catalog.get(id).get().getTitle()));
 
-            UUID bookId2 = bookWrapper2.getBookId();
-            Book book2 = catalog.findById(bookId2).get();
-
-            return book1.getTitle().compareTo(book2.getTitle());
-        });
+        books.sort((bookWrapper1, bookWrapper2) ->
+                titles.get(bookWrapper1.getBookId()).compareTo(titles.get(bookWrapper2.getBookId())));
 
         return books;
     }
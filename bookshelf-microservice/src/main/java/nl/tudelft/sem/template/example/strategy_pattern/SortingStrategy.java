@@ -1,10 +1,10 @@
 package nl.tudelft.sem.template.example.strategy_pattern;
 
-import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.model.BookWrapper;
 
 import java.util.List;
 
 public interface SortingStrategy {
-    List<BookWrapper> sort(List<BookWrapper> books, BookRepository catalog);
+    List<BookWrapper> sort(List<BookWrapper> books, BookCache catalog);
 }
@@ -0,0 +1,156 @@
+package nl.tudelft.sem.template.example.cache;
+
+import nl.tudelft.sem.template.example.database.TestBookRepository;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BookCacheTest {
+    private TestBookRepository bookRepo;
+
+    @BeforeEach
+    void setUp() {
+        bookRepo = new TestBookRepository();
+    }
+
+    private Book addBook(String title) {
+        Book book = new Book()
+                .bookId(UUID.nameUUIDFromBytes(title.getBytes(StandardCharsets.UTF_8)))
+                .title(title)
+                .authors(new ArrayList<>(List.of("Author")))
+                .genres(new ArrayList<>(List.of(Book.GenresEnum.DRAMA)))
+                .description("Description")
+                .numPages(100);
+        bookRepo.catalog.add(book);
+        return book;
+    }
+
+    private long findByIdCalls() {
+        return bookRepo.calledMethods.stream().filter("findById"::equals).count();
+    }
+
+    @Test
+    public void readsThrough() {
+        BookCache cache = new BookCache(bookRepo, 10);
+        Book book = addBook("Title");
+
+        assertEquals(book, cache.get(book.getBookId()).orElseThrow());
+        assertEquals(book, cache.get(book.getBookId()).orElseThrow());
+
+        assertEquals(1, findByIdCalls());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void missingBooksAreNotCached() {
+        BookCache cache = new BookCache(bookRepo, 10);
+        UUID id = UUID.randomUUID();
+
+        assertTrue(cache.get(id).isEmpty());
+        assertTrue(cache.get(id).isEmpty());
+
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void returnsCopies() {
+        BookCache cache = new BookCache(bookRepo, 10);
+        Book book = addBook("Title");
+
+        Book copy = cache.get(book.getBookId()).orElseThrow();
+        copy.setTitle("Changed");
+        copy.getAuthors().add("Someone else");
+
+        Book again = cache.get(book.getBookId()).orElseThrow();
+        assertEquals("Title", again.getTitle());
+        assertEquals(List.of("Author"), again.getAuthors());
+        assertEquals("Title", book.getTitle());
+    }
+
+    @Test
+    public void invalidateReloads() {
+        BookCache cache = new BookCache(bookRepo, 10);
+        Book book = addBook("Title");
+        cache.get(book.getBookId());
+
+        book.setTitle("New title");
+        assertEquals("Title", cache.get(book.getBookId()).orElseThrow().getTitle());
+
+        cache.invalidate(book.getBookId());
+        assertEquals("New title", cache.get(book.getBookId()).orElseThrow().getTitle());
+        assertEquals(2, findByIdCalls());
+    }
+
+    @Test
+    public void clearEmptiesTheCache() {
+        BookCache cache = new BookCache(bookRepo, 10);
+        cache.get(addBook("A").getBookId());
+        cache.get(addBook("B").getBookId());
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void staysWithinCapacity() {
+        BookCache cache = new BookCache(bookRepo, 100);
+        for (int i = 0; i < 1000; i++) {
+            cache.get(addBook("Book " + i).getBookId());
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.getEvictions());
+    }
+
+    @Test
+    public void popularBooksSurviveAScan() {
+        BookCache cache = new BookCache(bookRepo, 100);
+        List<Book> popular = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            popular.add(addBook("Popular " + i));
+        }
+        for (int round = 0; round < 5; round++) {
+            popular.forEach(book -> cache.get(book.getBookId()));
+        }
+
+        // a long run of books that are asked for only once
+        for (int i = 0; i < 1000; i++) {
+            cache.get(addBook("Scan " + i).getBookId());
+        }
+
+        long misses = cache.getMisses();
+        popular.forEach(book -> cache.get(book.getBookId()));
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    public void capacityOfOne() {
+        BookCache cache = new BookCache(bookRepo, 1);
+        Book first = addBook("First");
+        Book second = addBook("Second");
+
+        cache.get(first.getBookId());
+        cache.get(second.getBookId());
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BookCache(bookRepo, 0));
+    }
+}
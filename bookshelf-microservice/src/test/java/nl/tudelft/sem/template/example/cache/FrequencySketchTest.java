@@ -0,0 +1,57 @@
+package nl.tudelft.sem.template.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void countsAccesses() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(5, sketch.frequency(42));
+        assertEquals(0, sketch.frequency(7));
+    }
+
+    @Test
+    public void saturatesAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(15, sketch.frequency(42));
+    }
+
+    @Test
+    public void agesCounters() {
+        // sized for 16 keys: every counter is halved after 160 additions
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment(42);
+        }
+        for (int i = 0; i < 151; i++) {
+            sketch.increment(1000 + i);
+        }
+        int before = sketch.frequency(42);
+
+        sketch.increment(5000);
+
+        assertTrue(before >= 8);
+        assertTrue(sketch.frequency(42) <= (before + 1) / 2);
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        sketch.increment(42);
+        sketch.clear();
+
+        assertEquals(0, sketch.frequency(42));
+    }
+}
@@ -0,0 +1,87 @@
+package nl.tudelft.sem.template.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SearchResultCacheTest {
+
+    private static UUID id(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void hitAfterPut() {
+        SearchResultCache cache = new SearchResultCache();
+        assertNull(cache.get("exact", "hobbit", ""));
+
+        cache.put("exact", "hobbit", "", cache.generation(), List.of(id("a"), id("b")));
+
+        assertEquals(List.of(id("a"), id("b")), cache.get("exact", "hobbit", ""));
+        assertNull(cache.get("exact", "hobbit", "tolkien"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void modesCachedSeparately() {
+        SearchResultCache cache = new SearchResultCache();
+        cache.put("exact", "hobbit", "", cache.generation(), List.of(id("a")));
+
+        assertNull(cache.get("fuzzy", "hobbit", ""));
+        cache.put("fuzzy", "hobbit", "", cache.generation(), List.of(id("a"), id("b")));
+
+        assertEquals(List.of(id("a")), cache.get("exact", "hobbit", ""));
+        assertEquals(List.of(id("a"), id("b")), cache.get("fuzzy", "hobbit", ""));
+    }
+
+    @Test
+    void invalidateAllMakesEntriesStale() {
+        SearchResultCache cache = new SearchResultCache();
+        cache.put("exact", "", "tolkien", cache.generation(), List.of(id("a")));
+
+        cache.invalidateAll();
+
+        assertNull(cache.get("exact", "", "tolkien"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void resultOfRacingSearchNotCached() {
+        SearchResultCache cache = new SearchResultCache();
+        long generation = cache.generation();
+        // a write lands while the search is running
+        cache.invalidateAll();
+
+        cache.put("exact", "", "tolkien", generation, List.of(id("a")));
+
+        assertNull(cache.get("exact", "", "tolkien"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEvicted() {
+        SearchResultCache cache = new SearchResultCache(2);
+        cache.put("exact", "a", "", cache.generation(), List.of(id("a")));
+        cache.put("exact", "b", "", cache.generation(), List.of(id("b")));
+        cache.get("exact", "a", "");
+
+        cache.put("exact", "c", "", cache.generation(), List.of(id("c")));
+
+        assertEquals(2, cache.size());
+        assertEquals(List.of(id("a")), cache.get("exact", "a", ""));
+        assertNull(cache.get("exact", "b", ""));
+        assertEquals(List.of(id("c")), cache.get("exact", "c", ""));
+    }
+
+    @Test
+    void invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SearchResultCache(0));
+    }
+}
@@ -1,5 +1,6 @@
 package nl.tudelft.sem.template.example.controllers;
 
+import nl.tudelft.sem.template.example.services.BookshelfPage;
 import nl.tudelft.sem.template.example.services.BookshelfService;
 import nl.tudelft.sem.template.example.services.CategoryService;
 import javassist.NotFoundException;
@@ -107,23 +108,47 @@ public class BookshelfControllerTest {
         bookshelves.add(bookshelf);
         when(bookshelfService.getAllBookshelves()).thenReturn(bookshelves);
 
-        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet();
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet(null);
         assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
     }
 
     @Test
     public void testBookshelfGetNoContent() {
-        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet();
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet(null);
         assertEquals(HttpStatus.NO_CONTENT, actualResponse.getStatusCode());
     }
 
     @Test
     public void testBookshelfGetInternalServerError() {
         when(bookshelfService.getAllBookshelves()).thenThrow(NullPointerException.class);
-        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet();
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet(null);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, actualResponse.getStatusCode());
     }
 
+    @Test
+    public void testBookshelfGetInvalidView() {
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGet("everything");
+        assertEquals(HttpStatus.BAD_REQUEST, actualResponse.getStatusCode());
+        verify(bookshelfService, never()).getAllBookshelves();
+    }
+
+    @Test
+    public void testBookshelfSummariesGetSuccessfully() {
+        List<BookshelfSummary> summaries = List.of(new BookshelfSummary(UUID.randomUUID(), "title",
+                BookshelfSummary.PrivacyEnum.PUBLIC, UUID.randomUUID(), 2, 1));
+        when(bookshelfService.getAllBookshelfSummaries()).thenReturn(summaries);
+
+        ResponseEntity<List<BookshelfSummary>> actualResponse = bookshelfController.bookshelfSummariesGet();
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(summaries, actualResponse.getBody());
+    }
+
+    @Test
+    public void testBookshelfSummariesGetNoContent() {
+        ResponseEntity<List<BookshelfSummary>> actualResponse = bookshelfController.bookshelfSummariesGet();
+        assertEquals(HttpStatus.NO_CONTENT, actualResponse.getStatusCode());
+    }
+
     @Test
     public void testBookshelfGetPublicSuccessfully() {
         UUID userId = UUID.randomUUID();
@@ -142,29 +167,92 @@ public class BookshelfControllerTest {
 
         List<Bookshelf> bookshelves = new ArrayList<>();
         bookshelves.add(bookshelf);
-        when(bookshelfService.getAllPublicBookshelves()).thenReturn(bookshelves);
+        when(bookshelfService.getPublicBookshelves(null, null, null)).thenReturn(new BookshelfPage<>(bookshelves, null));
+
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet(null, null, null, null, null);
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertNull(actualResponse.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testBookshelfGetPublicNextPage() {
+        List<Bookshelf> bookshelves = List.of(new Bookshelf().bookshelfId(UUID.randomUUID()).title("title"));
+        when(bookshelfService.getPublicBookshelves(1, "cursor", "tit")).thenReturn(new BookshelfPage<>(bookshelves, "next"));
 
-        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet();
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet(1, "cursor", "tit", null, null);
         assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(bookshelves, actualResponse.getBody());
+        assertEquals("next", actualResponse.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    public void testBookshelfGetPublicBadRequest() {
+        when(bookshelfService.getPublicBookshelves(0, null, null)).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet(0, null, null, null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, actualResponse.getStatusCode());
+    }
+
+    @Test
+    public void testBookshelfGetPublicNotModified() {
+        when(bookshelfService.getPublicVersionTag()).thenReturn("\"abc.7\"");
+
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet(null, null, null, null, "*");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, actualResponse.getStatusCode());
+        verify(bookshelfService, never()).getPublicBookshelves(any(), any(), any());
     }
 
     @Test
     public void testBookshelfGetPublicNoContent() {
         List<Bookshelf> bookshelves = new ArrayList<>();
-        when(bookshelfService.getAllPublicBookshelves()).thenReturn(bookshelves);
+        when(bookshelfService.getPublicBookshelves(null, null, null)).thenReturn(new BookshelfPage<>(bookshelves, null));
 
-        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet();
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet(null, null, null, null, null);
         assertEquals(HttpStatus.NO_CONTENT, actualResponse.getStatusCode());
     }
 
     @Test
     public void testBookshelfGetPublicInternalServerError() {
-        when(bookshelfService.getAllPublicBookshelves()).thenThrow(NullPointerException.class);
+        when(bookshelfService.getPublicBookshelves(null, null, null)).thenThrow(NullPointerException.class);
 
-        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet();
+        ResponseEntity<List<Bookshelf>> actualResponse = bookshelfController.bookshelfGetPublicGet(null, null, null, null, null);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, actualResponse.getStatusCode());
     }
 
+    @Test
+    public void testBookshelfGetPublicInvalidView() {
+        ResponseEntity<List<Bookshelf>> actualResponse =
+                bookshelfController.bookshelfGetPublicGet(null, null, null, "summary", null);
+        assertEquals(HttpStatus.BAD_REQUEST, actualResponse.getStatusCode());
+        verify(bookshelfService, never()).getPublicBookshelves(any(), any(), any());
+    }
+
+    @Test
+    public void testBookshelfGetPublicSummariesNextPage() {
+        List<BookshelfSummary> summaries = List.of(new BookshelfSummary(UUID.randomUUID(), "title",
+                BookshelfSummary.PrivacyEnum.PUBLIC, UUID.randomUUID(), 0, 0));
+        when(bookshelfService.getPublicVersionTag()).thenReturn("\"abc.7\"");
+        when(bookshelfService.getPublicBookshelfSummaries(1, "cursor", null))
+                .thenReturn(new BookshelfPage<>(summaries, "next"));
+
+        ResponseEntity<List<BookshelfSummary>> actualResponse =
+                bookshelfController.bookshelfGetPublicSummariesGet(1, "cursor", null, null);
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(summaries, actualResponse.getBody());
+        assertEquals("next", actualResponse.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals("\"abc.7\"", actualResponse.getHeaders().getETag());
+    }
+
+    @Test
+    public void testBookshelfGetPublicSummariesBadRequest() {
+        when(bookshelfService.getPublicBookshelfSummaries(null, "bad", null)).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<List<BookshelfSummary>> actualResponse =
+                bookshelfController.bookshelfGetPublicSummariesGet(null, "bad", null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, actualResponse.getStatusCode());
+    }
+
     @Test
     public void testCreateBookshelfSuccessfully() {
         UUID userId = UUID.randomUUID();
@@ -2006,7 +2094,7 @@ public class BookshelfControllerTest {
         UUID userId = UUID.randomUUID();
         UUID categoryId = UUID.randomUUID();
         Bookshelf b = new Bookshelf(bookshelfId, new User(userId), "title", "desc",
-                new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>());
+                new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>(), null, false);
 
         when(categoryService.setCategoryAuthenticated(userId, bookshelfId, categoryId)).thenReturn(b);
         assertThat(bookshelfController.bookshelfBookshelfIdEditCategoryPut(bookshelfId, userId, categoryId)).isEqualTo(ResponseEntity.ok(b));
@@ -2097,7 +2185,7 @@ public class BookshelfControllerTest {
         UUID bookshelfId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
         Bookshelf b = new Bookshelf(bookshelfId, new User(userId), "title", "desc",
-                new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>());
+                new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>(), null, false);
 
         when(categoryService.removeCategoryAuthenticated(userId, bookshelfId)).thenReturn(b);
         assertThat(bookshelfController.bookshelfBookshelfIdEditCategoryDelete(bookshelfId, userId)).isEqualTo(ResponseEntity.ok(b));
@@ -2351,26 +2439,51 @@ public class BookshelfControllerTest {
     @Test
     public void testBookshelfBookshelfIdGet200() throws Exception {
         Bookshelf b = new Bookshelf(UUID.randomUUID(), new User(UUID.randomUUID()), "title", "desc",
-                new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>());
+                new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>(), null, false);
         when(bookshelfService.getBookshelfById(bookshelfId)).thenReturn(b);
-        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId)).isEqualTo(ResponseEntity.ok(b));
+        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId, null)).isEqualTo(ResponseEntity.ok(b));
+    }
+
+    @Test
+    public void testBookshelfBookshelfIdGetETag() throws Exception {
+        Bookshelf b = new Bookshelf().bookshelfId(bookshelfId).title("title");
+        when(bookshelfService.getVersionTag(bookshelfId)).thenReturn("\"2.5\"");
+        when(bookshelfService.getBookshelfById(bookshelfId)).thenReturn(b);
+
+        ResponseEntity<Bookshelf> response = bookshelfController.bookshelfBookshelfIdGet(bookshelfId, "\"1.5\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"2.5\"", response.getHeaders().getETag());
+        assertEquals(b, response.getBody());
+    }
+
+    @Test
+    public void testBookshelfBookshelfIdGet304() throws Exception {
+        when(bookshelfService.getVersionTag(bookshelfId)).thenReturn("\"2.5\"");
+
+        ResponseEntity<Bookshelf> response = bookshelfController.bookshelfBookshelfIdGet(bookshelfId, "\"2.5\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"2.5\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(bookshelfService, never()).getBookshelfById(any());
     }
 
     @Test
     public void testBookshelfBookshelfIdGet404() throws Exception {
         when(bookshelfService.getBookshelfById(bookshelfId)).thenThrow(new NotFoundException("Bookshelf not found"));
-        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId)).isEqualTo(ResponseEntity.notFound().build());
+        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId, null)).isEqualTo(ResponseEntity.notFound().build());
     }
 
     @Test
     public void testBookshelfBookshelfIdGet500() throws Exception {
         when(bookshelfService.getBookshelfById(bookshelfId)).thenThrow(new RuntimeException("Some exception"));
-        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId)).isEqualTo(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId, null)).isEqualTo(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
     }
 
     @Test
     public void testBookshelfBookshelfIdUserIdBookGet400() throws Exception {
         when(bookshelfService.getBookshelfById(bookshelfId)).thenThrow(new IllegalArgumentException());
-        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId)).isEqualTo(ResponseEntity.badRequest().build());
+        assertThat(bookshelfController.bookshelfBookshelfIdGet(bookshelfId, null)).isEqualTo(ResponseEntity.badRequest().build());
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package nl.tudelft.sem.template.example.controllers;
 
 import nl.tudelft.sem.template.example.database.TestBookRepository;
+import nl.tudelft.sem.template.example.database.TestBookWrapperRepository;
 import nl.tudelft.sem.template.example.database.TestBookshelfRepository;
 
 import nl.tudelft.sem.template.example.services.CatalogService;
 import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.model.BookBatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import nl.tudelft.sem.template.example.utility.TestingUtility;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class CatalogControllerTest {
@@ -31,7 +34,7 @@ public class CatalogControllerTest {
         bookRepo = new TestBookRepository();
         TestBookshelfRepository bookshelfRepo = new TestBookshelfRepository();
         util = new TestingUtility(bookRepo, bookshelfRepo);
-        catalogService = new CatalogService(bookRepo, bookshelfRepo);
+        catalogService = new CatalogService(bookRepo, bookshelfRepo, new TestBookWrapperRepository());
         catalogController = new CatalogController(catalogService);
     }
 
@@ -80,7 +83,7 @@ public class CatalogControllerTest {
         Book b = util.constructBook();
         catalogController.catalogPost(b);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogGet();
+        ResponseEntity<List<Book>> actual = catalogController.catalogGet(null, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(List.of(b), actual.getBody());
@@ -93,7 +96,7 @@ public class CatalogControllerTest {
      */
     @Test
     public void catalogGetNoContentTest() {
-        ResponseEntity<List<Book>> actual = catalogController.catalogGet();
+        ResponseEntity<List<Book>> actual = catalogController.catalogGet(null, null, null);
 
         assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
     }
@@ -104,11 +107,57 @@ public class CatalogControllerTest {
     @Test
     public void catalogGetInternalServerErrorTest() {
         catalogService.setSimulateError(true);
-        ResponseEntity<List<Book>> actual = catalogController.catalogGet();
+        ResponseEntity<List<Book>> actual = catalogController.catalogGet(null, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, actual.getStatusCode());
     }
 
+    /**
+     * Test the catalogGet method in paginated mode - OK Response.
+     */
+    @Test
+    public void catalogGetPaginatedOKTest() {
+        Book b1 = util.constructBook("A");
+        Book b2 = util.constructBook("B");
+        Book b3 = util.constructBook("C");
+        catalogController.catalogPost(b3);
+        catalogController.catalogPost(b1);
+        catalogController.catalogPost(b2);
+
+        ResponseEntity<List<Book>> first = catalogController.catalogGet(2, null, null);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(List.of(b1, b2), first.getBody());
+
+        String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        ResponseEntity<List<Book>> second = catalogController.catalogGet(2, cursor, null);
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(List.of(b3), second.getBody());
+        assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+        util.assertBookRepoCall("findPageByTitleAfter");
+    }
+
+    /**
+     * Test the catalogGet method in paginated mode - BAD_REQUEST Response.
+     */
+    @Test
+    public void catalogGetPaginatedBadRequestTest() {
+        catalogController.catalogPost(util.constructBook());
+
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogGet(0, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogGet(null, "not a cursor", null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogGet(null, null, "authors").getStatusCode());
+    }
+
+    /**
+     * Test the catalogGet method in paginated mode - NO_CONTENT Response.
+     */
+    @Test
+    public void catalogGetPaginatedNoContentTest() {
+        assertEquals(HttpStatus.NO_CONTENT, catalogController.catalogGet(10, null, "numPages").getStatusCode());
+    }
+
     /**
      * Test the catalogDelete method - OK Response.
      * Note: can't test if the book is removed from the bookshelves,
@@ -244,7 +293,7 @@ public class CatalogControllerTest {
         Book b = util.constructBook();
         catalogController.catalogPost(b);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId());
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId(), null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(List.of(b), actual.getBody());
@@ -252,13 +301,47 @@ public class CatalogControllerTest {
         util.assertBookRepoCall("findById");
     }
 
+    /*
+     * Test the catalogBookIdGet method - the ETag of the book is returned.
+     */
+    @Test
+    public void catalogBookIdGetETagTest() {
+        Book b = util.constructBook();
+        catalogController.catalogPost(b);
+        bookRepo.catalog.get(0).setVersion(2L);
+
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId(), "\"1\"");
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals("\"2\"", actual.getHeaders().getETag());
+        assertEquals(List.of(b), actual.getBody());
+    }
+
+    /*
+     * Test the catalogBookIdGet method - NOT_MODIFIED Response.
+     */
+    @Test
+    public void catalogBookIdGetNotModifiedTest() {
+        Book b = util.constructBook();
+        catalogController.catalogPost(b);
+        bookRepo.catalog.get(0).setVersion(2L);
+        bookRepo.calledMethods.clear();
+
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId(), "\"1\", W/\"2\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        assertEquals("\"2\"", actual.getHeaders().getETag());
+        assertNull(actual.getBody());
+        assertEquals(List.of("findVersionById"), bookRepo.calledMethods);
+    }
+
     /*
      * Test the catalogBookIdGet method - NOT_FOUND Response.
      */
     @Test
     public void catalogBookIdGetNotFoundTest() {
         Book b = util.constructBook();
-        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId());
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId(), null);
 
         assertEquals(HttpStatus.NOT_FOUND, actual.getStatusCode());
         assertNull(actual.getBody());
@@ -269,11 +352,49 @@ public class CatalogControllerTest {
      */
     @Test
     public void catalogBookIdGetBadRequestTest() {
-        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(null);
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, actual.getStatusCode());
     }
 
+    /*
+     * Test the catalogBatchPost method - OK Response.
+     */
+    @Test
+    public void catalogBatchPostOKTest() {
+        Book b = util.constructBook();
+        catalogController.catalogPost(b);
+        UUID unknown = UUID.randomUUID();
+
+        ResponseEntity<BookBatch> actual = catalogController.catalogBatchPost(List.of(unknown, b.getBookId()));
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(List.of(b), actual.getBody().getBooks());
+        assertEquals(List.of(unknown), actual.getBody().getMissing());
+    }
+
+    /*
+     * Test the catalogBatchPost method - BAD_REQUEST Response.
+     */
+    @Test
+    public void catalogBatchPostBadRequestTest() {
+        ResponseEntity<BookBatch> actual = catalogController.catalogBatchPost(null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, actual.getStatusCode());
+    }
+
+    /*
+     * Test the catalogBatchPost method - INTERNAL_SERVER_ERROR Response.
+     */
+    @Test
+    public void catalogBatchPostInternalServerErrorTest() {
+        catalogService.setSimulateError(true);
+
+        ResponseEntity<BookBatch> actual = catalogController.catalogBatchPost(List.of(UUID.randomUUID()));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, actual.getStatusCode());
+    }
+
     /*
      * Test the catalogBookIdGet method - INTERNAL_SERVER_ERROR Response.
      */
@@ -284,7 +405,7 @@ public class CatalogControllerTest {
 
         catalogService.setSimulateError(true);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId());
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdGet(b.getBookId(), null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, actual.getStatusCode());
     }
@@ -352,12 +473,12 @@ public class CatalogControllerTest {
         Book b = util.constructBook("Title");
         catalogController.catalogPost(b);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(b.getTitle(), null);
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(b.getTitle(), null, null, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(List.of(b), actual.getBody());
 
-        util.assertBookRepoCall("findAll");
+        util.assertBookRepoCall("findByTitleFoldedContainingAndAuthorsFoldedContaining");
     }
 
     /*
@@ -368,7 +489,7 @@ public class CatalogControllerTest {
         Book b = util.constructBook("Title");
         catalogController.catalogPost(b);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(null, null);
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(null, null, null, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(List.of(b), actual.getBody());
@@ -384,12 +505,12 @@ public class CatalogControllerTest {
         Book b = util.constructBook(List.of("Author1", "Author2"));
         catalogController.catalogPost(b);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(null, b.getAuthors().get(0));
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(null, b.getAuthors().get(0), null, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(List.of(b), actual.getBody());
 
-        util.assertBookRepoCall("findAll");
+        util.assertBookRepoCall("findByTitleFoldedContainingAndAuthorsFoldedContaining");
     }
 
     /*
@@ -400,12 +521,13 @@ public class CatalogControllerTest {
         Book b = util.constructBook("Title1", List.of("Author1", "Author2"));
         catalogController.catalogPost(b);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(b.getTitle(), b.getAuthors().get(0));
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(b.getTitle(), b.getAuthors().get(0),
+                null, null, null);
 
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(List.of(b), actual.getBody());
 
-        util.assertBookRepoCall("findAll");
+        util.assertBookRepoCall("findByTitleFoldedContainingAndAuthorsFoldedContaining");
     }
 
     /*
@@ -415,7 +537,7 @@ public class CatalogControllerTest {
     public void catalogSearchGetNoContentTest() {
         Book b = util.constructBook("Title", List.of("Author2"));
         catalogController.catalogPost(b);
-        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet("Title", "Author1");
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet("Title", "Author1", null, null, null);
 
         assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
         assertNull(actual.getBody());
@@ -431,8 +553,181 @@ public class CatalogControllerTest {
 
         catalogService.setSimulateError(true);
 
-        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet("Title", "Author1");
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet("Title", "Author1", null, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, actual.getStatusCode());
     }
+
+    /*
+     * Test the catalogSuggestGet method - OK Response.
+     */
+    @Test
+    public void catalogSuggestGetOKTest() {
+        catalogController.catalogPost(util.constructBook("Dune", List.of("Frank Herbert")));
+        catalogController.catalogPost(util.constructBook("Dune Messiah", List.of("Frank Herbert")));
+
+        ResponseEntity<List<String>> actual = catalogController.catalogSuggestGet("DU", null);
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(List.of("Dune", "Dune Messiah"), actual.getBody());
+    }
+
+    /*
+     * Test the catalogSuggestGet method - BAD_REQUEST Response.
+     */
+    @Test
+    public void catalogSuggestGetBadRequestTest() {
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogSuggestGet(" ", null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogSuggestGet("du", 0).getStatusCode());
+    }
+
+    /*
+     * Test the catalogSuggestGet method - NO_CONTENT Response.
+     */
+    @Test
+    public void catalogSuggestGetNoContentTest() {
+        catalogController.catalogPost(util.constructBook("Dune"));
+
+        ResponseEntity<List<String>> actual = catalogController.catalogSuggestGet("x", null);
+
+        assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
+        assertNull(actual.getBody());
+    }
+
+    /*
+     * Test the catalogSuggestGet method - INTERNAL_SERVER_ERROR Response.
+     */
+    @Test
+    public void catalogSuggestGetInternalServerErrorTest() {
+        catalogService.setSimulateError(true);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, catalogController.catalogSuggestGet("du", null).getStatusCode());
+    }
+
+    /*
+     * Test the catalogSearchGet method with a misspelled fuzzy query - OK Response.
+     */
+    @Test
+    public void catalogSearchGetFuzzyOKTest() {
+        Book b = util.constructBook("Tom Sawyer", List.of("Mark Twain"));
+        catalogController.catalogPost(b);
+        catalogService.rebuildIndexes();
+
+        assertEquals(HttpStatus.NO_CONTENT,
+                catalogController.catalogSearchGet(null, "Mark Twian", false, null, null).getStatusCode());
+
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(null, "Mark Twian", true, null, null);
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(List.of(b), actual.getBody());
+    }
+
+    /*
+     * Test the catalogSearchGet method with a genre filter - OK and BAD_REQUEST Responses.
+     */
+    @Test
+    public void catalogSearchGetGenresTest() {
+        Book b = util.constructBookGenres(List.of(Book.GenresEnum.HORROR));
+        catalogController.catalogPost(b);
+        catalogService.rebuildIndexes();
+
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchGet(null, null, null, List.of("HORROR"), "all");
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(List.of(b), actual.getBody());
+
+        assertEquals(HttpStatus.NO_CONTENT,
+                catalogController.catalogSearchGet(null, null, null, List.of("DRAMA"), null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                catalogController.catalogSearchGet(null, null, null, List.of("horror"), null).getStatusCode());
+    }
+
+    /*
+     * Test the catalogSearchFacetsGet method - OK Response.
+     */
+    @Test
+    public void catalogSearchFacetsGetOKTest() {
+        catalogController.catalogPost(util.constructBookGenres(List.of(Book.GenresEnum.HORROR)));
+        catalogService.rebuildIndexes();
+
+        ResponseEntity<Map<String, Integer>> actual = catalogController.catalogSearchFacetsGet(null, null, null,
+                null, null);
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(1, actual.getBody().get("HORROR"));
+        assertEquals(0, actual.getBody().get("DRAMA"));
+    }
+
+    /*
+     * Test the catalogSearchFacetsGet method - BAD_REQUEST and INTERNAL_SERVER_ERROR Responses.
+     */
+    @Test
+    public void catalogSearchFacetsGetErrorTest() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                catalogController.catalogSearchFacetsGet(null, null, null, null, "none").getStatusCode());
+
+        catalogService.setSimulateError(true);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                catalogController.catalogSearchFacetsGet(null, null, null, null, null).getStatusCode());
+    }
+
+    /*
+     * Test the catalogSearchRankedGet method - OK and NO_CONTENT Responses.
+     */
+    @Test
+    public void catalogSearchRankedGetTest() {
+        Book b = util.constructBook("Moby Dick", List.of("Herman Melville"));
+        catalogController.catalogPost(b);
+
+        ResponseEntity<List<Book>> actual = catalogController.catalogSearchRankedGet("whale moby", null);
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(List.of(b), actual.getBody());
+
+        assertEquals(HttpStatus.NO_CONTENT, catalogController.catalogSearchRankedGet("whale", 5).getStatusCode());
+    }
+
+    /*
+     * Test the catalogSearchRankedGet method - BAD_REQUEST and INTERNAL_SERVER_ERROR Responses.
+     */
+    @Test
+    public void catalogSearchRankedGetErrorTest() {
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogSearchRankedGet("", null).getStatusCode());
+
+        catalogService.setSimulateError(true);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                catalogController.catalogSearchRankedGet("whale", null).getStatusCode());
+    }
+
+    /*
+     * Test the catalogBookIdSimilarGet method - OK and NO_CONTENT Responses.
+     */
+    @Test
+    public void catalogBookIdSimilarGetTest() {
+        Book b1 = util.constructBook("Moby Dick", List.of("Herman Melville"));
+        Book b2 = util.constructBook("Billy Budd", List.of("Herman Melville"));
+        catalogController.catalogPost(b1);
+
+        assertEquals(HttpStatus.NO_CONTENT, catalogController.catalogBookIdSimilarGet(b1.getBookId(), null).getStatusCode());
+
+        catalogController.catalogPost(b2);
+        ResponseEntity<List<Book>> actual = catalogController.catalogBookIdSimilarGet(b1.getBookId(), 5);
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(List.of(b2), actual.getBody());
+    }
+
+    /*
+     * Test the catalogBookIdSimilarGet method - BAD_REQUEST, NOT_FOUND and INTERNAL_SERVER_ERROR Responses.
+     */
+    @Test
+    public void catalogBookIdSimilarGetErrorTest() {
+        Book b = util.constructBook();
+        catalogController.catalogPost(b);
+
+        assertEquals(HttpStatus.BAD_REQUEST, catalogController.catalogBookIdSimilarGet(b.getBookId(), 0).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                catalogController.catalogBookIdSimilarGet(UUID.randomUUID(), null).getStatusCode());
+
+        catalogService.setSimulateError(true);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                catalogController.catalogBookIdSimilarGet(b.getBookId(), null).getStatusCode());
+    }
 }
@@ -0,0 +1,48 @@
+package nl.tudelft.sem.template.example.controllers;
+
+import nl.tudelft.sem.template.example.services.CatalogExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class CatalogExportControllerTest {
+    private CatalogExportService exportService;
+    private CatalogExportController exportController;
+
+    /**
+     * Setup before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        exportService = mock(CatalogExportService.class);
+        exportController = new CatalogExportController(exportService);
+    }
+
+    /**
+     * Test the catalogExportGet method - OK Response, exporting only once the body is written.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void catalogExportGetOKTest() throws Exception {
+        ResponseEntity<StreamingResponseBody> actual = exportController.catalogExportGet();
+
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(CatalogExportController.NDJSON, actual.getHeaders().getContentType());
+        verify(exportService, never()).export(any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        actual.getBody().writeTo(out);
+        verify(exportService).export(out);
+    }
+}
@@ -0,0 +1,82 @@
+package nl.tudelft.sem.template.example.controllers;
+
+import nl.tudelft.sem.template.model.CatalogImportReport;
+import nl.tudelft.sem.template.example.services.CatalogImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CatalogImportControllerTest {
+    private CatalogImportService importService;
+    private CatalogImportController importController;
+    private InputStream body;
+
+    /**
+     * Setup before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        importService = mock(CatalogImportService.class);
+        importController = new CatalogImportController(importService);
+        body = new ByteArrayInputStream(new byte[0]);
+    }
+
+    /**
+     * Test the catalogBulkPost method for both formats - OK Response.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void catalogBulkPostOKTest() throws Exception {
+        CatalogImportReport report = new CatalogImportReport(1L, 0L, 1L, 1000.0, List.of());
+        when(importService.importBooks(body, CatalogImportService.Format.CSV, 10)).thenReturn(report);
+        when(importService.importBooks(body, CatalogImportService.Format.NDJSON, null)).thenReturn(report);
+
+        ResponseEntity<CatalogImportReport> csv = importController.catalogBulkPost("text/csv;charset=UTF-8", 10, body);
+        ResponseEntity<CatalogImportReport> ndjson = importController.catalogBulkPost("application/x-ndjson", null,
+                body);
+
+        assertEquals(HttpStatus.OK, csv.getStatusCode());
+        assertEquals(report, csv.getBody());
+        assertEquals(HttpStatus.OK, ndjson.getStatusCode());
+        assertEquals(report, ndjson.getBody());
+    }
+
+    /**
+     * Test the catalogBulkPost method - BAD_REQUEST Response.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void catalogBulkPostBadRequestTest() throws Exception {
+        when(importService.importBooks(any(), any(), eq(0))).thenThrow(new IllegalArgumentException());
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                importController.catalogBulkPost("text/csv", 0, body).getStatusCode());
+    }
+
+    /**
+     * Test the catalogBulkPost method - INTERNAL_SERVER_ERROR Response.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void catalogBulkPostInternalServerErrorTest() throws Exception {
+        when(importService.importBooks(any(), any(), any())).thenThrow(new IOException());
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                importController.catalogBulkPost("text/csv", null, body).getStatusCode());
+    }
+}
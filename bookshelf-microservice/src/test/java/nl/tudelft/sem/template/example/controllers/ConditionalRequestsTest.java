@@ -0,0 +1,55 @@
+package nl.tudelft.sem.template.example.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConditionalRequestsTest {
+
+    @Test
+    public void matchesSingleTag() {
+        assertTrue(ConditionalRequests.matches("\"3\"", "\"3\""));
+        assertFalse(ConditionalRequests.matches("\"2\"", "\"3\""));
+    }
+
+    @Test
+    public void matchesListOfTags() {
+        assertTrue(ConditionalRequests.matches("\"1\", \"3\" ,\"5\"", "\"3\""));
+        assertFalse(ConditionalRequests.matches("\"1\", \"5\"", "\"3\""));
+    }
+
+    @Test
+    public void matchesWeakTagAndWildcard() {
+        assertTrue(ConditionalRequests.matches("W/\"3\"", "\"3\""));
+        assertTrue(ConditionalRequests.matches("*", "\"3\""));
+    }
+
+    @Test
+    public void neverMatchesWithoutHeaderOrTag() {
+        assertFalse(ConditionalRequests.matches(null, "\"3\""));
+        assertFalse(ConditionalRequests.matches("*", null));
+    }
+
+    @Test
+    public void okWithoutTag() {
+        ResponseEntity<String> response = ConditionalRequests.ok(null, "body");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getETag());
+        assertEquals("body", response.getBody());
+    }
+
+    @Test
+    public void notModifiedCarriesTag() {
+        ResponseEntity<String> response = ConditionalRequests.notModified("\"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+}
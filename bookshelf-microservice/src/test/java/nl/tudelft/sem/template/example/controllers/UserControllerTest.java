@@ -24,7 +24,9 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +34,7 @@ import nl.tudelft.sem.template.example.services.UserService;
 import nl.tudelft.sem.template.model.Book;
 import nl.tudelft.sem.template.model.BookWrapper;
 import nl.tudelft.sem.template.model.Bookshelf;
+import nl.tudelft.sem.template.model.BookshelfSummary;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,7 +68,7 @@ public class UserControllerTest {
     public void userUserIdBookshelvesGetOk() throws NotFoundException {
         Bookshelf shelf = new Bookshelf().bookshelfId(UUID.randomUUID());
         when(userService.getByOwner(user.getUserId())).thenReturn(List.of(shelf));
-        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId());
+        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId(), null);
         assertEquals(List.of(shelf), actual.getBody());
         assertEquals(actual.getStatusCode(), HttpStatus.OK);
     }
@@ -73,7 +76,7 @@ public class UserControllerTest {
     @Test
     public void userUserIdBookshelvesGetNoContent() throws NotFoundException {
         when(userService.getByOwner(user.getUserId())).thenThrow(new EmptyResultDataAccessException(0));
-        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId());
+        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId(), null);
 
         assertEquals(actual.getStatusCode(), HttpStatus.NO_CONTENT);
     }
@@ -81,7 +84,7 @@ public class UserControllerTest {
     @Test
     public void userUserIdBookshelvesGetBadRequest() throws NotFoundException {
         when(userService.getByOwner(user.getUserId())).thenThrow(new IllegalArgumentException());
-        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId());
+        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId(), null);
 
         assertEquals(actual.getStatusCode(), HttpStatus.BAD_REQUEST);
     }
@@ -89,7 +92,7 @@ public class UserControllerTest {
     @Test
     public void userUserIdBookshelvesGetNotFound() throws NotFoundException {
         when(userService.getByOwner(user.getUserId())).thenThrow(new NotFoundException("User not found"));
-        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId());
+        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId(), null);
 
         assertEquals(actual.getStatusCode(), HttpStatus.NOT_FOUND);
     }
@@ -97,11 +100,45 @@ public class UserControllerTest {
     @Test
     public void userUserIdBookshelvesGetServerError() throws NotFoundException {
         when(userService.getByOwner(user.getUserId())).thenThrow(new IndexOutOfBoundsException());
-        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId());
+        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId(), null);
 
         assertEquals(actual.getStatusCode(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @Test
+    public void userUserIdBookshelvesGetInvalidView() throws NotFoundException {
+        ResponseEntity<List<Bookshelf>> actual = userController.userUserIdBookshelvesGet(user.getUserId(), "none");
+
+        assertEquals(actual.getStatusCode(), HttpStatus.BAD_REQUEST);
+        verify(userService, never()).getByOwner(any());
+    }
+
+    @Test
+    public void userUserIdBookshelfSummariesGetOk() throws NotFoundException {
+        BookshelfSummary summary = new BookshelfSummary(UUID.randomUUID(), "title",
+                BookshelfSummary.PrivacyEnum.PRIVATE, user.getUserId(), 3, 0);
+        when(userService.getSummariesByOwner(user.getUserId())).thenReturn(List.of(summary));
+        ResponseEntity<List<BookshelfSummary>> actual = userController.userUserIdBookshelfSummariesGet(user.getUserId());
+        assertEquals(List.of(summary), actual.getBody());
+        assertEquals(actual.getStatusCode(), HttpStatus.OK);
+    }
+
+    @Test
+    public void userUserIdBookshelfSummariesGetNoContent() throws NotFoundException {
+        when(userService.getSummariesByOwner(user.getUserId())).thenThrow(new EmptyResultDataAccessException(0));
+        ResponseEntity<List<BookshelfSummary>> actual = userController.userUserIdBookshelfSummariesGet(user.getUserId());
+
+        assertEquals(actual.getStatusCode(), HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    public void userUserIdBookshelfSummariesGetNotFound() throws NotFoundException {
+        when(userService.getSummariesByOwner(user.getUserId())).thenThrow(new NotFoundException("User not found"));
+        ResponseEntity<List<BookshelfSummary>> actual = userController.userUserIdBookshelfSummariesGet(user.getUserId());
+
+        assertEquals(actual.getStatusCode(), HttpStatus.NOT_FOUND);
+    }
+
 
     @Test
     public void userUserIdInsightsBooksReadGetOk() throws Exception {
@@ -1,5 +1,7 @@
 package nl.tudelft.sem.template.example.database;
 
+import nl.tudelft.sem.template.example.search.BookRecord;
+import nl.tudelft.sem.template.example.search.TextNormalizer;
 import nl.tudelft.sem.template.model.Book;
 
 import org.springframework.data.domain.Example;
@@ -8,9 +10,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TestBookRepository implements BookRepository {
     public final List<Book> catalog = new ArrayList<>();
@@ -39,7 +46,13 @@ public class TestBookRepository implements BookRepository {
 
     @Override
     public List<Book> findAllById(Iterable<UUID> uuids) {
-        return null;
+        call("findAllById");
+
+        List<Book> books = new ArrayList<>();
+        for (UUID id : uuids) {
+            findById(id).ifPresent(books::add);
+        }
+        return books;
     }
 
     @Override
@@ -165,4 +178,121 @@ public class TestBookRepository implements BookRepository {
     public <S extends Book> boolean exists(Example<S> example) {
         return false;
     }
+
+    @Override
+    public List<Book> findFirstPageByTitle(Pageable pageable) {
+        call("findFirstPageByTitle");
+        return page(b -> true, Comparator.comparing(Book::getTitle), pageable);
+    }
+
+    @Override
+    public List<Book> findPageByTitleAfter(String title, UUID bookId, Pageable pageable) {
+        call("findPageByTitleAfter");
+        return page(b -> b.getTitle().compareTo(title) > 0
+                        || (b.getTitle().equals(title) && b.getBookId().compareTo(bookId) > 0),
+                Comparator.comparing(Book::getTitle), pageable);
+    }
+
+    @Override
+    public List<Book> findFirstPageByNumPages(Pageable pageable) {
+        call("findFirstPageByNumPages");
+        return page(b -> true, Comparator.comparing(Book::getNumPages), pageable);
+    }
+
+    @Override
+    public List<Book> findPageByNumPagesAfter(Integer numPages, UUID bookId, Pageable pageable) {
+        call("findPageByNumPagesAfter");
+        return page(b -> b.getNumPages() > numPages
+                        || (b.getNumPages().equals(numPages) && b.getBookId().compareTo(bookId) > 0),
+                Comparator.comparing(Book::getNumPages), pageable);
+    }
+
+    @Override
+    public List<UUID> findExistingIds(Collection<UUID> ids) {
+        call("findExistingIds");
+        return catalog.stream()
+                .map(Book::getBookId)
+                .filter(ids::contains)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> findByTitleFoldedContainingAndAuthorsFoldedContaining(String titleFolded, String authorsFolded) {
+        call("findByTitleFoldedContainingAndAuthorsFoldedContaining");
+        // there is no entity listener here, so the folded columns are computed on the fly
+        return catalog.stream()
+                .filter(book -> TextNormalizer.fold(book.getTitle()).contains(titleFolded)
+                        && TextNormalizer.foldAuthors(book.getAuthors()).contains(authorsFolded))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> findByTitleFoldedStartingWith(String titlePrefix) {
+        call("findByTitleFoldedStartingWith");
+        return catalog.stream()
+                .filter(book -> TextNormalizer.fold(book.getTitle()).startsWith(titlePrefix))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> findByAuthorsFoldedStartingWith(String authorPrefix) {
+        call("findByAuthorsFoldedStartingWith");
+        return catalog.stream()
+                .filter(book -> TextNormalizer.foldAuthors(book.getAuthors()).startsWith(authorPrefix))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> findByAuthorsFoldedContaining(String laterAuthorPrefix) {
+        call("findByAuthorsFoldedContaining");
+        return catalog.stream()
+                .filter(book -> TextNormalizer.foldAuthors(book.getAuthors()).contains(laterAuthorPrefix))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<IdAndVersion> findAllVersions() {
+        call("findAllVersions");
+        return catalog.stream()
+                .map(book -> new IdAndVersion() {
+                    @Override
+                    public UUID getBookId() {
+                        return book.getBookId();
+                    }
+
+                    @Override
+                    public Long getVersion() {
+                        return book.getVersion() == null ? 0L : book.getVersion();
+                    }
+
+                    @Override
+                    public Long getContentHash() {
+                        return BookRecord.of(book).getContentHash();
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Long> findVersionById(UUID bookId) {
+        call("findVersionById");
+        return catalog.stream()
+                .filter(book -> book.getBookId().equals(bookId))
+                .findFirst()
+                .map(Book::getVersion);
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        call("streamAll");
+        return catalog.stream();
+    }
+
+    private List<Book> page(Predicate<Book> after, Comparator<Book> order, Pageable pageable) {
+        return catalog.stream()
+                .filter(after)
+                .sorted(order.thenComparing(Book::getBookId))
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
 }
@@ -1,21 +1,27 @@
 package nl.tudelft.sem.template.example.database;
 
 import nl.tudelft.sem.template.example.entities.BookWrapperId;
+import nl.tudelft.sem.template.model.Book;
 import nl.tudelft.sem.template.model.BookWrapper;
+import nl.tudelft.sem.template.model.Bookshelf;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class TestBookWrapperRepository implements BookWrapperRepository {
     public final List<BookWrapper> catalog = new ArrayList<>();
     public final List<String> calledMethods = new ArrayList<>();
+    public TestBookshelfRepository bookshelfRepository;
 
     private void call(String name) {
         calledMethods.add(name);
@@ -52,7 +58,8 @@ public class TestBookWrapperRepository implements BookWrapperRepository {
     public void deleteById(BookWrapperId id) {
         call("deleteById");
         for (int i = 0; i < catalog.size(); i++) {
-            if (catalog.get(i).getBookId().equals(id.getBookId())) {
+            if (catalog.get(i).getBookId().equals(id.getBookId())
+                    && catalog.get(i).getUserId().equals(id.getUserId())) {
                 catalog.remove(i);
                 return;
             }
@@ -79,7 +86,8 @@ public class TestBookWrapperRepository implements BookWrapperRepository {
         call("save");
 
         for (int i = 0; i < catalog.size(); i++) {
-            if (catalog.get(i).getBookId().equals(entity.getBookId())) {
+            if (catalog.get(i).getBookId().equals(entity.getBookId())
+                    && catalog.get(i).getUserId().equals(entity.getUserId())) {
                 catalog.set(i, entity);
                 return entity;
             }
@@ -107,6 +115,127 @@ public class TestBookWrapperRepository implements BookWrapperRepository {
         return Optional.empty();
     }
 
+    @Override
+    public List<BookWrapperId> findIds(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        call("findIds");
+        return catalog.stream()
+                .filter(w -> bookIds.contains(w.getBookId()) && userIds.contains(w.getUserId()))
+                .map(w -> new BookWrapperId(w.getBookId(), w.getUserId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int incrementShelfCounts(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        call("incrementShelfCounts");
+        int updated = 0;
+        for (BookWrapper wrapper : catalog) {
+            if (bookIds.contains(wrapper.getBookId()) && userIds.contains(wrapper.getUserId())) {
+                wrapper.setShelfCount(wrapper.getShelfCount() + 1);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int decrementShelfCounts(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        call("decrementShelfCounts");
+        int updated = 0;
+        for (BookWrapper wrapper : catalog) {
+            if (bookIds.contains(wrapper.getBookId()) && userIds.contains(wrapper.getUserId())) {
+                wrapper.setShelfCount((wrapper.getShelfCount() == null ? 0 : wrapper.getShelfCount()) - 1);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int deleteUnshelvedTags(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        call("deleteUnshelvedTags");
+        return 0;
+    }
+
+    @Override
+    public int deleteUnshelved(Collection<UUID> bookIds, Collection<UUID> userIds) {
+        call("deleteUnshelved");
+        int before = catalog.size();
+        catalog.removeIf(w -> bookIds.contains(w.getBookId()) && userIds.contains(w.getUserId())
+                && (w.getShelfCount() == null || w.getShelfCount() <= 0));
+        return before - catalog.size();
+    }
+
+    @Override
+    public int decrementShelfCountsOfBookshelf(UUID bookshelfId) {
+        call("decrementShelfCountsOfBookshelf");
+        Bookshelf bookshelf = bookshelfOf(bookshelfId);
+        if (bookshelf == null) {
+            return 0;
+        }
+        Set<UUID> users = new HashSet<>();
+        users.add(bookshelf.getOwner().getUserId());
+        if (bookshelf.getMembers() != null) {
+            bookshelf.getMembers().forEach(member -> users.add(member.getUserId()));
+        }
+        return decrementShelfCounts(bookIdsOf(bookshelf), users);
+    }
+
+    @Override
+    public int deleteUnshelvedTagsOfBookshelf(UUID bookshelfId) {
+        call("deleteUnshelvedTagsOfBookshelf");
+        return 0;
+    }
+
+    @Override
+    public int deleteUnshelvedOfBookshelf(UUID bookshelfId) {
+        call("deleteUnshelvedOfBookshelf");
+        Bookshelf bookshelf = bookshelfOf(bookshelfId);
+        if (bookshelf == null) {
+            return 0;
+        }
+        Set<UUID> bookIds = bookIdsOf(bookshelf);
+        int before = catalog.size();
+        catalog.removeIf(w -> bookIds.contains(w.getBookId()) && (w.getShelfCount() == null || w.getShelfCount() <= 0));
+        return before - catalog.size();
+    }
+
+    //the bookshelf, deleted or not, from the bookshelf repository this one was given
+    private Bookshelf bookshelfOf(UUID bookshelfId) {
+        if (bookshelfRepository == null) {
+            return null;
+        }
+        return bookshelfRepository.bookshelves.stream()
+                .filter(bookshelf -> bookshelf.getBookshelfId().equals(bookshelfId))
+                .findFirst().orElse(null);
+    }
+
+    private static Set<UUID> bookIdsOf(Bookshelf bookshelf) {
+        if (bookshelf.getBooks() == null) {
+            return new HashSet<>();
+        }
+        return bookshelf.getBooks().stream().map(Book::getBookId).collect(Collectors.toSet());
+    }
+
+    @Override
+    public int deleteTagsOfBook(UUID bookId) {
+        call("deleteTagsOfBook");
+        return 0;
+    }
+
+    @Override
+    public int deleteAllOfBook(UUID bookId) {
+        call("deleteAllOfBook");
+        int before = catalog.size();
+        catalog.removeIf(w -> w.getBookId().equals(bookId));
+        return before - catalog.size();
+    }
+
+    @Override
+    public void insertAll(Collection<BookWrapper> wrappers) {
+        call("insertAll");
+        catalog.addAll(wrappers);
+    }
+
     @Override
     public boolean existsById(BookWrapperId id) {
         call("existsById");
@@ -1,6 +1,8 @@
 package nl.tudelft.sem.template.example.database;
 
 
+import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.model.BookWrapper;
 import nl.tudelft.sem.template.model.Bookshelf;
 import nl.tudelft.sem.template.model.User;
 import org.springframework.data.domain.Example;
@@ -9,23 +11,38 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 
 public class TestBookshelfRepository implements BookshelfRepository {
     public final List<Bookshelf> bookshelves = new ArrayList<>();
     public final List<String> calledMethods = new ArrayList<>();
 
+    //the wrappers the queries joining bookshelves to book wrappers look at, none if not set
+    public TestBookWrapperRepository bookWrapperRepository;
+
     private void call(String name) {
         calledMethods.add(name);
     }
 
+    //deleted bookshelves are hidden from every read, like the database hides them
+    private static boolean visible(Bookshelf bookshelf) {
+        return !Boolean.TRUE.equals(bookshelf.getDeleted());
+    }
+
     @Override
     public List<Bookshelf> findAll() {
         call("findAll");
-        return bookshelves;
+        return bookshelves.stream().filter(TestBookshelfRepository::visible).collect(Collectors.toList());
     }
 
 
@@ -46,7 +63,7 @@ public class TestBookshelfRepository implements BookshelfRepository {
 
     @Override
     public long count() {
-        return bookshelves.size();
+        return bookshelves.stream().filter(TestBookshelfRepository::visible).count();
     }
 
     @Override
@@ -104,7 +121,7 @@ public class TestBookshelfRepository implements BookshelfRepository {
         call("findById");
 
         for (Bookshelf bookshelf : bookshelves) {
-            if (bookshelf.getBookshelfId().equals(id)) {
+            if (bookshelf.getBookshelfId().equals(id) && visible(bookshelf)) {
                 return Optional.of(bookshelf);
             }
         }
@@ -117,7 +134,7 @@ public class TestBookshelfRepository implements BookshelfRepository {
 
         List<Bookshelf> ownerBookshelves = new ArrayList<>();
         for (Bookshelf bookshelf : bookshelves) {
-            if (bookshelf.getOwner().getUserId().equals(ownerId)) {
+            if (bookshelf.getOwner().getUserId().equals(ownerId) && visible(bookshelf)) {
                 ownerBookshelves.add(bookshelf);
             }
         }
@@ -125,10 +142,248 @@ public class TestBookshelfRepository implements BookshelfRepository {
         return ownerBookshelves;
     }
 
+    @Override
+    public List<Bookshelf> findFirstPageByPrivacy(Bookshelf.PrivacyEnum privacy, String title, Pageable pageable) {
+        call("findFirstPageByPrivacy");
+        return page(b -> true, privacy, title, pageable);
+    }
+
+    @Override
+    public List<Bookshelf> findPageByPrivacyAfter(Bookshelf.PrivacyEnum privacy, String title, String afterTitle,
+                                                  UUID afterId, Pageable pageable) {
+        call("findPageByPrivacyAfter");
+        return page(b -> b.getTitle().compareTo(afterTitle) > 0
+                || (b.getTitle().equals(afterTitle) && b.getBookshelfId().compareTo(afterId) > 0), privacy, title, pageable);
+    }
+
+    @Override
+    public List<Summary> findAllSummaries() {
+        call("findAllSummaries");
+        return bookshelves.stream().filter(TestBookshelfRepository::visible)
+                .map(TestBookshelfRepository::summary).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Summary> findSummariesByOwnerId(UUID ownerId) {
+        call("findSummariesByOwnerId");
+        return bookshelves.stream().filter(TestBookshelfRepository::visible)
+                .filter(b -> b.getOwner() != null && b.getOwner().getUserId().equals(ownerId))
+                .map(TestBookshelfRepository::summary).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Summary> findFirstSummaryPageByPrivacy(Bookshelf.PrivacyEnum privacy, String title, Pageable pageable) {
+        call("findFirstSummaryPageByPrivacy");
+        return page(b -> true, privacy, title, pageable).stream()
+                .map(TestBookshelfRepository::summary).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Summary> findSummaryPageByPrivacyAfter(Bookshelf.PrivacyEnum privacy, String title, String afterTitle,
+                                                       UUID afterId, Pageable pageable) {
+        call("findSummaryPageByPrivacyAfter");
+        return page(b -> b.getTitle().compareTo(afterTitle) > 0
+                || (b.getTitle().equals(afterTitle) && b.getBookshelfId().compareTo(afterId) > 0), privacy, title, pageable)
+                .stream().map(TestBookshelfRepository::summary).collect(Collectors.toList());
+    }
+
+    private static Summary summary(Bookshelf bookshelf) {
+        return new Summary() {
+            @Override
+            public UUID getBookshelfId() {
+                return bookshelf.getBookshelfId();
+            }
+
+            @Override
+            public String getTitle() {
+                return bookshelf.getTitle();
+            }
+
+            @Override
+            public Bookshelf.PrivacyEnum getPrivacy() {
+                return bookshelf.getPrivacy();
+            }
+
+            @Override
+            public UUID getOwnerId() {
+                return bookshelf.getOwner() == null ? null : bookshelf.getOwner().getUserId();
+            }
+
+            @Override
+            public Integer getBookCount() {
+                return bookshelf.getBooks() == null ? 0 : bookshelf.getBooks().size();
+            }
+
+            @Override
+            public Integer getMemberCount() {
+                return bookshelf.getMembers() == null ? 0 : bookshelf.getMembers().size();
+            }
+        };
+    }
+
+    @Override
+    public List<UUID> findBookIdsWithCircleStatus(UUID bookshelfId, BookWrapper.ReadingStatusEnum status) {
+        call("findBookIdsWithCircleStatus");
+
+        Optional<Bookshelf> bookshelf = bookshelves.stream()
+                .filter(b -> b.getBookshelfId().equals(bookshelfId) && visible(b))
+                .findFirst();
+        if (bookshelf.isEmpty() || bookshelf.get().getBooks() == null) {
+            return new ArrayList<>();
+        }
+        Set<UUID> users = new HashSet<>();
+        users.add(bookshelf.get().getOwner().getUserId());
+        if (bookshelf.get().getMembers() != null) {
+            bookshelf.get().getMembers().forEach(m -> users.add(m.getUserId()));
+        }
+        List<BookWrapper> wrappers = bookWrapperRepository == null ? List.of() : bookWrapperRepository.catalog;
+        return bookshelf.get().getBooks().stream()
+                .map(Book::getBookId)
+                .distinct()
+                .filter(bookId -> wrappers.stream()
+                        .filter(w -> w.getBookId().equals(bookId) && users.contains(w.getUserId()))
+                        .allMatch(w -> w.getReadingStatus() == status))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<VersionSummary> findVersionSummaryById(UUID bookshelfId) {
+        call("findVersionSummaryById");
+
+        for (Bookshelf bookshelf : bookshelves) {
+            if (bookshelf.getBookshelfId().equals(bookshelfId) && visible(bookshelf)) {
+                long version = bookshelf.getVersion() == null ? 0 : bookshelf.getVersion();
+                long bookVersions = bookshelf.getBooks() == null ? 0 : bookshelf.getBooks().stream()
+                        .mapToLong(book -> book.getVersion() == null ? 0 : book.getVersion())
+                        .sum();
+                return Optional.of(new VersionSummary() {
+                    @Override
+                    public Long getVersion() {
+                        return version;
+                    }
+
+                    @Override
+                    public Long getBookVersions() {
+                        return bookVersions;
+                    }
+                });
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean containsBook(UUID bookshelfId, UUID bookId) {
+        call("containsBook");
+
+        return bookshelves.stream()
+                .filter(bookshelf -> bookshelf.getBookshelfId().equals(bookshelfId) && bookshelf.getBooks() != null)
+                .anyMatch(bookshelf -> bookshelf.getBooks().stream().anyMatch(b -> b.getBookId().equals(bookId)));
+    }
+
+    @Override
+    public List<UUID> findBookIdsIn(UUID bookshelfId, Collection<UUID> bookIds) {
+        call("findBookIdsIn");
+
+        return bookshelves.stream()
+                .filter(bookshelf -> bookshelf.getBookshelfId().equals(bookshelfId) && bookshelf.getBooks() != null)
+                .flatMap(bookshelf -> bookshelf.getBooks().stream())
+                .map(Book::getBookId)
+                .filter(bookIds::contains)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int removeBooksFromBookshelf(UUID bookshelfId, Collection<UUID> bookIds) {
+        call("removeBooksFromBookshelf");
+
+        int removed = 0;
+        for (Bookshelf bookshelf : bookshelves) {
+            if (bookshelf.getBookshelfId().equals(bookshelfId) && bookshelf.getBooks() != null) {
+                int before = bookshelf.getBooks().size();
+                bookshelf.getBooks().removeIf(b -> bookIds.contains(b.getBookId()));
+                removed += before - bookshelf.getBooks().size();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int incrementVersion(UUID bookshelfId) {
+        call("incrementVersion");
+
+        int updated = 0;
+        for (Bookshelf bookshelf : bookshelves) {
+            if (bookshelf.getBookshelfId().equals(bookshelfId)) {
+                bookshelf.setVersion(bookshelf.getVersion() == null ? 1L : bookshelf.getVersion() + 1);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<UUID> findDeletedIds(int limit) {
+        call("findDeletedIds");
+
+        return bookshelves.stream()
+                .filter(bookshelf -> !visible(bookshelf))
+                .map(Bookshelf::getBookshelfId)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<UUID> findBookIdsOfDeleted(UUID bookshelfId, int limit) {
+        call("findBookIdsOfDeleted");
+
+        return bookshelves.stream()
+                .filter(bookshelf -> bookshelf.getBookshelfId().equals(bookshelfId) && !visible(bookshelf))
+                .filter(bookshelf -> bookshelf.getBooks() != null)
+                .flatMap(bookshelf -> bookshelf.getBooks().stream())
+                .map(Book::getBookId)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void purgeDeleted(UUID bookshelfId) {
+        call("purgeDeleted");
+
+        bookshelves.removeIf(bookshelf -> bookshelf.getBookshelfId().equals(bookshelfId) && !visible(bookshelf));
+    }
+
+    @Override
+    public int incrementVersionOfBookshelvesWith(UUID bookId) {
+        call("incrementVersionOfBookshelvesWith");
+
+        int updated = 0;
+        for (Bookshelf bookshelf : bookshelves) {
+            if (bookshelf.getBooks() != null && bookshelf.getBooks().stream().anyMatch(b -> b.getBookId().equals(bookId))) {
+                bookshelf.setVersion(bookshelf.getVersion() == null ? 1L : bookshelf.getVersion() + 1);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int removeBookFromBookshelves(UUID bookId) {
+        call("removeBookFromBookshelves");
+
+        int removed = 0;
+        for (Bookshelf bookshelf : bookshelves) {
+            if (bookshelf.getBooks() != null && bookshelf.getBooks().removeIf(b -> b.getBookId().equals(bookId))) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
     @Override
     public boolean existsById(UUID id) {
         call("existsById");
-        return bookshelves.stream().anyMatch(q -> q.getBookshelfId().equals(id));
+        return bookshelves.stream().anyMatch(q -> q.getBookshelfId().equals(id) && visible(q));
     }
 
     @Override
@@ -185,4 +440,33 @@ public class TestBookshelfRepository implements BookshelfRepository {
     public <S extends Bookshelf> boolean exists(Example<S> example) {
         return false;
     }
+
+    private List<Bookshelf> page(Predicate<Bookshelf> after, Bookshelf.PrivacyEnum privacy, String title,
+                                 Pageable pageable) {
+        return bookshelves.stream()
+                .filter(TestBookshelfRepository::visible)
+                .filter(b -> b.getPrivacy() == privacy && b.getTitle() != null && like(b.getTitle().toLowerCase(), title))
+                .filter(after)
+                .sorted(Comparator.comparing(Bookshelf::getTitle).thenComparing(Bookshelf::getBookshelfId))
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    //LIKE with ! as the escape character
+    private static boolean like(String value, String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '!' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return value.matches(regex.toString());
+    }
 }
@@ -0,0 +1,57 @@
+package nl.tudelft.sem.template.example.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BkTreeTest {
+    private BkTree tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new BkTree();
+    }
+
+    /**
+     * Test the Levenshtein distance.
+     */
+    @Test
+    public void testDistance() {
+        assertEquals(0, BkTree.distance("twain", "twain"));
+        assertEquals(2, BkTree.distance("twian", "twain"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "dune"));
+    }
+
+    /**
+     * Test that a search returns exactly the words within the distance.
+     */
+    @Test
+    public void testSearch() {
+        for (String word : new String[] {"book", "books", "boo", "cake", "cape", "boon", "cook"}) {
+            tree.add(word);
+        }
+
+        assertEquals(Map.of("book", 0, "books", 1, "boo", 1, "boon", 1, "cook", 1), tree.search("book", 1));
+        assertEquals(Map.of("cake", 0), tree.search("cake", 0));
+        assertTrue(tree.search("zzzz", 2).isEmpty());
+    }
+
+    /**
+     * Test that duplicate words are only added once and that clear empties the tree.
+     */
+    @Test
+    public void testAddAndClear() {
+        tree.add("word");
+        tree.add("word");
+        tree.add("ward");
+        assertEquals(2, tree.size());
+
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertTrue(tree.search("word", 2).isEmpty());
+    }
+}
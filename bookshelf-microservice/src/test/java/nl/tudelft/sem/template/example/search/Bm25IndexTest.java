@@ -0,0 +1,95 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Bm25IndexTest {
+    private Bm25Index index;
+    private TestingUtility util;
+
+    @BeforeEach
+    public void setUp() {
+        index = new Bm25Index();
+        util = new TestingUtility(null, null);
+    }
+
+    private Book book(String title, String author, String description) {
+        Book b = util.constructBook(title, List.of(author));
+        b.setDescription(description);
+        return b;
+    }
+
+    /**
+     * Test that a match in the title ranks above a match in the description.
+     */
+    @Test
+    public void testTitleBoost() {
+        Book inDescription = book("Travels", "Someone", "A story about a river.");
+        Book inTitle = book("The River", "Someone", "A story.");
+        index.index(inDescription);
+        index.index(inTitle);
+
+        assertEquals(List.of(inTitle.getBookId(), inDescription.getBookId()), index.search("river", 10));
+    }
+
+    /**
+     * Test that rarer words weigh more and that matching more words ranks higher.
+     */
+    @Test
+    public void testRanking() {
+        Book common = book("Sea", "A", "The sea and the sky.");
+        Book rare = book("Sea", "B", "The kraken.");
+        Book both = book("Sea", "C", "The sea and the kraken.");
+        Book other = book("Land", "D", "Sky.");
+        index.index(common);
+        index.index(rare);
+        index.index(both);
+        index.index(other);
+
+        assertEquals(List.of(both.getBookId(), rare.getBookId(), common.getBookId()),
+                index.search("kraken sea", 10));
+        assertEquals(List.of(rare.getBookId(), both.getBookId()), index.search("KRAKEN", 10));
+    }
+
+    /**
+     * Test that only the top k books are returned, highest score first.
+     */
+    @Test
+    public void testTopK() {
+        Book b1 = book("Moon", "A", "moon");
+        Book b2 = book("Moon Moon", "A", "moon moon moon");
+        Book b3 = book("Sun", "A", "moon");
+        index.index(b1);
+        index.index(b2);
+        index.index(b3);
+
+        assertEquals(List.of(b2.getBookId()), index.search("moon", 1));
+        List<Bm25Index.Scored> top = index.scoreTop("moon", 3);
+        assertEquals(3, top.size());
+        assertTrue(top.get(0).score >= top.get(1).score && top.get(1).score >= top.get(2).score);
+        assertEquals(b3.getBookId(), top.get(2).bookId);
+    }
+
+    /**
+     * Test that re-indexed and removed books no longer match their old words.
+     */
+    @Test
+    public void testReindexAndRemove() {
+        Book b = book("Old", "A", "Words");
+        index.index(b);
+
+        b.setTitle("New");
+        index.index(b);
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(b.getBookId()), index.search("new words", 10));
+
+        index.remove(b.getBookId());
+        assertTrue(index.search("new", 10).isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    private static Book book(String title, List<String> authors, List<Book.GenresEnum> genres) {
+        return new Book()
+                .bookId(UUID.randomUUID())
+                .version(3L)
+                .title(title)
+                .authors(authors)
+                .genres(genres)
+                .description("A description with \u00fcn\u00efc\u00f6d\u00e9");
+    }
+
+    /**
+     * Test that books survive a write and a read of the snapshot.
+     */
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws IOException {
+        Book b1 = book("The Hobbit", List.of("J.R.R. Tolkien"), List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.DRAMA));
+        Book b2 = book(null, List.of(), List.of()).version(null).description(null);
+        Path path = dir.resolve("catalog.snapshot");
+
+        CatalogSnapshot.write(path, List.of(BookRecord.of(b1), BookRecord.of(b2)));
+        List<BookRecord> records = CatalogSnapshot.read(path);
+
+        assertEquals(2, records.size());
+        assertEquals(b1, records.get(0).toBook());
+        assertEquals(3L, records.get(0).getVersion());
+        assertEquals(b2, records.get(1).toBook());
+        assertEquals(-1L, records.get(1).getVersion());
+        assertFalse(Files.exists(dir.resolve("catalog.snapshot.tmp")));
+    }
+
+    /**
+     * Test that the content hash survives the snapshot and changes with every field it covers, but not the version.
+     */
+    @Test
+    public void testContentHash(@TempDir Path dir) throws IOException {
+        Book b = book("The Hobbit", List.of("J.R.R. Tolkien"), List.of(Book.GenresEnum.FANTASY));
+        long hash = BookRecord.of(b).getContentHash();
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, List.of(BookRecord.of(b)));
+
+        assertEquals(hash, CatalogSnapshot.read(path).get(0).getContentHash());
+        assertEquals(hash, BookRecord.of(book("The Hobbit", List.of("J.R.R. Tolkien"), List.of(Book.GenresEnum.FANTASY))
+                .version(7L)).getContentHash());
+        assertNotEquals(hash, BookRecord.of(book("The Hobbit", List.of("J.R.R. Tolkien"), List.of())).getContentHash());
+        assertNotEquals(hash, BookRecord.of(book("The Hobbit", List.of("J.R.R.", "Tolkien"),
+                List.of(Book.GenresEnum.FANTASY))).getContentHash());
+        assertNotEquals(hash, BookRecord.of(book("The Hobbit", List.of("J.R.R. Tolkien"), List.of(Book.GenresEnum.FANTASY))
+                .description(null)).getContentHash());
+    }
+
+    /**
+     * Test that a later snapshot replaces the earlier one.
+     */
+    @Test
+    public void testOverwrite(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, List.of(BookRecord.of(book("Old", List.of("A"), List.of()))));
+        CatalogSnapshot.write(path, List.of());
+
+        assertEquals(List.of(), CatalogSnapshot.read(path));
+    }
+
+    /**
+     * Test that missing, foreign and truncated files are rejected.
+     */
+    @Test
+    public void testInvalidFiles(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("catalog.snapshot");
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+
+        Files.write(path, "not a snapshot".getBytes());
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+
+        CatalogSnapshot.write(path, List.of(BookRecord.of(book("Title", List.of("A"), List.of()))));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+    }
+}
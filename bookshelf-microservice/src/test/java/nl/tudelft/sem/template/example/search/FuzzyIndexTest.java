@@ -0,0 +1,91 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzyIndexTest {
+    private FuzzyIndex index;
+    private TestingUtility util;
+
+    @BeforeEach
+    public void setUp() {
+        index = new FuzzyIndex();
+        util = new TestingUtility(null, null);
+    }
+
+    /**
+     * Test the number of edits allowed for query words of different lengths.
+     */
+    @Test
+    public void testMaxEdits() {
+        assertEquals(0, FuzzyIndex.maxEdits("it"));
+        assertEquals(1, FuzzyIndex.maxEdits("dune"));
+        assertEquals(2, FuzzyIndex.maxEdits("twain"));
+    }
+
+    /**
+     * Test that a misspelled author is found.
+     */
+    @Test
+    public void testSearchMisspelledAuthor() {
+        Book b1 = util.constructBook("Tom Sawyer", List.of("Mark Twain"));
+        Book b2 = util.constructBook("Emma", List.of("Jane Austen"));
+        index.index(b1);
+        index.index(b2);
+
+        assertEquals(List.of(b1.getBookId()), index.search(null, "Mark Twian"));
+        assertEquals(List.of(b2.getBookId()), index.search("", "austin"));
+        assertTrue(index.search(null, "Mark Jane").isEmpty());
+    }
+
+    /**
+     * Test that closer matches come first.
+     */
+    @Test
+    public void testSearchOrder() {
+        Book b1 = util.constructBook("Colour");
+        Book b2 = util.constructBook("Color");
+        index.index(b1);
+        index.index(b2);
+
+        assertEquals(List.of(b2.getBookId(), b1.getBookId()), index.search("color", null));
+        assertEquals(List.of(b1.getBookId(), b2.getBookId()), index.search("colour", null));
+    }
+
+    /**
+     * Test a search on both title and author.
+     */
+    @Test
+    public void testSearchTitleAndAuthor() {
+        Book b1 = util.constructBook("Dune", List.of("Frank Herbert"));
+        Book b2 = util.constructBook("Dune", List.of("Someone Else"));
+        index.index(b1);
+        index.index(b2);
+
+        assertEquals(List.of(b1.getBookId()), index.search("dume", "herbet"));
+        assertTrue(index.search(null, null).isEmpty());
+    }
+
+    /**
+     * Test that re-indexed and removed books no longer match their old words.
+     */
+    @Test
+    public void testReindexAndRemove() {
+        Book b = util.constructBook("Persuasion", List.of("Austen"));
+        index.index(b);
+
+        b.setTitle("Emma");
+        index.index(b);
+        assertTrue(index.search("persuasion", null).isEmpty());
+        assertEquals(List.of(b.getBookId()), index.search("emma", null));
+
+        index.remove(b.getBookId());
+        assertTrue(index.search("emma", "austen").isEmpty());
+    }
+}
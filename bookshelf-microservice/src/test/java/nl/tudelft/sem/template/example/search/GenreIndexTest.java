@@ -0,0 +1,102 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenreIndexTest {
+    private GenreIndex index;
+    private TestingUtility util;
+    private Book fantasy;
+    private Book romance;
+    private Book both;
+
+    @BeforeEach
+    public void setUp() {
+        index = new GenreIndex();
+        util = new TestingUtility(null, null);
+
+        fantasy = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY));
+        romance = util.constructBookGenres(List.of(Book.GenresEnum.ROMANCE));
+        both = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.ROMANCE));
+        index.index(fantasy);
+        index.index(romance);
+        index.index(both);
+    }
+
+    /**
+     * Test filtering on any and on all of the genres.
+     */
+    @Test
+    public void testFilter() {
+        Set<Book.GenresEnum> genres = Set.of(Book.GenresEnum.FANTASY, Book.GenresEnum.ROMANCE);
+
+        assertEquals(List.of(fantasy.getBookId(), romance.getBookId(), both.getBookId()),
+                index.idsOf(index.filter(genres, false)));
+        assertEquals(List.of(both.getBookId()), index.idsOf(index.filter(genres, true)));
+        assertEquals(3, index.filter(Set.of(), true).cardinality());
+        assertTrue(index.filter(Set.of(Book.GenresEnum.HORROR), false).isEmpty());
+    }
+
+    /**
+     * Test counting the books per genre within a bitmap.
+     */
+    @Test
+    public void testCounts() {
+        Map<Book.GenresEnum, Integer> counts = index.counts(index.bitmapOf(List.of(fantasy.getBookId(),
+                both.getBookId())));
+
+        assertEquals(2, counts.get(Book.GenresEnum.FANTASY));
+        assertEquals(1, counts.get(Book.GenresEnum.ROMANCE));
+        assertEquals(0, counts.get(Book.GenresEnum.HORROR));
+        assertEquals(Book.GenresEnum.values().length, counts.size());
+    }
+
+    /**
+     * Test that re-indexing a book replaces its genres.
+     */
+    @Test
+    public void testReindex() {
+        fantasy.setGenres(List.of(Book.GenresEnum.HORROR));
+        index.index(fantasy);
+
+        BitSet horror = index.filter(Set.of(Book.GenresEnum.HORROR), false);
+        assertEquals(List.of(fantasy.getBookId()), index.idsOf(horror));
+        assertEquals(List.of(both.getBookId()), index.idsOf(index.filter(Set.of(Book.GenresEnum.FANTASY), false)));
+    }
+
+    /**
+     * Test that the ordinal of a removed book is reused.
+     */
+    @Test
+    public void testRemoveReusesOrdinal() {
+        index.remove(fantasy.getBookId());
+        assertFalse(index.contains(index.filter(Set.of(), false), fantasy.getBookId()));
+
+        Book other = util.constructBookGenres(List.of(Book.GenresEnum.DRAMA));
+        index.index(other);
+
+        BitSet all = index.filter(Set.of(), false);
+        assertEquals(List.of(other.getBookId(), romance.getBookId(), both.getBookId()), index.idsOf(all));
+        assertEquals(2, all.length() - 1);
+    }
+
+    /**
+     * Test that clearing the index removes every book.
+     */
+    @Test
+    public void testClear() {
+        index.clear();
+
+        assertTrue(index.filter(Set.of(), false).isEmpty());
+        assertTrue(index.bitmapOf(List.of(fantasy.getBookId())).isEmpty());
+    }
+}
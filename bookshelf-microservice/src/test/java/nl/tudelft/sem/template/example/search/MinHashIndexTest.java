@@ -0,0 +1,109 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinHashIndexTest {
+    private MinHashIndex index;
+    private TestingUtility util;
+
+    private Book target;
+    private Book near;
+    private Book mid;
+    private Book far;
+
+    @BeforeEach
+    public void setUp() {
+        index = new MinHashIndex();
+        util = new TestingUtility(null, null);
+
+        target = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        near = util.constructBook("The Hobbit Annotated", List.of("J.R.R. Tolkien"));
+        mid = util.constructBook("The Silmarillion", List.of("J.R.R. Tolkien"));
+        far = util.constructBook("Emma", List.of("Jane Austen"));
+        far.setGenres(List.of(Book.GenresEnum.ROMANCE));
+        index.index(target);
+        index.index(far);
+        index.index(mid);
+        index.index(near);
+    }
+
+    /**
+     * Test that the most similar books come first and that books with nothing in common are left out.
+     */
+    @Test
+    public void testMostSimilarFirst() {
+        assertEquals(List.of(near.getBookId(), mid.getBookId()), index.similar(target.getBookId(), 10));
+    }
+
+    /**
+     * Test that the limit is respected.
+     */
+    @Test
+    public void testLimit() {
+        assertEquals(List.of(near.getBookId()), index.similar(target.getBookId(), 1));
+        assertEquals(List.of(), index.similar(target.getBookId(), 0));
+    }
+
+    /**
+     * Test that removed and re-indexed books are taken into account.
+     */
+    @Test
+    public void testRemoveAndReindex() {
+        index.remove(near.getBookId());
+        assertEquals(List.of(mid.getBookId()), index.similar(target.getBookId(), 10));
+
+        Book edited = util.constructBook("Persuasion", List.of("Jane Austen"));
+        edited.setBookId(mid.getBookId());
+        edited.setGenres(List.of(Book.GenresEnum.ROMANCE));
+        index.index(edited);
+        assertEquals(List.of(), index.similar(target.getBookId(), 10));
+        assertEquals(List.of(mid.getBookId()), index.similar(far.getBookId(), 10));
+    }
+
+    /**
+     * Test that a book that is not indexed has no similar books.
+     */
+    @Test
+    public void testUnknownBook() {
+        assertEquals(List.of(), index.similar(UUID.randomUUID(), 10));
+
+        index.clear();
+        assertEquals(List.of(), index.similar(target.getBookId(), 10));
+    }
+
+    /**
+     * Test that only the books sharing a bucket are compared, not the whole catalog.
+     */
+    @Test
+    public void testUnrelatedBooksNotCandidates() {
+        for (int i = 0; i < 1000; i++) {
+            Book other = util.constructBook("Volume" + i, List.of("Writer" + i));
+            other.setGenres(List.of(Book.GenresEnum.HISTORY));
+            index.index(other);
+        }
+
+        assertEquals(List.of(near.getBookId(), mid.getBookId()), index.similar(target.getBookId(), 10));
+    }
+
+    /**
+     * Test the features and their Jaccard similarity.
+     */
+    @Test
+    public void testJaccard() {
+        Set<String> a = MinHashIndex.features(target);
+        Set<String> b = MinHashIndex.features(near);
+
+        assertEquals(Set.of("a:j.r.r. tolkien", "g:MYSTERY", "t:the", "t:hobbit"), a);
+        assertEquals(0.8, MinHashIndex.jaccard(a, b), 1e-9);
+        assertEquals(0.0, MinHashIndex.jaccard(a, MinHashIndex.features(far)), 1e-9);
+    }
+}
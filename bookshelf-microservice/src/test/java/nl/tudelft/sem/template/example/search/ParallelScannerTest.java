@@ -0,0 +1,64 @@
+package nl.tudelft.sem.template.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelScannerTest {
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void keepsListOrder() {
+        ParallelScanner scanner = new ParallelScanner(7, 1);
+        List<Integer> items = range(1000);
+
+        List<Integer> result = scanner.filter(items, i -> i % 3 == 0);
+
+        assertEquals(items.stream().filter(i -> i % 3 == 0).collect(Collectors.toList()), result);
+    }
+
+    @Test
+    void everyElementScannedOnce() {
+        ParallelScanner scanner = new ParallelScanner(4, 1);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+
+        List<Integer> result = scanner.filter(range(1001), i -> seen.add(i));
+
+        assertEquals(1001, result.size());
+        assertEquals(1001, seen.size());
+    }
+
+    @Test
+    void smallListScannedInOnePartition() {
+        ParallelScanner scanner = new ParallelScanner(8);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> result = scanner.filter(range(100), i -> threads.add(Thread.currentThread().getName()) || true);
+
+        assertEquals(range(100), result);
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+    }
+
+    @Test
+    void emptyList() {
+        assertEquals(List.of(), new ParallelScanner(4, 1).filter(List.<Integer>of(), i -> true));
+    }
+
+    @Test
+    void defaultPartitionsPerCore() {
+        assertEquals(Runtime.getRuntime().availableProcessors(), new ParallelScanner(0).getPartitions());
+        assertEquals(3, new ParallelScanner(3).getPartitions());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanner(-1));
+    }
+}
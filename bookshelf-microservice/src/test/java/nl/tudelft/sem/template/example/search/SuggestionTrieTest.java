@@ -0,0 +1,95 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionTrieTest {
+    private SuggestionTrie trie;
+    private TestingUtility util;
+
+    @BeforeEach
+    public void setUp() {
+        trie = new SuggestionTrie();
+        util = new TestingUtility(null, null);
+    }
+
+    /**
+     * Test that suggestions are ordered by popularity and then alphabetically.
+     */
+    @Test
+    public void testSuggestOrder() {
+        trie.index(util.constructBook("The Hobbit", List.of("Tolkien")));
+        trie.index(util.constructBook("The Two Towers", List.of("Tolkien")));
+        trie.index(util.constructBook("Thud", List.of("Terry Pratchett")));
+
+        assertEquals(List.of("Tolkien", "Terry Pratchett", "The Hobbit", "The Two Towers", "Thud"),
+                trie.suggest("t", 10));
+        assertEquals(List.of("The Hobbit", "The Two Towers"), trie.suggest("the", 10));
+        assertEquals(List.of("Tolkien", "Terry Pratchett"), trie.suggest("T", 2));
+    }
+
+    /**
+     * Test prefixes that end in the middle of a compressed edge.
+     */
+    @Test
+    public void testSuggestInsideEdge() {
+        trie.index(util.constructBook("Abcdef", List.of("Abxyz")));
+
+        assertEquals(List.of("Abcdef"), trie.suggest("abcd", 10));
+        assertEquals(List.of("Abxyz"), trie.suggest("abx", 10));
+        assertTrue(trie.suggest("abq", 10).isEmpty());
+        assertTrue(trie.suggest("abcdefg", 10).isEmpty());
+    }
+
+    /**
+     * Test that a term that is a prefix of another term is suggested first when equally popular.
+     */
+    @Test
+    public void testSuggestTermIsPrefix() {
+        trie.index(util.constructBook("Dune Messiah", List.of("Herbert")));
+        trie.index(util.constructBook("Dune", List.of("Herbert")));
+
+        assertEquals(List.of("Dune", "Dune Messiah"), trie.suggest("dune", 10));
+    }
+
+    /**
+     * Test that whitespace and case are normalized in both the terms and the prefix.
+     */
+    @Test
+    public void testSuggestNormalized() {
+        trie.index(util.constructBook("  War   and Peace ", List.of("Tolstoy")));
+
+        assertEquals(List.of("War   and Peace"), trie.suggest("WAR  AND", 10));
+    }
+
+    /**
+     * Test that re-indexing and removing books update the popularity and prune the trie.
+     */
+    @Test
+    public void testReindexAndRemove() {
+        Book b1 = util.constructBook("Alpha", List.of("Author"));
+        Book b2 = util.constructBook("Alphabet", List.of("Author"));
+        trie.index(b1);
+        trie.index(b2);
+        trie.index(b2);
+
+        assertEquals(List.of("Author", "Alpha", "Alphabet"), trie.suggest("a", 10));
+
+        b1.setTitle("Omega");
+        trie.index(b1);
+        assertEquals(List.of("Alphabet"), trie.suggest("alpha", 10));
+
+        trie.remove(b2.getBookId());
+        assertTrue(trie.suggest("alpha", 10).isEmpty());
+        assertEquals(List.of("Author"), trie.suggest("au", 10));
+
+        trie.clear();
+        assertTrue(trie.suggest("", 10).isEmpty());
+    }
+}
@@ -0,0 +1,42 @@
+package nl.tudelft.sem.template.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextNormalizerTest {
+
+    @Test
+    void foldCase() {
+        assertEquals("the hobbit", TextNormalizer.fold("The HOBBIT"));
+        assertEquals("", TextNormalizer.fold(null));
+    }
+
+    @Test
+    void foldUnicodeCaseAndAccents() {
+        assertEquals("honore de balzac", TextNormalizer.fold("Honor\u00e9 de Balzac"));
+        assertEquals("strasse", TextNormalizer.fold("Stra\u00dfe"));
+        assertEquals(TextNormalizer.fold("\u039f\u0394\u03a5\u03a3\u03a3\u0395\u0399\u0391"), TextNormalizer.fold("\u03bf\u03b4\u03c5\u03c3\u03c3\u03b5\u03b9\u03b1"));
+        assertEquals("ecole", TextNormalizer.fold("E\u0301COLE"));
+    }
+
+    @Test
+    void foldRemovesAuthorSeparator() {
+        assertEquals("ab", TextNormalizer.fold("a" + TextNormalizer.AUTHOR_SEPARATOR + "b"));
+    }
+
+    @Test
+    void foldAuthors() {
+        String folded = TextNormalizer.foldAuthors(List.of("Mark Twain", "\u00c9mile Zola"));
+
+        assertEquals("mark twain" + TextNormalizer.AUTHOR_SEPARATOR + "emile zola", folded);
+        assertEquals("", TextNormalizer.foldAuthors(null));
+    }
+
+    @Test
+    void tokensAreFolded() {
+        assertEquals(List.of("les", "miserables"), TextNormalizer.tokens("Les Mis\u00e9rables!"));
+    }
+}
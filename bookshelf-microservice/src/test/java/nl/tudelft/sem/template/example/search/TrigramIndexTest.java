@@ -0,0 +1,133 @@
+package nl.tudelft.sem.template.example.search;
+
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramIndexTest {
+    private TrigramIndex index;
+    private TestingUtility util;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TrigramIndex();
+        util = new TestingUtility(null, null);
+    }
+
+    /**
+     * Test that a string is split into its distinct trigrams.
+     */
+    @Test
+    public void testTrigrams() {
+        assertEquals(Set.of("aba", "bab"), TrigramIndex.trigrams("ababa"));
+        assertTrue(TrigramIndex.trigrams("ab").isEmpty());
+    }
+
+    /**
+     * Test a case-insensitive title search.
+     */
+    @Test
+    public void testSearchTitle() {
+        Book b1 = util.constructBook("The Adventures of Tom Sawyer");
+        Book b2 = util.constructBook("Huckleberry Finn");
+        index.index(b1);
+        index.index(b2);
+
+        assertEquals(List.of(b1.getBookId()), index.search("tom SAW", null));
+        assertEquals(List.of(b2.getBookId()), index.search("finn", ""));
+        assertTrue(index.search("sawyer finn", null).isEmpty());
+    }
+
+    /**
+     * Test that trigrams of different authors are not combined into one match.
+     */
+    @Test
+    public void testSearchAuthorDoesNotSpanAuthors() {
+        Book b = util.constructBook(List.of("Mark Twain", "Jane Doe"));
+        index.index(b);
+
+        assertEquals(List.of(b.getBookId()), index.search(null, "twain"));
+        assertEquals(List.of(b.getBookId()), index.search(null, "jane d"));
+        assertTrue(index.search(null, "twainjane").isEmpty());
+    }
+
+    /**
+     * Test a search on both title and author.
+     */
+    @Test
+    public void testSearchTitleAndAuthor() {
+        Book b1 = util.constructBook("Dune", List.of("Frank Herbert"));
+        Book b2 = util.constructBook("Dune Messiah", List.of("Someone Else"));
+        index.index(b1);
+        index.index(b2);
+
+        assertEquals(List.of(b1.getBookId()), index.search("dune", "herbert"));
+        assertEquals(List.of(b1.getBookId(), b2.getBookId()), index.search("dune", null));
+    }
+
+    /**
+     * Test that queries shorter than a trigram still match.
+     */
+    @Test
+    public void testSearchShortQuery() {
+        Book b1 = util.constructBook("It");
+        Book b2 = util.constructBook("Carrie");
+        index.index(b1);
+        index.index(b2);
+
+        assertEquals(List.of(b1.getBookId()), index.search("it", null));
+        assertEquals(List.of(b2.getBookId()), index.search("r", null));
+    }
+
+    /**
+     * Test that re-indexing a book replaces its postings and keeps its position.
+     */
+    @Test
+    public void testReindex() {
+        Book b1 = util.constructBook("Old Title");
+        Book b2 = util.constructBook("Other Title");
+        index.index(b1);
+        index.index(b2);
+
+        b1.setTitle("New Title");
+        index.index(b1);
+
+        assertTrue(index.search("old", null).isEmpty());
+        assertEquals(List.of(b1.getBookId(), b2.getBookId()), index.search("title", null));
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * Test removing a book from the index.
+     */
+    @Test
+    public void testRemove() {
+        Book b = util.constructBook("Title");
+        index.index(b);
+        index.remove(b.getBookId());
+
+        assertTrue(index.search("title", null).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * Test that clearing the index also marks it as not ready.
+     */
+    @Test
+    public void testClear() {
+        index.index(util.constructBook());
+        index.markReady();
+        assertTrue(index.isReady());
+
+        index.clear();
+
+        assertFalse(index.isReady());
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.example.services;
+
+import nl.tudelft.sem.template.example.database.BookshelfRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookshelfReaperTest {
+    private BookshelfService bookshelfService;
+    private BookshelfRepository bookshelfRepository;
+    private BookshelfReaper reaper;
+
+    /**
+     * Setup before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        bookshelfService = mock(BookshelfService.class);
+        bookshelfRepository = mock(BookshelfRepository.class);
+        reaper = new BookshelfReaper(bookshelfService, bookshelfRepository, 2);
+    }
+
+    @Test
+    void reapReleasesEveryDeletedBookshelf() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(bookshelfRepository.findDeletedIds(2)).thenReturn(List.of(first, second), List.of(third), List.of());
+        when(bookshelfService.releaseDeletedBookshelf(first, 2)).thenReturn(true, true, false);
+        when(bookshelfService.releaseDeletedBookshelf(second, 2)).thenReturn(false);
+        when(bookshelfService.releaseDeletedBookshelf(third, 2)).thenReturn(true, false);
+
+        assertEquals(3, reaper.reap());
+
+        verify(bookshelfService, times(3)).releaseDeletedBookshelf(first, 2);
+        verify(bookshelfService, times(1)).releaseDeletedBookshelf(second, 2);
+        verify(bookshelfService, times(2)).releaseDeletedBookshelf(third, 2);
+        verify(bookshelfRepository, times(3)).findDeletedIds(2);
+    }
+
+    @Test
+    void reapSkipsBookshelfThatFails() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(bookshelfRepository.findDeletedIds(2)).thenReturn(List.of(first, second));
+        when(bookshelfRepository.findDeletedIds(3)).thenReturn(List.of(first));
+        when(bookshelfService.releaseDeletedBookshelf(first, 2)).thenThrow(new IllegalStateException());
+        when(bookshelfService.releaseDeletedBookshelf(second, 2)).thenReturn(false);
+
+        assertEquals(1, reaper.reap());
+
+        verify(bookshelfService, times(1)).releaseDeletedBookshelf(first, 2);
+        verify(bookshelfService, times(1)).releaseDeletedBookshelf(second, 2);
+    }
+
+    @Test
+    void reapWithoutDeletedBookshelves() {
+        when(bookshelfRepository.findDeletedIds(2)).thenReturn(List.of());
+
+        assertEquals(0, reaper.reap());
+
+        verify(bookshelfService, never()).releaseDeletedBookshelf(any(), anyInt());
+    }
+
+    @Test
+    void batchSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new BookshelfReaper(bookshelfService, bookshelfRepository, 0));
+    }
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.example.services;
 
 import javassist.NotFoundException;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.example.database.*;
 import nl.tudelft.sem.template.example.entities.BookWrapperId;
 import nl.tudelft.sem.template.example.exceptions.ValidationException;
@@ -16,6 +17,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,11 +56,14 @@ public class BookshelfServiceTest {
         CategoryService categoryService = new CategoryService(categoryRepo, userRepo, testBookshelfRepo);
 
         bookWrapperRepo = new TestBookWrapperRepository();
+        testBookshelfRepo.bookWrapperRepository = bookWrapperRepo;
+        bookWrapperRepo.bookshelfRepository = testBookshelfRepo;
 
         util = mock(UtilityService.class);
         when(util.validId(any())).thenReturn(true);
 
-        UserService userService = new UserService(userRepo, testBookshelfRepo, bookRepo, bookWrapperRepo, categoryService, util);
+        UserService userService = new UserService(userRepo, testBookshelfRepo, bookRepo, bookWrapperRepo, categoryService, util,
+                new BookCache(bookRepo));
         bookshelfService = new BookshelfService(testBookshelfRepo, bookRepo, userService, bookWrapperRepo);
 
 
@@ -166,17 +171,18 @@ public class BookshelfServiceTest {
     }
 
     @Test
-    public void getAllPublicBookshelves() {
+    public void getPublicBookshelves() {
         List<Bookshelf> expectedResult = new ArrayList<>();
         expectedResult.add(existingBookshelf);
-        List<Bookshelf> result = bookshelfService.getAllPublicBookshelves();
+        BookshelfPage<Bookshelf> result = bookshelfService.getPublicBookshelves(null, null, null);
 
-        assertEquals(result.size(), expectedResult.size());
-        assertEquals(result, expectedResult);
+        assertEquals(result.getBookshelves(), expectedResult);
+        assertNull(result.getNextCursor());
+        assertFalse(testBookshelfRepo.calledMethods.contains("findAll"));
     }
 
     @Test
-    public void getAllPublicBookshelvesMix() {
+    public void getPublicBookshelvesMix() {
         //Create a private bookshelf
         Bookshelf bookshelf2 = new Bookshelf()
                 .bookshelfId(randomBookshelfId)
@@ -191,10 +197,87 @@ public class BookshelfServiceTest {
 
         List<Bookshelf> expectedResult = new ArrayList<>();
         expectedResult.add(existingBookshelf);
-        List<Bookshelf> result = bookshelfService.getAllPublicBookshelves();
+        BookshelfPage<Bookshelf> result = bookshelfService.getPublicBookshelves(null, null, null);
 
-        assertEquals(result.size(), expectedResult.size());
-        assertEquals(result, expectedResult);
+        assertEquals(result.getBookshelves(), expectedResult);
+    }
+
+    @Test
+    public void getPublicBookshelvesPages() {
+        List<Bookshelf> expected = new ArrayList<>(List.of(existingBookshelf));
+        for (String title : List.of("A shelf", "Z shelf", "Test Bookshelf")) {
+            Bookshelf bookshelf = new Bookshelf().bookshelfId(UUID.randomUUID()).owner(owner).title(title)
+                    .privacy(Bookshelf.PrivacyEnum.PUBLIC);
+            testBookshelfRepo.save(bookshelf);
+            expected.add(bookshelf);
+        }
+        expected.sort(Comparator.comparing(Bookshelf::getTitle).thenComparing(Bookshelf::getBookshelfId));
+
+        BookshelfPage<Bookshelf> first = bookshelfService.getPublicBookshelves(3, null, null);
+        assertEquals(expected.subList(0, 3), first.getBookshelves());
+        assertNotNull(first.getNextCursor());
+
+        BookshelfPage<Bookshelf> second = bookshelfService.getPublicBookshelves(3, first.getNextCursor(), null);
+        assertEquals(expected.subList(3, 4), second.getBookshelves());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void getPublicBookshelvesByTitle() {
+        Bookshelf percent = new Bookshelf().bookshelfId(UUID.randomUUID()).owner(owner).title("100% fantasy")
+                .privacy(Bookshelf.PrivacyEnum.PUBLIC);
+        Bookshelf other = new Bookshelf().bookshelfId(UUID.randomUUID()).owner(owner).title("100 fantasy books")
+                .privacy(Bookshelf.PrivacyEnum.PUBLIC);
+        testBookshelfRepo.save(percent);
+        testBookshelfRepo.save(other);
+
+        assertEquals(List.of(percent), bookshelfService.getPublicBookshelves(null, null, "0% FAN").getBookshelves());
+        assertEquals(List.of(other, percent), bookshelfService.getPublicBookshelves(null, null, "fantasy").getBookshelves());
+        assertTrue(bookshelfService.getPublicBookshelves(null, null, "_0 fantasy").getBookshelves().isEmpty());
+    }
+
+    @Test
+    public void getPublicBookshelvesInvalidPage() {
+        assertThrows(IllegalArgumentException.class, () -> bookshelfService.getPublicBookshelves(0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> bookshelfService.getPublicBookshelves(1001, null, null));
+        assertThrows(IllegalArgumentException.class, () -> bookshelfService.getPublicBookshelves(null, "not a cursor", null));
+    }
+
+    @Test
+    public void getAllBookshelfSummaries() {
+        List<BookshelfSummary> summaries = bookshelfService.getAllBookshelfSummaries();
+
+        assertEquals(1, summaries.size());
+        assertEquals(existingBookshelf.getBookshelfId(), summaries.get(0).getBookshelfId());
+        assertEquals(owner.getUserId(), summaries.get(0).getOwnerId());
+        assertEquals(BookshelfSummary.PrivacyEnum.PUBLIC, summaries.get(0).getPrivacy());
+        assertEquals(existingBookshelf.getBooks().size(), summaries.get(0).getBookCount());
+        assertFalse(testBookshelfRepo.calledMethods.contains("findAll"));
+    }
+
+    @Test
+    public void getPublicBookshelfSummariesPages() {
+        List<Bookshelf> expected = new ArrayList<>(List.of(existingBookshelf));
+        for (String title : List.of("A shelf", "Z shelf", "Test Bookshelf")) {
+            Bookshelf bookshelf = new Bookshelf().bookshelfId(UUID.randomUUID()).owner(owner).title(title)
+                    .privacy(Bookshelf.PrivacyEnum.PUBLIC);
+            testBookshelfRepo.save(bookshelf);
+            expected.add(bookshelf);
+        }
+        testBookshelfRepo.save(new Bookshelf().bookshelfId(UUID.randomUUID()).owner(owner).title("B shelf")
+                .privacy(Bookshelf.PrivacyEnum.PRIVATE));
+        expected.sort(Comparator.comparing(Bookshelf::getTitle).thenComparing(Bookshelf::getBookshelfId));
+
+        BookshelfPage<BookshelfSummary> first = bookshelfService.getPublicBookshelfSummaries(3, null, "SHELF");
+        assertEquals(expected.subList(0, 3).stream().map(Bookshelf::getBookshelfId).collect(Collectors.toList()),
+                first.getBookshelves().stream().map(BookshelfSummary::getBookshelfId).collect(Collectors.toList()));
+        assertNotNull(first.getNextCursor());
+
+        BookshelfPage<BookshelfSummary> second = bookshelfService.getPublicBookshelfSummaries(3, first.getNextCursor(), "shelf");
+        assertEquals(1, second.getBookshelves().size());
+        assertEquals(expected.get(3).getBookshelfId(), second.getBookshelves().get(0).getBookshelfId());
+        assertNull(second.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> bookshelfService.getPublicBookshelfSummaries(0, null, null));
     }
 
 
@@ -327,6 +410,41 @@ public class BookshelfServiceTest {
         assertEquals(0, bookshelfService.getAllBookshelves().size());
     }
 
+    @Test
+    public void deleteBookshelfOnlyMarksItDeleted() throws Exception {
+        bookshelfService.addMultipleBooksToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(),
+                List.of(testBook.getBookId(), testBook2.getBookId()));
+
+        bookshelfService.deleteBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId());
+
+        // hidden and its wrappers released at once, but the books are left for the reaper
+        assertTrue(existingBookshelf.getDeleted());
+        assertThrows(NotFoundException.class, () -> bookshelfService.getBookshelfById(existingBookshelf.getBookshelfId()));
+        assertEquals(2, existingBookshelf.getBooks().size());
+        assertTrue(bookWrapperRepo.catalog.isEmpty());
+        assertFalse(testBookshelfRepo.calledMethods.contains("removeBooksFromBookshelf"));
+        assertEquals(List.of(existingBookshelf.getBookshelfId()), testBookshelfRepo.findDeletedIds(10));
+    }
+
+    @Test
+    public void releaseDeletedBookshelfInBatches() throws Exception {
+        existingBookshelf.getMembers().add(new User(randomUserId));
+        bookshelfService.addMultipleBooksToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(),
+                List.of(testBook.getBookId(), testBook2.getBookId()));
+        assertEquals(4, bookWrapperRepo.catalog.size());
+        bookshelfService.deleteBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId());
+        assertTrue(bookWrapperRepo.catalog.isEmpty());
+
+        assertTrue(bookshelfService.releaseDeletedBookshelf(existingBookshelf.getBookshelfId(), 1));
+        assertEquals(List.of(testBook2), existingBookshelf.getBooks());
+
+        assertTrue(bookshelfService.releaseDeletedBookshelf(existingBookshelf.getBookshelfId(), 1));
+        assertTrue(existingBookshelf.getBooks().isEmpty());
+
+        assertFalse(bookshelfService.releaseDeletedBookshelf(existingBookshelf.getBookshelfId(), 1));
+        assertTrue(testBookshelfRepo.bookshelves.isEmpty());
+    }
+
     @Test
     public void deleteBookshelfBadRequestBookshelfIdNull() {
         assertThatThrownBy(() -> bookshelfService.deleteBookshelf(null, owner.getUserId()))
@@ -689,7 +807,8 @@ public class BookshelfServiceTest {
         Bookshelf result = bookshelfService.addBookToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
         assertEquals(1, result.getBooks().size());   // Check that the bookshelf now has 1 book
         assertThat(result.getBooks()).containsExactlyInAnyOrder(testBook);   // Check that the bookshelf contains the correct book
-        verify(bookWrapperRepositoryMock, times(2)).save(Mockito.any());
+        verify(bookWrapperRepositoryMock, times(1)).insertAll(argThat(wrappers -> wrappers.size() == 2));
+        verify(bookWrapperRepositoryMock, never()).save(Mockito.any());
     }
 
     @Test
@@ -704,11 +823,13 @@ public class BookshelfServiceTest {
                 .thenReturn(Optional.of(existingBookshelf));
         when(bookRepositoryMock.findById(testBook.getBookId()))
                 .thenReturn(Optional.of(testBook));
-        existingBookshelf.getBooks().add(testBook);
+        when(bookshelfRepositoryMock.containsBook(existingBookshelf.getBookshelfId(), testBook.getBookId()))
+                .thenReturn(true);
         ValidationException e = assertThrows(ValidationException.class,
                 () -> bookshelfService.addBookToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(),
                         testBook.getBookId()));
         assertEquals("Book already exists in the bookshelf", e.getMessage());
+        verify(bookshelfRepositoryMock, never()).save(any(Bookshelf.class));
     }
 
     @Test
@@ -785,8 +906,9 @@ public class BookshelfServiceTest {
         existingBookWrapper.setUserId(userId);
 
         when(bookshelfRepositoryMock.findById(bookshelfId)).thenReturn(Optional.of(existingBookshelf));
-        when(bookRepositoryMock.findById(bookId)).thenReturn(Optional.of(existingBook));
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.of(existingBookWrapper));
+        when(bookRepositoryMock.existsById(bookId)).thenReturn(true);
+        when(bookshelfRepositoryMock.containsBook(bookshelfId, bookId)).thenReturn(true);
+        when(bookWrapperRepositoryMock.existsById(any(BookWrapperId.class))).thenReturn(true);
 
         ArgumentCaptor<BookWrapperId> bookWrapperIdCaptor = ArgumentCaptor.forClass(BookWrapperId.class);
         // Mock circleValidator to not throw an exception
@@ -796,11 +918,15 @@ public class BookshelfServiceTest {
         assertEquals(1, existingBookshelf.getBooks().size());
         // Execute the method
         Bookshelf result = bookshelfService.removeBookFromBookshelf(bookshelfId, userId, bookId);
-        assertEquals(0, result.getBooks().size());
-        // Verify interactions and assertions
-        verify(bookshelfRepositoryMock, times(1)).save(any(Bookshelf.class));
-        verify(bookWrapperRepositoryMock, times(2)).delete(existingBookWrapper);
-        verify(bookWrapperRepositoryMock, times(1)).findById(bookWrapperIdCaptor.capture());
+        assertSame(existingBookshelf, result);
+        // Verify interactions and assertions: one join row deleted, no books loaded
+        verify(bookshelfRepositoryMock, never()).save(any(Bookshelf.class));
+        verify(bookRepositoryMock, never()).findById(any(UUID.class));
+        verify(bookshelfRepositoryMock).removeBooksFromBookshelf(bookshelfId, Set.of(bookId));
+        verify(bookshelfRepositoryMock).incrementVersion(bookshelfId);
+        verify(bookWrapperRepositoryMock).decrementShelfCounts(Set.of(bookId), Set.of(userId, owner.getUserId()));
+        verify(bookWrapperRepositoryMock).deleteUnshelved(Set.of(bookId), Set.of(userId, owner.getUserId()));
+        verify(bookWrapperRepositoryMock, times(1)).existsById(bookWrapperIdCaptor.capture());
         assertEquals(bookId, bookWrapperIdCaptor.getValue().getBookId());
         assertEquals(userId, bookWrapperIdCaptor.getValue().getUserId());
     }
@@ -815,9 +941,8 @@ public class BookshelfServiceTest {
                 .thenReturn(true);
         when(bookshelfRepositoryMock.findById(existingBookshelf.getBookshelfId()))
                 .thenReturn(Optional.of(existingBookshelf));
-        when(bookRepositoryMock.findById(testBook.getBookId()))
-                .thenReturn(Optional.of(testBook));
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.empty());
+        when(bookRepositoryMock.existsById(testBook.getBookId())).thenReturn(true);
+        when(bookWrapperRepositoryMock.existsById(any(BookWrapperId.class))).thenReturn(false);
         NotFoundException exception = assertThrows(NotFoundException.class, () ->
                 bookshelfService.removeBookFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId()));
         assertEquals("Book wrapper not found", exception.getMessage());
@@ -859,7 +984,7 @@ public class BookshelfServiceTest {
                 .thenReturn(true);
 
         when(bookshelfRepository.existsById(existingBookshelf.getBookshelfId())).thenReturn(true);
-        when(bookRepository.existsById(newBook.getBookId())).thenReturn(true);
+        when(bookRepository.existsById(newBook.getBookId())).thenReturn(false);
         when(userServiceMock.existsById(owner.getUserId())).thenReturn(true);
 
 
@@ -934,20 +1059,21 @@ public class BookshelfServiceTest {
         Book book3 = new Book();
         UUID bookId3 = UUID.randomUUID();
         book3.setBookId(bookId3);
-        when(bookRepositoryMock.existsById(bookId1)).thenReturn(true);
-        when(bookRepositoryMock.existsById(bookId2)).thenReturn(true);
-        when(bookRepositoryMock.existsById(bookId3)).thenReturn(true);
+        when(bookRepositoryMock.findAllById(Set.of(bookId3, bookId2))).thenReturn(List.of(book3, book2));
         Bookshelf bookshelf = new Bookshelf();
         bookshelf.setBookshelfId(UUID.randomUUID());
         bookshelf.addBooksItem(book1);
         bookshelf.addBooksItem(book2);
         when(bookshelfRepositoryMock.findById(bookshelf.getBookshelfId()))
                 .thenReturn(Optional.of(bookshelf));
+        when(bookshelfRepositoryMock.findBookIdsIn(bookshelf.getBookshelfId(), Set.of(bookId3, bookId2)))
+                .thenReturn(List.of(bookId2));
         List<UUID> bookIds = new ArrayList<>(Arrays.asList(bookId3, bookId2));
         ValidationException e = assertThrows(ValidationException.class, () ->
                 bookshelfService.addMultipleBooksToBookshelf(bookshelf.getBookshelfId(),
                         owner.getUserId(), bookIds));
         assertEquals("Book already exists in the bookshelf", e.getMessage());
+        verify(bookshelfRepositoryMock).findBookIdsIn(bookshelf.getBookshelfId(), Set.of(bookId3, bookId2));
     }
 
     @Test
@@ -966,12 +1092,7 @@ public class BookshelfServiceTest {
         Book book3 = new Book();
         UUID bookId3 = UUID.randomUUID();
         book3.setBookId(bookId3);
-        when(bookRepositoryMock.existsById(bookId1)).thenReturn(true);
-        when(bookRepositoryMock.existsById(bookId2)).thenReturn(true);
-        when(bookRepositoryMock.existsById(bookId3)).thenReturn(true);
-        when(bookRepositoryMock.findById(bookId1)).thenReturn(Optional.of(book1));
-        when(bookRepositoryMock.findById(bookId2)).thenReturn(Optional.of(book2));
-        when(bookRepositoryMock.findById(bookId3)).thenReturn(Optional.of(book3));
+        when(bookRepositoryMock.findAllById(Set.of(bookId1, bookId2))).thenReturn(List.of(book1, book2));
 
         Bookshelf bookshelf = new Bookshelf();
         bookshelf.setOwner(owner);
@@ -998,7 +1119,9 @@ public class BookshelfServiceTest {
                 userId, bookIds);
         assertEquals(2, books.size());
         assertThat(books).containsExactlyInAnyOrder(book1, book2);
-        verify(bookWrapperRepositoryMock, times(4)).save(Mockito.any());
+        verify(bookRepositoryMock, never()).findById(any());
+        verify(bookWrapperRepositoryMock, never()).save(Mockito.any());
+        verify(bookWrapperRepositoryMock, times(1)).insertAll(argThat(wrappers -> wrappers.size() == 4));
     }
 
     @Test
@@ -1083,39 +1206,32 @@ public class BookshelfServiceTest {
         Validator validator = mock(Validator.class);
         BookshelfService bookshelfService2 = new BookshelfService(bookshelfRepositoryMock, bookRepositoryMock, userServiceMock, bookWrapperRepositoryMock);
         bookshelfService2.setCircleValidator(validator);
-        //when(validator.handle(existingBookshelf.getBookshelfId(), owner.getUserId(), owner.getUserId())).thenReturn(true);
         when(validator.handle(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
 
-        when(bookshelfRepositoryMock.existsById(existingBookshelf.getBookshelfId())).thenReturn(true);
+        List<UUID> bookIds = List.of(testBook.getBookId(), testBook2.getBookId());
         when(bookshelfRepositoryMock.findById(existingBookshelf.getBookshelfId())).thenReturn(Optional.of(existingBookshelf));
-        when(userServiceMock.existsById(owner.getUserId())).thenReturn(true);
-
-        when(bookRepositoryMock.existsById(testBook.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.existsById(testBook2.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.findById(testBook.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookRepositoryMock.findById(testBook2.getBookId())).thenReturn(Optional.of(testBook2));
-        //Setting up the book wrappers
-        BookWrapperId wrapperId1 = new BookWrapperId();
-        wrapperId1.setBookId(testBook.getBookId());
-        wrapperId1.setUserId(owner.getUserId());
-        BookWrapper bookWrapper1 = new BookWrapper();
-        bookWrapper1.setBookId(testBook.getBookId());
-        bookWrapper1.setUserId(owner.getUserId());
-
-        when(bookWrapperRepositoryMock.existsById(any(BookWrapperId.class))).thenReturn(true);
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.of(bookWrapper1));
-
-        existingBookshelf.addBooksItem(testBook);
-        existingBookshelf.addBooksItem(testBook2);
-        List<UUID> bookIdsToRemove = new ArrayList<>();
-        bookIdsToRemove.add(testBook.getBookId());
-        bookIdsToRemove.add(testBook2.getBookId());
+        when(bookRepositoryMock.findExistingIds(Set.copyOf(bookIds))).thenReturn(bookIds);
+        when(bookshelfRepositoryMock.findBookIdsIn(existingBookshelf.getBookshelfId(), Set.copyOf(bookIds))).thenReturn(bookIds);
+        when(bookWrapperRepositoryMock.findIds(Set.copyOf(bookIds), List.of(owner.getUserId()))).thenReturn(List.of(
+                new BookWrapperId(testBook.getBookId(), owner.getUserId()),
+                new BookWrapperId(testBook2.getBookId(), owner.getUserId())));
 
         existingBookshelf.getMembers().add(new User(randomUserId));
+        List<UUID> bookIdsToRemove = new ArrayList<>(bookIds);
+        bookIdsToRemove.add(testBook.getBookId());
 
         bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIdsToRemove);
 
-        verify(bookWrapperRepositoryMock, times(4)).delete(bookWrapper1);
+        // every statement covers all the books and both users of the bookshelf
+        Set<UUID> users = Set.of(owner.getUserId(), randomUserId);
+        verify(bookshelfRepositoryMock).removeBooksFromBookshelf(existingBookshelf.getBookshelfId(), Set.copyOf(bookIds));
+        verify(bookshelfRepositoryMock).incrementVersion(existingBookshelf.getBookshelfId());
+        verify(bookWrapperRepositoryMock).decrementShelfCounts(Set.copyOf(bookIds), users);
+        verify(bookWrapperRepositoryMock).deleteUnshelvedTags(Set.copyOf(bookIds), users);
+        verify(bookWrapperRepositoryMock).deleteUnshelved(Set.copyOf(bookIds), users);
+        verify(bookRepositoryMock, never()).findById(any(UUID.class));
+        verify(bookWrapperRepositoryMock, never()).deleteById(any(BookWrapperId.class));
+        verify(bookshelfRepositoryMock, never()).save(any(Bookshelf.class));
     }
 
     @Test
@@ -1123,37 +1239,20 @@ public class BookshelfServiceTest {
         Validator validator = mock(Validator.class);
         BookshelfService bookshelfService2 = new BookshelfService(bookshelfRepositoryMock, bookRepositoryMock, userServiceMock, bookWrapperRepositoryMock);
         bookshelfService2.setCircleValidator(validator);
-        //when(validator.handle(existingBookshelf.getBookshelfId(), owner.getUserId(), owner.getUserId())).thenReturn(true);
         when(validator.handle(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
 
-        when(bookshelfRepositoryMock.existsById(existingBookshelf.getBookshelfId())).thenReturn(true);
+        List<UUID> bookIds = List.of(testBook.getBookId(), testBook2.getBookId());
         when(bookshelfRepositoryMock.findById(existingBookshelf.getBookshelfId())).thenReturn(Optional.of(existingBookshelf));
-        when(userServiceMock.existsById(owner.getUserId())).thenReturn(true);
-
-        when(bookRepositoryMock.existsById(testBook.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.existsById(testBook2.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.findById(testBook.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookRepositoryMock.findById(testBook2.getBookId())).thenReturn(Optional.of(testBook2));
-        //Setting up the book wrappers
-        BookWrapperId wrapperId1 = new BookWrapperId();
-        wrapperId1.setBookId(testBook.getBookId());
-        wrapperId1.setUserId(owner.getUserId());
-        BookWrapper bookWrapper1 = new BookWrapper();
-        bookWrapper1.setBookId(testBook.getBookId());
-        bookWrapper1.setUserId(owner.getUserId());
-
-        when(bookWrapperRepositoryMock.existsById(any(BookWrapperId.class))).thenReturn(true);
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.empty());
-
-        existingBookshelf.addBooksItem(testBook);
-        existingBookshelf.addBooksItem(testBook2);
-        List<UUID> bookIdsToRemove = new ArrayList<>();
-        bookIdsToRemove.add(testBook.getBookId());
-        bookIdsToRemove.add(testBook2.getBookId());
+        when(bookRepositoryMock.findExistingIds(Set.copyOf(bookIds))).thenReturn(bookIds);
+        when(bookshelfRepositoryMock.findBookIdsIn(existingBookshelf.getBookshelfId(), Set.copyOf(bookIds))).thenReturn(bookIds);
+        when(bookWrapperRepositoryMock.findIds(Set.copyOf(bookIds), List.of(owner.getUserId()))).thenReturn(List.of(
+                new BookWrapperId(testBook.getBookId(), owner.getUserId())));
 
         ValidationException e = assertThrows(ValidationException.class, () ->
-                bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIdsToRemove));
+                bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIds));
         assertEquals("Book wrapper not found", e.getMessage());
+        verify(bookshelfRepositoryMock, never()).removeBooksFromBookshelf(any(), any());
+        verify(bookWrapperRepositoryMock, never()).decrementShelfCounts(any(), any());
     }
 
     @Test
@@ -1161,37 +1260,39 @@ public class BookshelfServiceTest {
         Validator validator = mock(Validator.class);
         BookshelfService bookshelfService2 = new BookshelfService(bookshelfRepositoryMock, bookRepositoryMock, userServiceMock, bookWrapperRepositoryMock);
         bookshelfService2.setCircleValidator(validator);
-        //when(validator.handle(existingBookshelf.getBookshelfId(), owner.getUserId(), owner.getUserId())).thenReturn(true);
         when(validator.handle(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
 
-        when(bookshelfRepositoryMock.existsById(existingBookshelf.getBookshelfId())).thenReturn(true);
+        List<UUID> bookIds = List.of(testBook.getBookId(), testBook2.getBookId());
         when(bookshelfRepositoryMock.findById(existingBookshelf.getBookshelfId())).thenReturn(Optional.of(existingBookshelf));
-        when(userServiceMock.existsById(owner.getUserId())).thenReturn(true);
+        when(bookRepositoryMock.findExistingIds(Set.copyOf(bookIds))).thenReturn(List.of(testBook.getBookId()));
+        when(bookshelfRepositoryMock.findBookIdsIn(existingBookshelf.getBookshelfId(), Set.copyOf(bookIds))).thenReturn(bookIds);
+        when(bookWrapperRepositoryMock.findIds(Set.copyOf(bookIds), List.of(owner.getUserId()))).thenReturn(List.of(
+                new BookWrapperId(testBook.getBookId(), owner.getUserId()),
+                new BookWrapperId(testBook2.getBookId(), owner.getUserId())));
 
-        when(bookRepositoryMock.existsById(testBook.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.existsById(testBook2.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.findById(testBook.getBookId())).thenReturn(Optional.empty());
-        when(bookRepositoryMock.findById(testBook2.getBookId())).thenReturn(Optional.empty());
-        //Setting up the book wrappers
-        BookWrapperId wrapperId1 = new BookWrapperId();
-        wrapperId1.setBookId(testBook.getBookId());
-        wrapperId1.setUserId(owner.getUserId());
-        BookWrapper bookWrapper1 = new BookWrapper();
-        bookWrapper1.setBookId(testBook.getBookId());
-        bookWrapper1.setUserId(owner.getUserId());
+        ValidationException e = assertThrows(ValidationException.class, () ->
+                bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIds));
+        assertEquals("Book not found", e.getMessage());
+        verify(bookshelfRepositoryMock, never()).removeBooksFromBookshelf(any(), any());
+    }
 
-        when(bookWrapperRepositoryMock.existsById(any(BookWrapperId.class))).thenReturn(true);
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.of(bookWrapper1));
+    @Test
+    public void removeMultipleBooksFromBookshelfBookNotInBookshelf2() {
+        Validator validator = mock(Validator.class);
+        BookshelfService bookshelfService2 = new BookshelfService(bookshelfRepositoryMock, bookRepositoryMock, userServiceMock, bookWrapperRepositoryMock);
+        bookshelfService2.setCircleValidator(validator);
+        when(validator.handle(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
 
-        existingBookshelf.addBooksItem(testBook);
-        existingBookshelf.addBooksItem(testBook2);
-        List<UUID> bookIdsToRemove = new ArrayList<>();
-        bookIdsToRemove.add(testBook.getBookId());
-        bookIdsToRemove.add(testBook2.getBookId());
+        List<UUID> bookIds = List.of(testBook.getBookId(), testBook2.getBookId());
+        when(bookshelfRepositoryMock.findById(existingBookshelf.getBookshelfId())).thenReturn(Optional.of(existingBookshelf));
+        when(bookRepositoryMock.findExistingIds(Set.copyOf(bookIds))).thenReturn(bookIds);
+        when(bookshelfRepositoryMock.findBookIdsIn(existingBookshelf.getBookshelfId(), Set.copyOf(bookIds)))
+                .thenReturn(List.of(testBook2.getBookId()));
 
         ValidationException e = assertThrows(ValidationException.class, () ->
-                bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIdsToRemove));
-        assertEquals("Book not found", e.getMessage());
+                bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIds));
+        assertEquals("Book is not found in specified bookshelf", e.getMessage());
+        verify(bookshelfRepositoryMock, never()).removeBooksFromBookshelf(any(), any());
     }
 
     @Test
@@ -1199,34 +1300,11 @@ public class BookshelfServiceTest {
         Validator validator = mock(Validator.class);
         BookshelfService bookshelfService2 = new BookshelfService(bookshelfRepositoryMock, bookRepositoryMock, userServiceMock, bookWrapperRepositoryMock);
         bookshelfService2.setCircleValidator(validator);
-        //when(validator.handle(existingBookshelf.getBookshelfId(), owner.getUserId(), owner.getUserId())).thenReturn(true);
         when(validator.handle(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
 
-        when(bookshelfRepositoryMock.existsById(existingBookshelf.getBookshelfId())).thenReturn(true);
         when(bookshelfRepositoryMock.findById(existingBookshelf.getBookshelfId())).thenReturn(Optional.empty());
-        when(userServiceMock.existsById(owner.getUserId())).thenReturn(true);
-
-        when(bookRepositoryMock.existsById(testBook.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.existsById(testBook2.getBookId())).thenReturn(true);
-        when(bookRepositoryMock.findById(testBook.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookRepositoryMock.findById(testBook2.getBookId())).thenReturn(Optional.of(testBook2));
-        //Setting up the book wrappers
-        BookWrapperId wrapperId1 = new BookWrapperId();
-        wrapperId1.setBookId(testBook.getBookId());
-        wrapperId1.setUserId(owner.getUserId());
-        BookWrapper bookWrapper1 = new BookWrapper();
-        bookWrapper1.setBookId(testBook.getBookId());
-        bookWrapper1.setUserId(owner.getUserId());
-
-        when(bookWrapperRepositoryMock.existsById(any(BookWrapperId.class))).thenReturn(true);
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.of(bookWrapper1));
-
-        existingBookshelf.addBooksItem(testBook);
-        existingBookshelf.addBooksItem(testBook2);
-        List<UUID> bookIdsToRemove = new ArrayList<>();
-        bookIdsToRemove.add(testBook.getBookId());
-        bookIdsToRemove.add(testBook2.getBookId());
 
+        List<UUID> bookIdsToRemove = List.of(testBook.getBookId(), testBook2.getBookId());
         ValidationException e = assertThrows(ValidationException.class, () ->
                 bookshelfService2.removeMultipleBooksFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), bookIdsToRemove));
         assertEquals("Bookshelf not found", e.getMessage());
@@ -1392,6 +1470,41 @@ public class BookshelfServiceTest {
         assertEquals(0, bookshelfService.getNumberOfBooksReadCircle(bookshelfId));
     }
 
+    @Test
+    public void getNumberOfBooksReadCircleIgnoresMissingWrappers() throws NotFoundException {
+        UUID bookshelfId = UUID.randomUUID();
+        User owner = new User(UUID.randomUUID());
+        User member = new User(UUID.randomUUID());
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            books.add(new Book().bookId(UUID.randomUUID()));
+        }
+        //read by both, read by the owner only, read by the owner without a wrapper of the member, no wrappers at all
+        bookWrapperRepo.save(new BookWrapper().bookId(books.get(0).getBookId()).userId(owner.getUserId())
+                .readingStatus(BookWrapper.ReadingStatusEnum.READ));
+        bookWrapperRepo.save(new BookWrapper().bookId(books.get(0).getBookId()).userId(member.getUserId())
+                .readingStatus(BookWrapper.ReadingStatusEnum.READ));
+        bookWrapperRepo.save(new BookWrapper().bookId(books.get(1).getBookId()).userId(owner.getUserId())
+                .readingStatus(BookWrapper.ReadingStatusEnum.READ));
+        bookWrapperRepo.save(new BookWrapper().bookId(books.get(1).getBookId()).userId(member.getUserId())
+                .readingStatus(BookWrapper.ReadingStatusEnum.READING));
+        bookWrapperRepo.save(new BookWrapper().bookId(books.get(2).getBookId()).userId(owner.getUserId())
+                .readingStatus(BookWrapper.ReadingStatusEnum.READ));
+        bookWrapperRepo.save(new BookWrapper().bookId(books.get(2).getBookId()).userId(UUID.randomUUID())
+                .readingStatus(BookWrapper.ReadingStatusEnum.READING));
+        testBookshelfRepo.save(new Bookshelf()
+                .bookshelfId(bookshelfId)
+                .owner(owner)
+                .members(new ArrayList<>(List.of(member)))
+                .books(books));
+        bookWrapperRepo.calledMethods.clear();
+
+        assertEquals(3, bookshelfService.getNumberOfBooksReadCircle(bookshelfId));
+        assertEquals(List.of("findBookIdsWithCircleStatus"), testBookshelfRepo.calledMethods.subList(
+                testBookshelfRepo.calledMethods.size() - 1, testBookshelfRepo.calledMethods.size()));
+        assertTrue(bookWrapperRepo.calledMethods.isEmpty());
+    }
+
     @Test
     public void getPreferredGenresCircleBookshelfNotExist() {
         UUID bookshelfId = UUID.randomUUID();
@@ -1465,7 +1578,9 @@ public class BookshelfServiceTest {
         when(bookRepositoryMock.findById(testBook.getBookId())).thenReturn(Optional.of(testBook));
         when(bookRepositoryMock.findById(testBook2.getBookId())).thenReturn(Optional.of(testBook2));
         bookshelfService.addBookWrapperMultiple(randomUserId,books);
-        verify(bookshelfRepositoryMock,times(2)).findAll();
+        verify(bookWrapperRepositoryMock,times(1)).insertAll(argThat(wrappers -> wrappers.size() == 2));
+        verify(bookWrapperRepositoryMock,never()).incrementShelfCounts(any(), any());
+        verify(bookshelfRepositoryMock,never()).findAll();
     }
 
     @Test
@@ -1475,10 +1590,98 @@ public class BookshelfServiceTest {
         List<Book> books = new ArrayList<>(Arrays.asList(testBook2,testBook));
         when(bookRepositoryMock.findById(testBook.getBookId())).thenReturn(Optional.of(testBook));
         when(bookRepositoryMock.findById(testBook2.getBookId())).thenReturn(Optional.of(testBook2));
-        when(bookWrapperRepositoryMock.findById(any(BookWrapperId.class))).thenReturn(Optional.of(new BookWrapper()));
-        when(bookshelfRepositoryMock.findAll()).thenReturn(new ArrayList<>(List.of(existingBookshelf)));
         bookshelfService.deleteBookWrapperMultiple(randomUserId,books);
-        verify(bookshelfRepositoryMock,times(2)).findAll();
-        verify(bookWrapperRepositoryMock,times(2)).deleteById(Mockito.any());
+        verify(bookshelfRepositoryMock,never()).findAll();
+        Set<UUID> bookIds = new HashSet<>(Arrays.asList(testBook.getBookId(), testBook2.getBookId()));
+        verify(bookWrapperRepositoryMock,times(1)).decrementShelfCounts(bookIds, List.of(randomUserId));
+        verify(bookWrapperRepositoryMock,times(1)).deleteUnshelvedTags(bookIds, List.of(randomUserId));
+        verify(bookWrapperRepositoryMock,times(1)).deleteUnshelved(bookIds, List.of(randomUserId));
+        verify(bookWrapperRepositoryMock,never()).findById(Mockito.any());
+        verify(bookWrapperRepositoryMock,never()).deleteById(Mockito.any());
+    }
+
+    @Test
+    public void bookWrapperCountsBookshelvesOfUser() throws Exception {
+        Bookshelf secondBookshelf = new Bookshelf()
+                .bookshelfId(UUID.randomUUID())
+                .owner(owner)
+                .books(new ArrayList<>())
+                .members(new ArrayList<>())
+                .pendingMembers(new ArrayList<>());
+        testBookshelfRepo.save(secondBookshelf);
+        BookWrapperId wrapperId = new BookWrapperId(testBook.getBookId(), owner.getUserId());
+
+        bookshelfService.addBookToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        bookshelfService.addBookToBookshelf(secondBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        assertEquals(1, bookWrapperRepo.catalog.size());
+        assertEquals(2, bookWrapperRepo.findById(wrapperId).get().getShelfCount());
+
+        bookshelfService.removeBookFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        assertEquals(1, bookWrapperRepo.findById(wrapperId).get().getShelfCount());
+
+        bookshelfService.removeBookFromBookshelf(secondBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        assertTrue(bookWrapperRepo.catalog.isEmpty());
+        assertFalse(bookWrapperRepo.calledMethods.contains("findAll"));
+    }
+
+    @Test
+    public void bookWrapperKeepsProgressWhileBookshelfLeft() throws Exception {
+        Bookshelf secondBookshelf = new Bookshelf()
+                .bookshelfId(UUID.randomUUID())
+                .owner(owner)
+                .books(new ArrayList<>())
+                .members(new ArrayList<>())
+                .pendingMembers(new ArrayList<>());
+        testBookshelfRepo.save(secondBookshelf);
+        bookshelfService.addBookToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        BookWrapper wrapper = bookWrapperRepo.findById(new BookWrapperId(testBook.getBookId(), owner.getUserId())).get();
+        wrapper.setCurrentPage(42);
+
+        bookshelfService.addBookToBookshelf(secondBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        bookshelfService.deleteBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId());
+        while (bookshelfService.releaseDeletedBookshelf(existingBookshelf.getBookshelfId(), 10)) {
+            // release every book
+        }
+
+        BookWrapper kept = bookWrapperRepo.findById(new BookWrapperId(testBook.getBookId(), owner.getUserId())).get();
+        assertEquals(42, kept.getCurrentPage());
+        assertEquals(1, kept.getShelfCount());
+    }
+
+    @Test
+    public void removeBookDeletesWrapperOfEveryUser() throws Exception {
+        existingBookshelf.getMembers().add(new User(randomUserId));
+        bookshelfService.addMultipleBooksToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(),
+                List.of(testBook.getBookId(), testBook2.getBookId()));
+        assertEquals(4, bookWrapperRepo.catalog.size());
+
+        bookshelfService.removeBookFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+
+        assertEquals(2, bookWrapperRepo.catalog.size());
+        assertTrue(bookWrapperRepo.catalog.stream().allMatch(bw -> bw.getBookId().equals(testBook2.getBookId())));
+    }
+
+    @Test
+    public void removeBookNotInBookshelfKeepsWrapper() throws Exception {
+        bookshelfService.addBookToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        bookshelfService.removeBookFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        BookWrapper other = new BookWrapper().bookId(testBook.getBookId()).userId(owner.getUserId()).shelfCount(1);
+        bookWrapperRepo.save(other);
+
+        bookshelfService.removeBookFromBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+
+        assertEquals(1, bookWrapperRepo.findById(new BookWrapperId(testBook.getBookId(), owner.getUserId())).get().getShelfCount());
+    }
+
+    @Test
+    public void memberLeavingReleasesWrappers() throws Exception {
+        bookshelfService.addBookToBookshelf(existingBookshelf.getBookshelfId(), owner.getUserId(), testBook.getBookId());
+        bookshelfService.addBookWrapperMultiple(randomUserId, List.of(testBook));
+        assertEquals(2, bookWrapperRepo.catalog.size());
+
+        bookshelfService.deleteBookWrapperMultiple(randomUserId, List.of(testBook));
+
+        assertEquals(1, bookWrapperRepo.catalog.size());
+        assertEquals(owner.getUserId(), bookWrapperRepo.catalog.get(0).getUserId());
     }
 }
@@ -0,0 +1,92 @@
+package nl.tudelft.sem.template.example.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.tudelft.sem.template.example.database.BookRepository;
+import nl.tudelft.sem.template.example.database.TestBookRepository;
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CatalogExportServiceTest {
+    private TestBookRepository bookRepo;
+    private EntityManager entityManager;
+    private ObjectMapper objectMapper;
+    private CatalogExportService exportService;
+    private TestingUtility util;
+
+    /**
+     * Setup before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        bookRepo = new TestBookRepository();
+        entityManager = mock(EntityManager.class);
+        objectMapper = new ObjectMapper();
+        exportService = new CatalogExportService(bookRepo, entityManager, objectMapper);
+        util = new TestingUtility(bookRepo, null);
+    }
+
+    /**
+     * Test that every book is written as one JSON line.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testExport() throws Exception {
+        Book b1 = util.constructBook("First");
+        Book b2 = util.constructBook("Second");
+        bookRepo.catalog.add(b1);
+        bookRepo.catalog.add(b2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, exportService.export(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals(b1, objectMapper.readValue(lines[0], Book.class));
+        assertEquals(b2, objectMapper.readValue(lines[1], Book.class));
+        assertEquals("", lines[2]);
+        util.assertBookRepoCall("streamAll");
+        verify(entityManager, never()).clear();
+    }
+
+    /**
+     * Test that the persistence context is cleared after every fetch.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testExportClearsPersistenceContext() throws Exception {
+        for (int i = 0; i < 2 * BookRepository.EXPORT_FETCH_SIZE + 1; i++) {
+            bookRepo.catalog.add(util.constructBook());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2 * BookRepository.EXPORT_FETCH_SIZE + 1, exportService.export(out));
+        verify(entityManager, times(2)).clear();
+    }
+
+    /**
+     * Test exporting an empty catalog.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testExportEmpty() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.export(out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,202 @@
+package nl.tudelft.sem.template.example.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.tudelft.sem.template.example.database.BookBatchWriter;
+import nl.tudelft.sem.template.example.database.TestBookRepository;
+import nl.tudelft.sem.template.example.database.TestBookWrapperRepository;
+import nl.tudelft.sem.template.example.database.TestBookshelfRepository;
+import nl.tudelft.sem.template.example.utility.TestingUtility;
+import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.model.CatalogImportReport;
+import nl.tudelft.sem.template.model.CatalogImportRowError;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CatalogImportServiceTest {
+    private TestBookRepository bookRepo;
+    private BookBatchWriter writer;
+    private CatalogService catalogService;
+    private CatalogImportService importService;
+    private ObjectMapper objectMapper;
+    private TestingUtility util;
+
+    /**
+     * Setup before each test.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bookRepo = new TestBookRepository();
+        writer = mock(BookBatchWriter.class);
+        doAnswer(invocation -> bookRepo.catalog.addAll(invocation.getArgument(0, List.class)))
+                .when(writer).insert(any());
+        catalogService = new CatalogService(bookRepo, new TestBookshelfRepository(), new TestBookWrapperRepository());
+        objectMapper = new ObjectMapper();
+        importService = new CatalogImportService(bookRepo, writer, catalogService, objectMapper);
+        util = new TestingUtility(bookRepo, null);
+    }
+
+    private static InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test importing NDJSON, with invalid and malformed rows reported by line.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testImportNdjson() throws Exception {
+        Book b1 = util.constructBook("First");
+        Book b2 = util.constructBook("Second");
+        b2.setBookId(null);
+        Book invalid = util.constructBook("Invalid");
+        invalid.setNumPages(0);
+
+        CatalogImportReport report = importService.importBooks(body(
+                objectMapper.writeValueAsString(b1),
+                "",
+                objectMapper.writeValueAsString(invalid),
+                "{not json",
+                objectMapper.writeValueAsString(b2)), CatalogImportService.Format.NDJSON, null);
+
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(3L, 4L), report.getErrors().stream().map(CatalogImportRowError::getLine)
+                .collect(Collectors.toList()));
+        assertTrue(report.getRowsPerSecond() > 0);
+        assertEquals(2, bookRepo.catalog.size());
+        assertEquals(b1, bookRepo.catalog.get(0));
+        assertNotNull(bookRepo.catalog.get(1).getBookId());
+    }
+
+    /**
+     * Test importing CSV with quoted fields and multiple authors and genres.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testImportCsv() throws Exception {
+        UUID id = UUID.randomUUID();
+        CatalogImportReport report = importService.importBooks(body(
+                "bookId,title,authors,genres,description,numPages",
+                id + ",\"Good Omens\",Terry Pratchett|Neil Gaiman,FANTASY|DRAMA,\"The end, nigh \"\"soon\"\"\",412",
+                ",Dune,Frank Herbert,COOKING,Sand,100",
+                ",Dune,Frank Herbert,SCIENCE_FICTION,Sand"), CatalogImportService.Format.CSV, null);
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertEquals(4, report.getErrors().get(1).getLine());
+
+        Book book = bookRepo.catalog.get(0);
+        assertEquals(id, book.getBookId());
+        assertEquals("Good Omens", book.getTitle());
+        assertEquals(List.of("Terry Pratchett", "Neil Gaiman"), book.getAuthors());
+        assertEquals(List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.DRAMA), book.getGenres());
+        assertEquals("The end, nigh \"soon\"", book.getDescription());
+        assertEquals(412, book.getNumPages());
+    }
+
+    /**
+     * Test that a CSV header without a required column is rejected.
+     */
+    @Test
+    public void testImportCsvMissingColumn() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importBooks(
+                body("title,authors,genres,description"), CatalogImportService.Format.CSV, null));
+    }
+
+    /**
+     * Test that the rows are inserted in chunks and that duplicate ids are reported.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testImportChunksAndDuplicates() throws Exception {
+        Book existing = util.constructBook();
+        bookRepo.catalog.add(existing);
+        Book b1 = util.constructBook("One");
+        Book b2 = util.constructBook("Two");
+        Book b3 = util.constructBook("Three");
+
+        CatalogImportReport report = importService.importBooks(body(
+                objectMapper.writeValueAsString(b1),
+                objectMapper.writeValueAsString(b2),
+                objectMapper.writeValueAsString(existing),
+                objectMapper.writeValueAsString(b1),
+                objectMapper.writeValueAsString(b3)), CatalogImportService.Format.NDJSON, 2);
+
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getFailed());
+        verify(writer, times(2)).insert(any());
+        assertEquals(List.of(existing, b1, b2, b3), bookRepo.catalog);
+    }
+
+    /**
+     * Test that imported books are added to the search indexes.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testImportIndexesBooks() throws Exception {
+        catalogService.rebuildIndexes();
+        Book b = util.constructBook("Imported");
+
+        importService.importBooks(body(objectMapper.writeValueAsString(b)), CatalogImportService.Format.NDJSON, null);
+
+        assertEquals(List.of(b), catalogService.search("import", null));
+    }
+
+    /**
+     * Test that the rows of a chunk that cannot be inserted are reported.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testImportChunkFails() throws Exception {
+        doThrow(new RuntimeException("constraint")).when(writer).insert(any());
+
+        CatalogImportReport report = importService.importBooks(body(
+                objectMapper.writeValueAsString(util.constructBook())), CatalogImportService.Format.NDJSON, null);
+
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertTrue(report.getErrors().get(0).getMessage().contains("constraint"));
+    }
+
+    /**
+     * Test that an invalid chunk size is rejected.
+     */
+    @Test
+    public void testImportInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importBooks(body(), CatalogImportService.Format.NDJSON, 0));
+        assertThrows(IllegalArgumentException.class, () -> importService.importBooks(body(),
+                CatalogImportService.Format.NDJSON, CatalogImportService.MAX_CHUNK_SIZE + 1));
+    }
+
+    /**
+     * Test splitting CSV lines.
+     */
+    @Test
+    public void testSplitCsv() {
+        assertEquals(List.of("a", "b,c", "", "d\"e"), CatalogImportService.splitCsv("a,\"b,c\",,\"d\"\"e\""));
+        assertEquals(List.of(""), CatalogImportService.splitCsv(""));
+    }
+}
@@ -6,6 +6,8 @@ import nl.tudelft.sem.template.example.database.TestBookshelfRepository;
 import javassist.NotFoundException;
 import nl.tudelft.sem.template.example.database.TestUserRepository;
 import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.model.BookBatch;
+import nl.tudelft.sem.template.model.BookWrapper;
 import nl.tudelft.sem.template.example.utility.TestingUtility;
 
 import nl.tudelft.sem.template.model.Bookshelf;
@@ -13,9 +15,16 @@ import nl.tudelft.sem.template.model.BookshelfPostRequest;
 import nl.tudelft.sem.template.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.EmptyResultDataAccessException;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,8 +48,8 @@ public class CatalogServiceTest {
         bookWrapperRepo = new TestBookWrapperRepository();
 
         util = new TestingUtility(bookRepo, bookshelfRepo);
-        catalogService = new CatalogService(bookRepo, bookshelfRepo);
-        userService = new UserService(userRepo, bookshelfRepo, bookRepo, bookWrapperRepo, categoryService, null);
+        catalogService = new CatalogService(bookRepo, bookshelfRepo, bookWrapperRepo);
+        userService = new UserService(userRepo, bookshelfRepo, bookRepo, bookWrapperRepo, categoryService, null, null);
         bookshelfService = new BookshelfService(bookshelfRepo, bookRepo, userService, bookWrapperRepo);
     }
 
@@ -68,6 +77,57 @@ public class CatalogServiceTest {
         assertThrows(Exception.class, () -> catalogService.getAllBooks());
     }
 
+    /**
+     * Test the getPage method sorted by number of pages - OK Response.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetPageByNumPagesOK() throws Exception {
+        Book b1 = util.constructBook();
+        b1.setNumPages(300);
+        Book b2 = util.constructBook();
+        b2.setNumPages(100);
+        Book b3 = util.constructBook();
+        b3.setNumPages(200);
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.add(b3);
+
+        CatalogPage first = catalogService.getPage(2, null, "numPages");
+        assertEquals(List.of(b2, b3), first.getBooks());
+        assertNotNull(first.getNextCursor());
+
+        CatalogPage second = catalogService.getPage(2, first.getNextCursor(), "numPages");
+        assertEquals(List.of(b1), second.getBooks());
+        assertNull(second.getNextCursor());
+        util.assertBookRepoCall("findPageByNumPagesAfter");
+    }
+
+    /**
+     * Test the getPage method when the last page is exactly full - NO_CONTENT Response.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetPageEmptyAfterLastPage() throws Exception {
+        catalogService.add(util.constructBook());
+
+        CatalogPage page = catalogService.getPage(1, null, null);
+        assertNotNull(page.getNextCursor());
+        assertThrows(EmptyResultDataAccessException.class,
+                () -> catalogService.getPage(1, page.getNextCursor(), null));
+    }
+
+    /**
+     * Test the getPage method - INTERNAL_SERVER_ERROR Response.
+     */
+    @Test
+    public void testGetPageException() {
+        catalogService.setSimulateError(true);
+        assertThrows(Exception.class, () -> catalogService.getPage(null, null, null));
+    }
+
     /**
      * Test the add method - OK Response.
      *
@@ -129,12 +189,17 @@ public class CatalogServiceTest {
 
         Bookshelf bookshelf = bookshelfService.addBookshelf(bookshelfPostRequest, user.getUserId());
         bookshelf.addBooksItem(b);
+        bookWrapperRepo.catalog.add(new BookWrapper().bookId(b.getBookId()).userId(user.getUserId()).shelfCount(1));
 
         catalogService.deleteBook(b.getBookId());
 
         assertTrue(bookRepo.catalog.isEmpty());
         assertTrue(bookshelfRepo.bookshelves.get(0).getBooks().isEmpty());
+        assertTrue(bookWrapperRepo.catalog.isEmpty());
+        assertTrue(bookWrapperRepo.calledMethods.contains("deleteTagsOfBook"));
         util.assertBookRepoCall("deleteById");
+        assertTrue(bookshelfRepo.calledMethods.contains("removeBookFromBookshelves"));
+        assertFalse(bookshelfRepo.calledMethods.contains("findAll"));
     }
 
     /**
@@ -169,8 +234,113 @@ public class CatalogServiceTest {
         Book b = util.constructBook();
         catalogService.add(b);
 
+        bookRepo.calledMethods.clear();
         assertEquals(b, catalogService.getById(b.getBookId()));
-        util.assertBookRepoCall("existsById");
+        assertEquals(b, catalogService.getById(b.getBookId()));
+        // a single round trip, the second lookup is served from the cache
+        assertEquals(List.of("findById"), bookRepo.calledMethods);
+    }
+
+    /**
+     * Test the getById method - edits and deletes are not hidden by the cache.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetByIdAfterEditAndDelete() throws Exception {
+        Book b = util.constructBook();
+        catalogService.add(b);
+        catalogService.getById(b.getBookId()).setTitle("changed by the caller");
+        assertEquals("Title", catalogService.getById(b.getBookId()).getTitle());
+
+        Book newBook = util.constructBook("New title");
+        newBook.setBookId(b.getBookId());
+        catalogService.editBook(newBook);
+        assertEquals("New title", catalogService.getById(b.getBookId()).getTitle());
+
+        catalogService.deleteBook(b.getBookId());
+        assertThrows(NotFoundException.class, () -> catalogService.getById(b.getBookId()));
+    }
+
+    /**
+     * Test the getBatch method - OK Response.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetBatchOK() throws Exception {
+        Book b1 = util.constructBook("First");
+        Book b2 = util.constructBook("Second");
+        catalogService.add(b1);
+        catalogService.add(b2);
+        UUID unknown = UUID.randomUUID();
+
+        BookBatch batch = catalogService.getBatch(List.of(b2.getBookId(), unknown, b1.getBookId(), b2.getBookId()));
+
+        assertEquals(List.of(b2, b1), batch.getBooks());
+        assertEquals(List.of(unknown), batch.getMissing());
+        util.assertBookRepoCall("findAllById");
+    }
+
+    /**
+     * Test the getBatch method - nothing requested.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetBatchEmpty() throws Exception {
+        BookBatch batch = catalogService.getBatch(new ArrayList<>());
+
+        assertTrue(batch.getBooks().isEmpty());
+        assertTrue(batch.getMissing().isEmpty());
+    }
+
+    /**
+     * Test the getBatch method - IllegalArgumentException Response.
+     */
+    @Test
+    public void testGetBatchIllegalArgument() {
+        List<UUID> withNull = new ArrayList<>();
+        withNull.add(null);
+        List<UUID> tooMany = new ArrayList<>();
+        for (int i = 0; i < 10_001; i++) {
+            tooMany.add(UUID.randomUUID());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> catalogService.getBatch(null));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.getBatch(withNull));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.getBatch(tooMany));
+    }
+
+    /**
+     * Test the getBatch method - large lists are loaded in chunks.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetBatchChunked() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Book b = util.constructBook("Book " + i);
+            bookRepo.catalog.add(b);
+            ids.add(b.getBookId());
+        }
+        bookRepo.calledMethods.clear();
+
+        BookBatch batch = catalogService.getBatch(ids);
+
+        assertEquals(2500, batch.getBooks().size());
+        assertEquals(ids.get(1234), batch.getBooks().get(1234).getBookId());
+        assertEquals(3, bookRepo.calledMethods.stream().filter("findAllById"::equals).count());
+    }
+
+    /**
+     * Test the getBatch method - INTERNAL_SERVER_ERROR Response.
+     */
+    @Test
+    public void testGetBatchException() {
+        catalogService.setSimulateError(true);
+        assertThrows(Exception.class, () -> catalogService.getBatch(List.of(UUID.randomUUID())));
     }
 
     /**
@@ -406,4 +576,501 @@ public class CatalogServiceTest {
         catalogService.setSimulateError(true);
         assertThrows(Exception.class, () -> catalogService.search("test", "test"));
     }
+
+    /**
+     * Test that the search uses the index once it has been built.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchUsesIndex() throws Exception {
+        Book b1 = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        Book b2 = util.constructBook("The Silmarillion", List.of("J.R.R. Tolkien"));
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+        bookRepo.calledMethods.clear();
+
+        assertEquals(List.of(b1, b2), catalogService.search(null, "tolkien"));
+        assertEquals(List.of(b2), catalogService.search("SILMA", "tolkien"));
+        assertFalse(bookRepo.calledMethods.contains("findAll"));
+        util.assertBookRepoCall("findAllById");
+    }
+
+    /**
+     * Test that the index is kept up to date when books are added, edited and deleted.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchIndexMaintained() throws Exception {
+        catalogService.rebuildIndexes();
+
+        Book b = util.constructBook("Before");
+        catalogService.add(b);
+        assertEquals(List.of(b), catalogService.search("before", null));
+
+        Book edited = util.constructBook("After");
+        edited.setBookId(b.getBookId());
+        catalogService.editBook(edited);
+        assertThrows(NotFoundException.class, () -> catalogService.search("before", null));
+        assertEquals(b.getBookId(), catalogService.search("after", null).get(0).getBookId());
+
+        catalogService.deleteBook(b.getBookId());
+        assertThrows(NotFoundException.class, () -> catalogService.search("after", null));
+    }
+
+    /**
+     * Test that repeated searches are answered from the result cache, whatever their case and surrounding spaces.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchCached() throws Exception {
+        Book b1 = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        Book b2 = util.constructBook("Emma", List.of("Jane Austen"));
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+
+        assertEquals(List.of(b1), catalogService.search(null, "tolkien"));
+        assertEquals(List.of(b1), catalogService.search("", "  TOLKIEN "));
+        assertEquals(List.of(b1), catalogService.search(null, "Tolkien"));
+        assertEquals(1, catalogService.getSearchCache().getMisses());
+        assertEquals(2, catalogService.getSearchCache().getHits());
+    }
+
+    /**
+     * Test that fuzzy and genre searches trim their queries and are cached apart from each other.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testFuzzyAndGenreSearchCached() throws Exception {
+        Book b1 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY));
+        Book b2 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.ROMANCE));
+        b2.setTitle("Other");
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+
+        assertEquals(List.of(b2), catalogService.search(" othr ", null, true, null, null));
+        assertEquals(List.of(b2), catalogService.search("OTHR", null, true, null, null));
+        assertEquals(List.of(b2), catalogService.search(" other", null, false, List.of("ROMANCE"), null));
+        assertEquals(List.of(b2), catalogService.search("Other ", null, false, List.of("ROMANCE"), "any"));
+        assertEquals(List.of(b2), catalogService.search("other", null, false, List.of("FANTASY"), "all"));
+        // the fuzzy search, the exact search behind the genre filters and the two genre filters
+        assertEquals(4, catalogService.getSearchCache().getMisses());
+        assertEquals(3, catalogService.getSearchCache().getHits());
+    }
+
+    /**
+     * Test that every write to the catalog makes the cached searches stale.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchCacheInvalidatedByWrites() throws Exception {
+        Book b1 = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        catalogService.add(b1);
+        catalogService.rebuildIndexes();
+        assertEquals(List.of(b1), catalogService.search(null, "tolkien"));
+
+        Book b2 = util.constructBook("The Silmarillion", List.of("J.R.R. Tolkien"));
+        catalogService.add(b2);
+        assertEquals(List.of(b1, b2), catalogService.search(null, "tolkien"));
+
+        Book edited = util.constructBook("The Hobbit", List.of("Someone Else"));
+        edited.setBookId(b1.getBookId());
+        catalogService.editBook(edited);
+        assertEquals(List.of(b2.getBookId()),
+                catalogService.search(null, "tolkien").stream().map(Book::getBookId).collect(Collectors.toList()));
+
+        catalogService.deleteBook(b2.getBookId());
+        assertThrows(NotFoundException.class, () -> catalogService.search(null, "tolkien"));
+
+        Book imported = util.constructBook("Unfinished Tales", List.of("J.R.R. Tolkien"));
+        bookRepo.save(imported);
+        catalogService.indexBooks(List.of(imported));
+        assertEquals(List.of(imported), catalogService.search(null, "tolkien"));
+        assertEquals(0, catalogService.getSearchCache().getHits());
+    }
+
+    /**
+     * Test the getSimilar method - OK Response, with and without the indexes built.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetSimilarOK() throws Exception {
+        Book target = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        Book similar = util.constructBook("The Silmarillion", List.of("J.R.R. Tolkien"));
+        Book other = util.constructBookGenres(List.of(Book.GenresEnum.ROMANCE));
+        other.setTitle("Emma");
+        catalogService.add(target);
+        catalogService.add(similar);
+        catalogService.add(other);
+
+        assertEquals(List.of(similar), catalogService.getSimilar(target.getBookId(), null));
+        util.assertBookRepoCall("findAll");
+
+        catalogService.rebuildIndexes();
+        bookRepo.calledMethods.clear();
+        assertEquals(List.of(similar), catalogService.getSimilar(target.getBookId(), 5));
+        assertFalse(bookRepo.calledMethods.contains("findAll"));
+        assertEquals(List.of(), catalogService.getSimilar(other.getBookId(), 5));
+    }
+
+    /**
+     * Test the getSimilar method - BAD_REQUEST, NOT_FOUND and INTERNAL_SERVER_ERROR Responses.
+     */
+    @Test
+    public void testGetSimilarErrors() {
+        Book b = util.constructBook();
+        bookRepo.save(b);
+
+        assertThrows(IllegalArgumentException.class, () -> catalogService.getSimilar(null, null));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.getSimilar(b.getBookId(), 0));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.getSimilar(b.getBookId(), 101));
+        assertThrows(NotFoundException.class, () -> catalogService.getSimilar(UUID.randomUUID(), null));
+
+        catalogService.setSimulateError(true);
+        assertThrows(Exception.class, () -> catalogService.getSimilar(b.getBookId(), null));
+    }
+
+    /**
+     * Test that a restart builds the indexes from the snapshot, reading only the books that changed since.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testWarmStartFromSnapshot(@TempDir Path dir) throws Exception {
+        String path = dir.resolve("catalog.snapshot").toString();
+        Book kept = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        Book edited = util.constructBook("Emma", List.of("Jane Austen"));
+        Book deleted = util.constructBook("Dracula", List.of("Bram Stoker"));
+        for (Book b : List.of(kept, edited, deleted)) {
+            b.setVersion(0L);
+            bookRepo.save(b);
+        }
+        catalogService.setSnapshotPath(path);
+        catalogService.rebuildIndexes();
+        catalogService.writeSnapshot();
+
+        // changes while the service is down
+        edited.setTitle("Persuasion");
+        edited.setVersion(1L);
+        bookRepo.catalog.remove(deleted);
+        Book added = util.constructBook("Frankenstein", List.of("Mary Shelley"));
+        added.setVersion(0L);
+        bookRepo.save(added);
+        bookRepo.calledMethods.clear();
+
+        CatalogService restarted = new CatalogService(bookRepo, bookshelfRepo, bookWrapperRepo);
+        restarted.setSnapshotPath(path);
+        restarted.rebuildIndexes();
+
+        assertFalse(bookRepo.calledMethods.contains("findAll"));
+        util.assertBookRepoCall("findAllVersions");
+        assertEquals(List.of(kept), restarted.search("hobbit", null));
+        assertEquals(List.of(edited), restarted.search("persuasion", null));
+        assertThrows(NotFoundException.class, () -> restarted.search("emma", null));
+        assertThrows(NotFoundException.class, () -> restarted.search("dracula", null));
+        assertEquals(List.of(added), restarted.search("frankenstein", null));
+    }
+
+    /**
+     * Test that a book deleted and re-created under the same id while the service is down is indexed
+     * with its new content, even though its version started over.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testWarmStartAfterRecreate(@TempDir Path dir) throws Exception {
+        String path = dir.resolve("catalog.snapshot").toString();
+        Book original = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        original.setVersion(0L);
+        bookRepo.save(original);
+        catalogService.setSnapshotPath(path);
+        catalogService.rebuildIndexes();
+        catalogService.writeSnapshot();
+
+        bookRepo.catalog.remove(original);
+        Book recreated = util.constructBook("Dracula", List.of("Bram Stoker"));
+        recreated.setBookId(original.getBookId());
+        recreated.setVersion(0L);
+        bookRepo.save(recreated);
+
+        CatalogService restarted = new CatalogService(bookRepo, bookshelfRepo, bookWrapperRepo);
+        restarted.setSnapshotPath(path);
+        restarted.rebuildIndexes();
+
+        assertEquals(List.of(recreated), restarted.search("dracula", null));
+        assertThrows(NotFoundException.class, () -> restarted.search("hobbit", null));
+    }
+
+    /**
+     * Test that the indexes are built from the database when the snapshot cannot be read.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testColdStartWithoutSnapshot(@TempDir Path dir) throws Exception {
+        Book b = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        bookRepo.save(b);
+        Files.write(dir.resolve("catalog.snapshot"), new byte[] {1, 2, 3});
+        catalogService.setSnapshotPath(dir.resolve("catalog.snapshot").toString());
+
+        catalogService.rebuildIndexes();
+
+        util.assertBookRepoCall("findAll");
+        assertEquals(List.of(b), catalogService.search("hobbit", null));
+    }
+
+    /**
+     * Test that suggestions follow the catalog when books are added, edited and deleted.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSuggestMaintained() throws Exception {
+        Book b1 = util.constructBook("Emma", List.of("Jane Austen"));
+        Book b2 = util.constructBook("Persuasion", List.of("Jane Austen"));
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+
+        assertEquals(List.of("Jane Austen"), catalogService.suggest("jane", null));
+        assertEquals(List.of("Emma"), catalogService.suggest("e", null));
+
+        Book edited = util.constructBook("Pride and Prejudice", List.of("Jane Austen"));
+        edited.setBookId(b1.getBookId());
+        catalogService.editBook(edited);
+        assertEquals(List.of("Persuasion", "Pride and Prejudice"), catalogService.suggest("p", null));
+        assertEquals(List.of("Persuasion"), catalogService.suggest("p", 1));
+
+        catalogService.deleteBook(b2.getBookId());
+        catalogService.deleteBook(b1.getBookId());
+        assertThrows(NotFoundException.class, () -> catalogService.suggest("jane", null));
+    }
+
+    /**
+     * Test that suggestions are answered from the database until the indexes are built.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSuggestBeforeIndexBuilt() throws Exception {
+        catalogService.add(util.constructBook("Emma", List.of("Jane Austen")));
+        catalogService.add(util.constructBook("Persuasion", List.of("Jane Austen")));
+        catalogService.add(util.constructBook("Jane Eyre", List.of("Charlotte Bront\u00eb", "Jane Doe")));
+        bookRepo.calledMethods.clear();
+
+        assertEquals(List.of("Jane Austen", "Jane Doe", "Jane Eyre"), catalogService.suggest("JANE", null));
+        assertEquals(List.of("Charlotte Bront\u00eb"), catalogService.suggest("charlotte bronte", null));
+        assertThrows(NotFoundException.class, () -> catalogService.suggest("dickens", null));
+        util.assertBookRepoCall("findByTitleFoldedStartingWith");
+        util.assertBookRepoCall("findByAuthorsFoldedStartingWith");
+        assertFalse(bookRepo.calledMethods.contains("findAll"));
+    }
+
+    /**
+     * Test the suggest method with an invalid prefix or limit.
+     */
+    @Test
+    public void testSuggestIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> catalogService.suggest(null, null));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.suggest("  ", null));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.suggest("a", 51));
+    }
+
+    /**
+     * Test that the fuzzy search tolerates typos once the indexes are built.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testFuzzySearch() throws Exception {
+        Book b1 = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        Book b2 = util.constructBook("Emma", List.of("Jane Austen"));
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+
+        assertEquals(List.of(b1), catalogService.fuzzySearch("hobit", "tolkein"));
+        assertEquals(List.of(b1, b2), catalogService.fuzzySearch(null, null));
+        assertThrows(NotFoundException.class, () -> catalogService.fuzzySearch("hobbit", "austen"));
+    }
+
+    /**
+     * Test that the search done before the index is built matches in the repository,
+     * ignoring case and accents.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchBeforeIndexBuiltFolded() throws Exception {
+        Book b1 = util.constructBook("Le P\u00e8re Goriot", List.of("Honor\u00e9 de Balzac"));
+        Book b2 = util.constructBook("Stra\u00dfe", List.of("Someone"));
+        catalogService.add(b1);
+        catalogService.add(b2);
+        bookRepo.calledMethods.clear();
+
+        assertEquals(List.of(b1), catalogService.search("PERE", "honore"));
+        assertEquals(List.of(b2), catalogService.search("STRASSE", null));
+        util.assertBookRepoCall("findByTitleFoldedContainingAndAuthorsFoldedContaining");
+        assertFalse(bookRepo.calledMethods.contains("findAll"));
+    }
+
+    /**
+     * Test that the genre scan done before the index is built gives the same books, in catalog order,
+     * when the catalog is split over several partitions.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchGenresBeforeIndexBuiltPartitioned() throws Exception {
+        List<Book> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Book b = util.constructBookGenres(List.of(i % 3 == 0 ? Book.GenresEnum.FANTASY : Book.GenresEnum.DRAMA));
+            bookRepo.save(b);
+            if (i % 3 == 0) {
+                expected.add(b);
+            }
+        }
+        catalogService.setSearchPartitions(3);
+
+        assertEquals(expected, catalogService.search(null, null, false, List.of("FANTASY"), null));
+        util.assertBookRepoCall("findAll");
+    }
+
+    /**
+     * Test that the fuzzy search falls back to the exact search until the indexes are built.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testFuzzySearchBeforeIndexBuilt() throws Exception {
+        Book b = util.constructBook("The Hobbit", List.of("J.R.R. Tolkien"));
+        catalogService.add(b);
+
+        assertEquals(List.of(b), catalogService.fuzzySearch("hobbit", null));
+        assertThrows(NotFoundException.class, () -> catalogService.fuzzySearch("hobit", null));
+
+        catalogService.setSimulateError(true);
+        assertThrows(Exception.class, () -> catalogService.fuzzySearch("hobbit", null));
+    }
+
+    /**
+     * Test searching with a genre filter, with and without a text query.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchGenres() throws Exception {
+        Book b1 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY));
+        Book b2 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.ROMANCE));
+        b2.setTitle("Other");
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+
+        assertEquals(List.of(b1, b2), catalogService.search(null, null, false, List.of("FANTASY"), null));
+        assertEquals(List.of(b2), catalogService.search(null, null, false, List.of("FANTASY", "ROMANCE"), "all"));
+        assertEquals(List.of(b1), catalogService.search("title", null, false, List.of("FANTASY"), "any"));
+        assertEquals(List.of(b2), catalogService.search("othr", null, true, List.of("ROMANCE"), null));
+        assertThrows(NotFoundException.class,
+                () -> catalogService.search("title", null, false, List.of("ROMANCE"), null));
+    }
+
+    /**
+     * Test that a genre search before the indexes are built gives the same result.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testSearchGenresBeforeIndexBuilt() throws Exception {
+        Book b1 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY));
+        Book b2 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.ROMANCE));
+        catalogService.add(b1);
+        catalogService.add(b2);
+
+        assertEquals(List.of(b2), catalogService.search(null, null, false, List.of("FANTASY", "ROMANCE"), "all"));
+        assertEquals(List.of(b1, b2), catalogService.search("title", null, false, List.of("FANTASY"), null));
+        assertEquals(2, catalogService.getGenreFacets(null, null, false, null, null).get("FANTASY"));
+    }
+
+    /**
+     * Test the search method with an invalid genre filter.
+     */
+    @Test
+    public void testSearchGenresIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogService.search(null, null, false, List.of("COOKING"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogService.search(null, null, false, List.of("FANTASY"), "some"));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogService.getGenreFacets(null, null, false, List.of("COOKING"), null));
+    }
+
+    /**
+     * Test counting the matching books per genre.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testGetGenreFacets() throws Exception {
+        Book b1 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY));
+        Book b2 = util.constructBookGenres(List.of(Book.GenresEnum.FANTASY, Book.GenresEnum.ROMANCE));
+        b2.setTitle("Other");
+        catalogService.add(b1);
+        catalogService.add(b2);
+        catalogService.rebuildIndexes();
+
+        Map<String, Integer> all = catalogService.getGenreFacets(null, null, false, null, null);
+        assertEquals(Book.GenresEnum.values().length, all.size());
+        assertEquals(2, all.get("FANTASY"));
+        assertEquals(1, all.get("ROMANCE"));
+        assertEquals(0, all.get("HORROR"));
+
+        Map<String, Integer> other = catalogService.getGenreFacets("other", null, false, List.of("FANTASY"), null);
+        assertEquals(1, other.get("FANTASY"));
+        assertEquals(1, other.get("ROMANCE"));
+
+        catalogService.setSimulateError(true);
+        assertThrows(Exception.class, () -> catalogService.getGenreFacets(null, null, false, null, null));
+    }
+
+    /**
+     * Test the ranked search, before and after the indexes are built.
+     *
+     * @throws Exception for testing purposes
+     */
+    @Test
+    public void testRankedSearch() throws Exception {
+        Book b1 = util.constructBook("Tom Sawyer", List.of("Mark Twain"));
+        b1.setDescription("A boy grows up along the Mississippi River.");
+        Book b2 = util.constructBook("Life on the Mississippi", List.of("Mark Twain"));
+        catalogService.add(b1);
+        catalogService.add(b2);
+
+        assertEquals(List.of(b2, b1), catalogService.rankedSearch("mississippi", null));
+
+        catalogService.rebuildIndexes();
+        assertEquals(List.of(b2, b1), catalogService.rankedSearch("mississippi", null));
+        assertEquals(List.of(b1), catalogService.rankedSearch("river boy", 1));
+        assertThrows(NotFoundException.class, () -> catalogService.rankedSearch("nothing", null));
+    }
+
+    /**
+     * Test the ranked search with an invalid query or limit.
+     */
+    @Test
+    public void testRankedSearchIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> catalogService.rankedSearch(" ", null));
+        assertThrows(IllegalArgumentException.class, () -> catalogService.rankedSearch("a", 101));
+
+        catalogService.setSimulateError(true);
+        assertThrows(Exception.class, () -> catalogService.rankedSearch("a", null));
+    }
 }
@@ -53,9 +53,9 @@ public class CategoryServiceTest {
         c2 = new Category(UUID.randomUUID(), u2, new ArrayList<>(), "categ 2", "desc 2");
         c3 = new Category(UUID.randomUUID(), u2, new ArrayList<>(), "categ 3", "desc 3");
 
-        b1 = new Bookshelf(UUID.randomUUID(), u1, "shelf 1", "desc s1", new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>());
-        b2 = new Bookshelf(UUID.randomUUID(), u2, "shelf 2", "desc s2", new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>());
-        b3 = new Bookshelf(UUID.randomUUID(), u2, "shelf 3", "desc s3", new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>());
+        b1 = new Bookshelf(UUID.randomUUID(), u1, "shelf 1", "desc s1", new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>(), null, false);
+        b2 = new Bookshelf(UUID.randomUUID(), u2, "shelf 2", "desc s2", new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>(), null, false);
+        b3 = new Bookshelf(UUID.randomUUID(), u2, "shelf 3", "desc s3", new ArrayList<>(), Bookshelf.PrivacyEnum.PUBLIC, new ArrayList<>(), new ArrayList<>(), null, false);
 
         cs = new CategoryService(categoryRepository, userRepository, bookshelfRepository);
         cs.setUserValidator(userValidator);
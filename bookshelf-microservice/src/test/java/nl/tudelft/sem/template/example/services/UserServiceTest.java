@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.example.services;
 
 import javassist.NotFoundException;
+import nl.tudelft.sem.template.example.cache.BookCache;
 import nl.tudelft.sem.template.example.database.*;
 import nl.tudelft.sem.template.example.exceptions.InvalidDataException;
 import nl.tudelft.sem.template.example.exceptions.NullException;
@@ -58,13 +59,15 @@ public class UserServiceTest {
 
         util = new TestingUtility(bookRepo, bookshelfRepo);
         CategoryService categoryService = new CategoryService(categoryRepo, userRepo, bookshelfRepo);
-        catalogService = new CatalogService(bookRepo, bookshelfRepo);
-        userService = new UserService(userRepo, bookshelfRepo, bookRepo, bookWrapperRepo, categoryService, mockUtil);
+        catalogService = new CatalogService(bookRepo, bookshelfRepo, bookWrapperRepo);
+        userService = new UserService(userRepo, bookshelfRepo, bookRepo, bookWrapperRepo, categoryService, mockUtil,
+                new BookCache(bookRepo));
         bookshelfService = new BookshelfService(bookshelfRepo, bookRepo, userService, bookWrapperRepo);
 
         u1 = new User(UUID.randomUUID());
         u2 = new User(UUID.randomUUID());
-        mockUserService = new UserService(mockUserRepo, mockBookshelfRepo, mockBookRepo, mockBwRepo, mockCategoryService, mockUtil);
+        mockUserService = new UserService(mockUserRepo, mockBookshelfRepo, mockBookRepo, mockBwRepo, mockCategoryService, mockUtil,
+                new BookCache(mockBookRepo));
     }
 
     @Test
@@ -99,6 +102,42 @@ public class UserServiceTest {
         assertEquals(1, mockUserService.getByOwner(u1.getUserId()).size());
     }
 
+    @Test
+    public void getSummariesByOwnerUserNotFound() {
+        when(mockUserRepo.existsById(u1.getUserId())).thenReturn(false);
+        assertThrows(NotFoundException.class, () -> mockUserService.getSummariesByOwner(u1.getUserId()));
+    }
+
+    @Test
+    public void getSummariesByOwnerNoBookShelves() {
+        when(mockUserRepo.existsById(u1.getUserId())).thenReturn(true);
+        when(mockBookshelfRepo.findSummariesByOwnerId(u1.getUserId())).thenReturn(new ArrayList<>());
+        assertThrows(EmptyResultDataAccessException.class, () -> mockUserService.getSummariesByOwner(u1.getUserId()));
+    }
+
+    @Test
+    public void getSummariesByOwnerCountsBooksAndMembers() throws NotFoundException {
+        User user = util.constructUser();
+        userRepo.save(user);
+        Bookshelf shelf = util.constructBookshelf(user);
+        shelf.addBooksItem(util.constructBookGenres(List.of(Book.GenresEnum.CRIME)));
+        shelf.addBooksItem(util.constructBookGenres(List.of(Book.GenresEnum.HORROR)));
+        shelf.setMembers(new ArrayList<>(List.of(util.constructUser())));
+        shelf.setPrivacy(Bookshelf.PrivacyEnum.PRIVATE);
+        bookshelfRepo.save(shelf);
+
+        List<BookshelfSummary> summaries = userService.getSummariesByOwner(user.getUserId());
+
+        assertEquals(1, summaries.size());
+        BookshelfSummary summary = summaries.get(0);
+        assertEquals(shelf.getBookshelfId(), summary.getBookshelfId());
+        assertEquals(shelf.getTitle(), summary.getTitle());
+        assertEquals(user.getUserId(), summary.getOwnerId());
+        assertEquals(BookshelfSummary.PrivacyEnum.PRIVATE, summary.getPrivacy());
+        assertEquals(2, summary.getBookCount());
+        assertEquals(1, summary.getMemberCount());
+    }
+
     @Test
     public void getPreferredGenresUserNotFound() {
         User user = util.constructUser();
@@ -471,14 +510,17 @@ public class UserServiceTest {
         bw1.setBookId(b1.getBookId());
         bw1.setUserId(user.getUserId());
         bw1.setCurrentPage(0);
+        bw1.setShelfCount(1);
         BookWrapper bw2 = new BookWrapper();
         bw2.setBookId(b2.getBookId());
         bw2.setUserId(user.getUserId());
         bw2.setCurrentPage(0);
+        bw2.setShelfCount(1);
         BookWrapper bw3 = new BookWrapper();
         bw3.setBookId(b3.getBookId());
         bw3.setUserId(user.getUserId());
         bw3.setCurrentPage(0);
+        bw3.setShelfCount(1);
 
         List<BookWrapper> expected = List.of(bw3, bw1, bw2);
         List<BookWrapper> actual = userService.sortBooks(user.getUserId(), bs.getBookshelfId(), "title");
@@ -520,14 +562,17 @@ public class UserServiceTest {
         bw1.setBookId(b1.getBookId());
         bw1.setUserId(user.getUserId());
         bw1.setCurrentPage(0);
+        bw1.setShelfCount(1);
         BookWrapper bw2 = new BookWrapper();
         bw2.setBookId(b2.getBookId());
         bw2.setUserId(user.getUserId());
         bw2.setCurrentPage(0);
+        bw2.setShelfCount(1);
         BookWrapper bw3 = new BookWrapper();
         bw3.setBookId(b3.getBookId());
         bw3.setUserId(user.getUserId());
         bw3.setCurrentPage(0);
+        bw3.setShelfCount(1);
 
         List<BookWrapper> expected = List.of(bw3, bw1, bw2);
         List<BookWrapper> actual = userService.sortBooks(user.getUserId(), bs.getBookshelfId(), "author");
@@ -572,14 +617,17 @@ public class UserServiceTest {
         bw1.setBookId(b1.getBookId());
         bw1.setUserId(user.getUserId());
         bw1.setCurrentPage(100);
+        bw1.setShelfCount(1);
         BookWrapper bw2 = new BookWrapper();
         bw2.setBookId(b2.getBookId());
         bw2.setUserId(user.getUserId());
         bw2.setCurrentPage(50);
+        bw2.setShelfCount(1);
         BookWrapper bw3 = new BookWrapper();
         bw3.setBookId(b3.getBookId());
         bw3.setUserId(user.getUserId());
         bw3.setCurrentPage(80);
+        bw3.setShelfCount(1);
 
         userService.updateCurrentPage(user.getUserId(), b1.getBookId(), 100);
         userService.updateCurrentPage(user.getUserId(), b2.getBookId(), 50);
@@ -817,7 +865,7 @@ public class UserServiceTest {
     @Test
     public void testGetReadingStatus() throws Exception {
         Book b1 = util.constructBook();
-        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>());
+        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>(), 1);
         when(mockUtil.validId(b1.getBookId())).thenReturn(true);
         when(mockUserRepo.existsById(u1.getUserId())).thenReturn(true);
         when(mockBookRepo.existsById(b1.getBookId())).thenReturn(true);
@@ -829,7 +877,7 @@ public class UserServiceTest {
     @Test
     public void testGetReadingStatusNullStatus() throws Exception {
         Book b1 = util.constructBook();
-        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), null, 0, new ArrayList<>());
+        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), null, 0, new ArrayList<>(), 1);
         when(mockUtil.validId(u1.getUserId())).thenReturn(true);
         when(mockUtil.validId(b1.getBookId())).thenReturn(true);
         when(mockUserRepo.existsById(u1.getUserId())).thenReturn(true);
@@ -878,7 +926,7 @@ public class UserServiceTest {
     @Test
     public void testSetReadingStatus() throws Exception {
         Book b1 = util.constructBook();
-        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>());
+        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>(), 1);
         when(mockUtil.validId(b1.getBookId())).thenReturn(true);
         when(mockUserRepo.existsById(u1.getUserId())).thenReturn(true);
         when(mockBookRepo.existsById(b1.getBookId())).thenReturn(true);
@@ -890,7 +938,7 @@ public class UserServiceTest {
     @Test
     public void testSetReadingStatusNullStatus() {
         Book b1 = util.constructBook();
-        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>());
+        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>(), 1);
         when(mockUtil.validId(u1.getUserId())).thenReturn(true);
         when(mockUtil.validId(b1.getBookId())).thenReturn(true);
         when(mockUserRepo.existsById(u1.getUserId())).thenReturn(true);
@@ -903,7 +951,7 @@ public class UserServiceTest {
     @Test
     public void testSetReadingStatusInvalidStatus() {
         Book b1 = util.constructBook();
-        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>());
+        BookWrapper wrapper = new BookWrapper(b1.getBookId(), u1.getUserId(), BookWrapper.ReadingStatusEnum.READ, 0, new ArrayList<>(), 1);
         when(mockUtil.validId(u1.getUserId())).thenReturn(true);
         when(mockUtil.validId(b1.getBookId())).thenReturn(true);
         when(mockUserRepo.existsById(u1.getUserId())).thenReturn(true);
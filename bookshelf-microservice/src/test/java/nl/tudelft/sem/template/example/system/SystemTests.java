@@ -4,27 +4,57 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
 import nl.tudelft.sem.template.example.Application;
 import nl.tudelft.sem.template.example.database.*;
+import nl.tudelft.sem.template.example.entities.BookWrapperId;
+import nl.tudelft.sem.template.example.search.BookRecord;
+import nl.tudelft.sem.template.example.search.TextNormalizer;
+import nl.tudelft.sem.template.example.services.BookshelfReaper;
+import nl.tudelft.sem.template.example.services.BookshelfService;
+import nl.tudelft.sem.template.example.services.CatalogExportService;
+import nl.tudelft.sem.template.example.services.CatalogService;
 import nl.tudelft.sem.template.model.Book;
+import nl.tudelft.sem.template.model.BookTag;
+import nl.tudelft.sem.template.model.BookWrapper;
+import nl.tudelft.sem.template.model.Bookshelf;
 import nl.tudelft.sem.template.model.BookshelfBookshelfIdPutRequest;
 import nl.tudelft.sem.template.model.BookshelfPostRequest;
+import nl.tudelft.sem.template.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import org.springframework.test.web.servlet.MvcResult;
 import java.util.UUID;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -40,6 +70,15 @@ public class SystemTests {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private BookshelfService bookshelfService;
+
+    @Autowired
+    private BookshelfReaper bookshelfReaper;
+
     @Autowired
     private BookRepository bookRepository;
 
@@ -58,6 +97,12 @@ public class SystemTests {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
 
@@ -111,6 +156,265 @@ public class SystemTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getPublicBookshelvesPagesTest() throws Exception {
+        UUID userId = UUID.randomUUID();
+        mvc.perform(post("/bookshelf_service/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("\"" + userId + "\""));
+        for (String title : List.of("Fantasy", "classics", "Fantasy sequels", "Private fantasy")) {
+            BookshelfPostRequest request = new BookshelfPostRequest()
+                    .title(title)
+                    .description("description")
+                    .privacy(title.startsWith("Private") ? BookshelfPostRequest.PrivacyEnum.PRIVATE
+                            : BookshelfPostRequest.PrivacyEnum.PUBLIC);
+            mvc.perform(post("/bookshelf_service/bookshelf")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request))
+                            .param("userId", userId.toString()))
+                    .andExpect(status().isOk());
+        }
+        bookshelfRepository.flush();
+
+        String cursor = mvc.perform(get("/bookshelf_service/bookshelf/get_public").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Fantasy"))
+                .andExpect(jsonPath("$[1].title").value("Fantasy sequels"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").param("limit", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("classics"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").param("title", "FANTASY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").param("title", "romance"))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookshelfSummariesTest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        UUID memberId = UUID.randomUUID();
+        for (UUID userId : List.of(ownerId, memberId)) {
+            mvc.perform(post("/bookshelf_service/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("\"" + userId + "\""));
+        }
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("Summarised")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", ownerId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        Bookshelf circle = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        circle.setMembers(new ArrayList<>(List.of(userRepository.findById(memberId).orElseThrow())));
+        bookshelfRepository.saveAndFlush(circle);
+        entityManager.clear();
+
+        List<UUID> bookIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        for (UUID bookId : bookIds) {
+            Book book = new Book().title("title").authors(List.of("author")).description("description")
+                    .bookId(bookId).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+        }
+        bookRepository.flush();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfId + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andExpect(status().isOk());
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        mvc.perform(get("/bookshelf_service/user/" + ownerId + "/bookshelves").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].bookshelfId").value(bookshelfId.toString()))
+                .andExpect(jsonPath("$[0].title").value("Summarised"))
+                .andExpect(jsonPath("$[0].privacy").value("PUBLIC"))
+                .andExpect(jsonPath("$[0].ownerId").value(ownerId.toString()))
+                .andExpect(jsonPath("$[0].bookCount").value(2))
+                .andExpect(jsonPath("$[0].memberCount").value(1))
+                .andExpect(jsonPath("$[0].books").doesNotExist());
+        mvc.perform(get("/bookshelf_service/bookshelf").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.bookshelfId == '" + bookshelfId + "')].bookCount").value(2));
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").param("view", "summary").param("title", "summarised"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].memberCount").value(1))
+                .andExpect(jsonPath("$[0].owner").doesNotExist());
+
+        mvc.perform(get("/bookshelf_service/user/" + ownerId + "/bookshelves").param("view", "full"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].books.length()").value(2));
+        mvc.perform(get("/bookshelf_service/bookshelf").param("view", "everything"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/bookshelf_service/user/" + UUID.randomUUID() + "/bookshelves").param("view", "summary"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getNumberOfBooksReadCircleTest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        UUID memberId = UUID.randomUUID();
+        UUID outsiderId = UUID.randomUUID();
+        for (UUID userId : List.of(ownerId, memberId, outsiderId)) {
+            mvc.perform(post("/bookshelf_service/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("\"" + userId + "\""));
+        }
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", ownerId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        Bookshelf circle = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        circle.setMembers(new ArrayList<>(List.of(userRepository.findById(memberId).orElseThrow())));
+        bookshelfRepository.saveAndFlush(circle);
+        entityManager.clear();
+
+        List<UUID> bookIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        for (UUID bookId : bookIds) {
+            Book book = new Book().title("title").authors(List.of("author")).description("description")
+                    .bookId(bookId).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+        }
+        bookRepository.flush();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfId + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andExpect(status().isOk());
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        //read by both, read by the owner only, read by the owner with the member's wrapper gone, read by nobody
+        List<BookWrapper.ReadingStatusEnum> memberStatuses = Arrays.asList(BookWrapper.ReadingStatusEnum.READ,
+                BookWrapper.ReadingStatusEnum.READING, null, BookWrapper.ReadingStatusEnum.WANT_TO_READ);
+        for (int i = 0; i < bookIds.size(); i++) {
+            BookWrapper owned = bookWrapperRepository.findById(new BookWrapperId(bookIds.get(i), ownerId)).orElseThrow();
+            owned.setReadingStatus(i < 3 ? BookWrapper.ReadingStatusEnum.READ : BookWrapper.ReadingStatusEnum.READING);
+            bookWrapperRepository.save(owned);
+            BookWrapper membered = bookWrapperRepository.findById(new BookWrapperId(bookIds.get(i), memberId)).orElseThrow();
+            if (memberStatuses.get(i) == null) {
+                bookWrapperRepository.delete(membered);
+            } else {
+                membered.setReadingStatus(memberStatuses.get(i));
+                bookWrapperRepository.save(membered);
+            }
+        }
+        //wrappers of users outside the circle are not taken into account
+        bookWrapperRepository.save(new BookWrapper().bookId(bookIds.get(0)).userId(outsiderId)
+                .readingStatus(BookWrapper.ReadingStatusEnum.READING).shelfCount(0));
+        bookWrapperRepository.flush();
+        entityManager.clear();
+
+        mvc.perform(get("/bookshelf_service/bookshelf/" + bookshelfId + "/circle/insights/books_read"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    @Test
+    void findBookIdsWithCircleStatusTest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        List<UUID> memberIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        UUID outsiderId = UUID.randomUUID();
+        List<UUID> bookIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID circleId = createCircle(ownerId, memberIds, bookIds);
+        List<UUID> soloBookIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        UUID soloId = createCircle(ownerId, List.of(), soloBookIds);
+
+        //read by the owner but not by a member, read by everyone, read by nobody, with an outsider's wrapper only;
+        //on the bookshelf without members, read by the owner and not read
+        setReadingStatus(bookIds.get(0), ownerId, BookWrapper.ReadingStatusEnum.READ);
+        setReadingStatus(bookIds.get(0), memberIds.get(0), BookWrapper.ReadingStatusEnum.READ);
+        setReadingStatus(bookIds.get(0), memberIds.get(1), BookWrapper.ReadingStatusEnum.READING);
+        for (UUID userId : List.of(ownerId, memberIds.get(0), memberIds.get(1))) {
+            setReadingStatus(bookIds.get(1), userId, BookWrapper.ReadingStatusEnum.READ);
+        }
+        setReadingStatus(soloBookIds.get(0), ownerId, BookWrapper.ReadingStatusEnum.READ);
+        jdbcTemplate.update("DELETE FROM bookwrapper WHERE book_id = ?", bookIds.get(3));
+        bookWrapperRepository.save(new BookWrapper().bookId(bookIds.get(3)).userId(outsiderId)
+                .readingStatus(BookWrapper.ReadingStatusEnum.READING).shelfCount(0));
+        bookWrapperRepository.flush();
+        entityManager.clear();
+
+        assertEquals(List.of(bookIds.get(1), bookIds.get(3)), sorted(
+                bookshelfRepository.findBookIdsWithCircleStatus(circleId, BookWrapper.ReadingStatusEnum.READ), bookIds));
+        // without members only the owner's wrappers count
+        assertEquals(List.of(soloBookIds.get(0)),
+                bookshelfRepository.findBookIdsWithCircleStatus(soloId, BookWrapper.ReadingStatusEnum.READ));
+    }
+
+    private UUID createCircle(UUID ownerId, List<UUID> memberIds, List<UUID> bookIds) throws Exception {
+        List<User> members = new ArrayList<>();
+        for (UUID userId : memberIds) {
+            members.add(userRepository.findById(userId).orElseGet(() -> userRepository.save(new User(userId))));
+        }
+        if (userRepository.findById(ownerId).isEmpty()) {
+            userRepository.save(new User(ownerId));
+        }
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", ownerId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        Bookshelf circle = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        circle.setMembers(members);
+        bookshelfRepository.saveAndFlush(circle);
+        entityManager.clear();
+
+        for (UUID bookId : bookIds) {
+            if (bookRepository.existsById(bookId)) {
+                continue;
+            }
+            bookRepository.save(new Book().title("title").authors(List.of("author")).description("description")
+                    .bookId(bookId).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE)));
+        }
+        bookRepository.flush();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfId + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andExpect(status().isOk());
+        bookshelfRepository.flush();
+        entityManager.clear();
+        return bookshelfId;
+    }
+
+    private void setReadingStatus(UUID bookId, UUID userId, BookWrapper.ReadingStatusEnum status) {
+        BookWrapper wrapper = bookWrapperRepository.findById(new BookWrapperId(bookId, userId)).orElseThrow();
+        wrapper.setReadingStatus(status);
+        bookWrapperRepository.save(wrapper);
+    }
+
+    private static List<UUID> sorted(List<UUID> found, List<UUID> order) {
+        List<UUID> result = new ArrayList<>(found);
+        result.sort(Comparator.comparingInt(order::indexOf));
+        return result;
+    }
+
     @Test
     void getDetailsAboutBookshelf() throws Exception {
         //create user
@@ -468,6 +772,119 @@ public class SystemTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getCatalogPagesTest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book()
+                    .title("title" + i)
+                    .authors(List.of("author"))
+                    .description("description")
+                    .bookId(UUID.randomUUID()).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult first = mvc.perform(get("/bookshelf_service/catalog")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("title0"))
+                .andReturn();
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+
+        mvc.perform(get("/bookshelf_service/catalog")
+                        .param("limit", "2")
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("title2"));
+    }
+
+    @Test
+    void exportCatalogTest() throws Exception {
+        Book book = new Book()
+                .title("exported")
+                .authors(List.of("author"))
+                .description("description")
+                .bookId(UUID.randomUUID()).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/bookshelf_service/catalog/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = catalogExportService.export(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(bookRepository.count(), count);
+        assertEquals(count, lines.length);
+        assertTrue(Arrays.stream(lines).anyMatch(line -> line.contains("\"title\":\"exported\"")));
+    }
+
+    @Test
+    void bulkImportTest() throws Exception {
+        UUID id = UUID.randomUUID();
+        String csv = "bookId,title,authors,genres,description,numPages\n"
+                + id + ",bulk,first author|second author,HORROR|DRAMA,description,120\n"
+                + ",invalid,author,HORROR,description,0\n";
+
+        mvc.perform(post("/bookshelf_service/catalog/bulk")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        mvc.perform(get("/bookshelf_service/catalog/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("bulk"))
+                .andExpect(jsonPath("$[0].authors.length()").value(2))
+                .andExpect(jsonPath("$[0].genres[0]").value("HORROR"))
+                .andExpect(jsonPath("$[0].genres[1]").value("DRAMA"))
+                .andExpect(jsonPath("$[0].numPages").value(120));
+        assertEquals(1, bookRepository.findByTitleFoldedContainingAndAuthorsFoldedContaining("bulk", "").size());
+    }
+
+    @Test
+    void warmStartReusesBulkImportedBooksTest(@TempDir Path dir) throws Exception {
+        String csv = "bookId,title,authors,genres,description,numPages\n"
+                + UUID.randomUUID() + ",first,author,HORROR,description,120\n"
+                + UUID.randomUUID() + ",second,author,DRAMA,description,80\n";
+        mvc.perform(post("/bookshelf_service/catalog/bulk")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+        assertTrue(bookRepository.findAllVersions().stream().allMatch(book -> book.getContentHash() != null));
+
+        String path = dir.resolve("catalog.snapshot").toString();
+        CatalogService catalogService = new CatalogService(bookRepository, bookshelfRepository, bookWrapperRepository);
+        catalogService.setSnapshotPath(path);
+        catalogService.rebuildIndexes();
+        catalogService.writeSnapshot();
+        entityManager.clear();
+
+        // none of the books changed, so the restart loads none of them from the database
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        CatalogService restarted = new CatalogService(bookRepository, bookshelfRepository, bookWrapperRepository);
+        restarted.setSnapshotPath(path);
+        restarted.rebuildIndexes();
+        long loaded = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(0, loaded);
+        assertEquals("first", restarted.search("first", null).get(0).getTitle());
+        assertEquals("second", restarted.search("second", null).get(0).getTitle());
+    }
+
     @Test
     void deleteBookTest() throws Exception {
         mvc.perform(delete("/bookshelf_service/catalog")
@@ -490,6 +907,626 @@ public class SystemTests {
                         .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void deleteBookRemovesItFromBookshelvesTest() throws Exception {
+        UUID userId = UUID.randomUUID();
+        mvc.perform(post("/bookshelf_service/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("\"" + userId + "\""));
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", userId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+
+        Book book = new Book()
+                .title("title")
+                .authors(List.of("author"))
+                .description("description")
+                .bookId(UUID.fromString("ccb429f2-6169-437b-9b41-deac01c8f34c")).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        bookshelf.addBooksItem(bookRepository.findById(book.getBookId()).orElseThrow());
+        bookshelfRepository.saveAndFlush(bookshelf);
+        bookWrapperRepository.saveAndFlush(new BookWrapper().bookId(book.getBookId()).userId(userId).currentPage(0)
+                .shelfCount(1).tags(new ArrayList<>(List.of(new BookTag().name("tag")))));
+        entityManager.clear();
+
+        String count = "SELECT COUNT(*) FROM bookshelf_books WHERE bookshelf_id = ?";
+        assertEquals(1, jdbcTemplate.queryForObject(count, Integer.class, bookshelfId));
+
+        mvc.perform(delete("/bookshelf_service/catalog")
+                        .param("bookId", book.getBookId().toString()))
+                .andExpect(status().isOk());
+        bookRepository.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject(count, Integer.class, bookshelfId));
+        assertTrue(bookRepository.findById(book.getBookId()).isEmpty());
+        // the book wrapper is on no bookshelf any more, so it goes with its tags
+        assertTrue(bookWrapperRepository.findById(new BookWrapperId(book.getBookId(), userId)).isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookwrapper_tags", Integer.class));
+    }
+
+    @Test
+    void bookshelfBooksOrderedAndUniqueTest() throws Exception {
+        UUID userId = UUID.randomUUID();
+        mvc.perform(post("/bookshelf_service/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("\"" + userId + "\""));
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", userId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        List<UUID> bookIds = List.of(UUID.fromString("0b2d1c4e-8a5f-4c3b-9d7e-6f1a2b3c4d5e"),
+                UUID.fromString("1c3e2d5f-9b6a-4d4c-8e8f-7a2b3c4d5e6f"),
+                UUID.fromString("2d4f3e6a-ac7b-4e5d-9f9a-8b3c4d5e6f7a"));
+        for (int i = 0; i < bookIds.size(); i++) {
+            Book book = new Book().title("book " + i).authors(List.of("author")).description("description")
+                    .bookId(bookIds.get(i)).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+            mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfId + "/book")
+                            .param("userId", userId.toString())
+                            .param("bookId", bookIds.get(i).toString()))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(delete("/bookshelf_service/bookshelf/" + bookshelfId + "/book")
+                        .param("userId", userId.toString())
+                        .param("bookId", bookIds.get(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(2))
+                .andExpect(jsonPath("$.books[1].title").value("book 2"));
+        // separate requests, each with its own session
+        bookshelfRepository.flush();
+        entityManager.clear();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfId + "/book")
+                        .param("userId", userId.toString())
+                        .param("bookId", bookIds.get(1).toString()))
+                .andExpect(status().isOk());
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        // a removed book that is added again goes to the end
+        mvc.perform(get("/bookshelf_service/bookshelf/" + bookshelfId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].title").value("book 0"))
+                .andExpect(jsonPath("$.books[1].title").value("book 2"))
+                .andExpect(jsonPath("$.books[2].title").value("book 1"));
+        assertTrue(bookshelfRepository.containsBook(bookshelfId, bookIds.get(1)));
+        assertFalse(bookshelfRepository.containsBook(bookshelfId, UUID.randomUUID()));
+
+        String insert = "INSERT INTO bookshelf_books (bookshelf_id, books_id, shelf_position) VALUES (?, ?, ?)";
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update(insert, bookshelfId, bookIds.get(0), 1_000_000L));
+    }
+
+    @Test
+    void addMultipleBooksCountsWrappersTest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        UUID memberId = UUID.randomUUID();
+        for (UUID userId : List.of(ownerId, memberId)) {
+            mvc.perform(post("/bookshelf_service/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("\"" + userId + "\""));
+        }
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        List<UUID> bookshelfIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request))
+                            .param("userId", ownerId.toString())).andReturn();
+            bookshelfIds.add(UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId")));
+        }
+        Bookshelf circle = bookshelfRepository.findById(bookshelfIds.get(0)).orElseThrow();
+        circle.setMembers(new ArrayList<>(List.of(userRepository.findById(memberId).orElseThrow())));
+        bookshelfRepository.saveAndFlush(circle);
+        entityManager.clear();
+
+        List<UUID> bookIds = List.of(UUID.fromString("0b2d1c4e-8a5f-4c3b-9d7e-6f1a2b3c4d5e"),
+                UUID.fromString("1c3e2d5f-9b6a-4d4c-8e8f-7a2b3c4d5e6f"));
+        for (UUID bookId : bookIds) {
+            Book book = new Book().title("title").authors(List.of("author")).description("description")
+                    .bookId(bookId).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+        }
+        bookRepository.flush();
+
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(0) + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andExpect(status().isOk());
+        // separate requests, each with its own session
+        bookshelfRepository.flush();
+        entityManager.clear();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(1) + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds.subList(0, 1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookId").value(bookIds.get(0).toString()))
+                .andExpect(jsonPath("$[0].authors[0]").value("author"));
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        // one wrapper per user and book, counting the bookshelves that give the user the book
+        assertEquals(4, bookWrapperRepository.count());
+        assertEquals(2, bookWrapperRepository.findById(new BookWrapperId(bookIds.get(0), ownerId)).orElseThrow().getShelfCount());
+        assertEquals(1, bookWrapperRepository.findById(new BookWrapperId(bookIds.get(1), ownerId)).orElseThrow().getShelfCount());
+        assertEquals(1, bookWrapperRepository.findById(new BookWrapperId(bookIds.get(0), memberId)).orElseThrow().getShelfCount());
+        assertEquals(2, bookshelfRepository.findById(bookshelfIds.get(0)).orElseThrow().getBooks().size());
+        entityManager.clear();
+
+        // counting up a wrapper the owner already has, in a request of its own, still returns the whole bookshelf
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(1) + "/book")
+                        .param("userId", ownerId.toString())
+                        .param("bookId", bookIds.get(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(2))
+                .andExpect(jsonPath("$.books[1].authors[0]").value("author"));
+        entityManager.clear();
+        assertEquals(2, bookWrapperRepository.findById(new BookWrapperId(bookIds.get(1), ownerId)).orElseThrow().getShelfCount());
+    }
+
+    @Test
+    void removeMultipleBooksDeletesUnshelvedWrappersTest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        UUID memberId = UUID.randomUUID();
+        for (UUID userId : List.of(ownerId, memberId)) {
+            mvc.perform(post("/bookshelf_service/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("\"" + userId + "\""));
+        }
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        List<UUID> bookshelfIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request))
+                            .param("userId", ownerId.toString())).andReturn();
+            bookshelfIds.add(UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId")));
+        }
+        Bookshelf circle = bookshelfRepository.findById(bookshelfIds.get(0)).orElseThrow();
+        circle.setMembers(new ArrayList<>(List.of(userRepository.findById(memberId).orElseThrow())));
+        bookshelfRepository.saveAndFlush(circle);
+        entityManager.clear();
+
+        List<UUID> bookIds = List.of(UUID.fromString("0b2d1c4e-8a5f-4c3b-9d7e-6f1a2b3c4d5e"),
+                UUID.fromString("1c3e2d5f-9b6a-4d4c-8e8f-7a2b3c4d5e6f"));
+        for (UUID bookId : bookIds) {
+            Book book = new Book().title("title").authors(List.of("author")).description("description")
+                    .bookId(bookId).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+        }
+        bookRepository.flush();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(0) + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andExpect(status().isOk());
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(1) + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds.subList(0, 1))))
+                .andExpect(status().isOk());
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        // a tagged wrapper has to lose its tags before it can be deleted
+        BookWrapper tagged = bookWrapperRepository.findById(new BookWrapperId(bookIds.get(1), ownerId)).orElseThrow();
+        tagged.setTags(new ArrayList<>(List.of(new BookTag().name("tag"))));
+        bookWrapperRepository.saveAndFlush(tagged);
+        entityManager.clear();
+
+        String etag = mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfIds.get(0)))
+                .andReturn().getResponse().getHeader("ETag");
+        String publicEtag = mvc.perform(get("/bookshelf_service/bookshelf/get_public"))
+                .andReturn().getResponse().getHeader("ETag");
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(0) + "/" + ownerId + "/book/delete_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(bookIds.get(0), bookIds.get(1), bookIds.get(0)))))
+                .andExpect(status().isOk());
+        long twoBooksTwoUsers = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        entityManager.clear();
+
+        // only the owner still gets the first book, from the other bookshelf
+        assertEquals(1, bookWrapperRepository.count());
+        assertEquals(1, bookWrapperRepository.findById(new BookWrapperId(bookIds.get(0), ownerId)).orElseThrow().getShelfCount());
+        assertTrue(bookshelfRepository.findById(bookshelfIds.get(0)).orElseThrow().getBooks().isEmpty());
+        assertEquals(1, bookshelfRepository.findById(bookshelfIds.get(1)).orElseThrow().getBooks().size());
+        mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfIds.get(0)).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").header("If-None-Match", publicEtag))
+                .andExpect(status().isOk());
+        entityManager.clear();
+
+        // the statements do not depend on how many books are removed or how many users share the bookshelf
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfIds.get(1) + "/" + ownerId + "/book/delete_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds.subList(0, 1))))
+                .andExpect(status().isOk());
+        long oneBookOneUser = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        entityManager.clear();
+
+        // the bookshelf and its members, the three checks of the books, and the five statements
+        // that remove the books and release the wrappers
+        assertEquals(10, oneBookOneUser);
+        assertEquals(oneBookOneUser, twoBooksTwoUsers);
+        assertEquals(0, bookWrapperRepository.count());
+    }
+
+    @Test
+    void deleteBookshelfHidesItThenReaperRemovesItTest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        UUID memberId = UUID.randomUUID();
+        for (UUID userId : List.of(ownerId, memberId)) {
+            mvc.perform(post("/bookshelf_service/user")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("\"" + userId + "\""));
+        }
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", ownerId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        Bookshelf circle = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        circle.setMembers(new ArrayList<>(List.of(userRepository.findById(memberId).orElseThrow())));
+        bookshelfRepository.saveAndFlush(circle);
+        entityManager.clear();
+
+        List<UUID> bookIds = List.of(UUID.fromString("0b2d1c4e-8a5f-4c3b-9d7e-6f1a2b3c4d5e"),
+                UUID.fromString("1c3e2d5f-9b6a-4d4c-8e8f-7a2b3c4d5e6f"));
+        for (UUID bookId : bookIds) {
+            Book book = new Book().title("title").authors(List.of("author")).description("description")
+                    .bookId(bookId).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+        }
+        bookRepository.flush();
+        mvc.perform(put("/bookshelf_service/bookshelf/" + bookshelfId + "/" + ownerId + "/book/add_multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookIds)))
+                .andExpect(status().isOk());
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        mvc.perform(delete("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId)
+                        .param("userId", ownerId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").doesNotExist());
+        bookshelfRepository.flush();
+        entityManager.clear();
+
+        // hidden and its wrappers released from the moment the delete returns, the books are left for the reaper
+        mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId))
+                .andExpect(status().isNotFound());
+        assertTrue(bookshelfRepository.findById(bookshelfId).isEmpty());
+        assertTrue(bookshelfRepository.findByOwnerId(ownerId).isEmpty());
+        assertEquals(List.of(bookshelfId), bookshelfRepository.findDeletedIds(10));
+        assertEquals(0, bookWrapperRepository.count());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookshelf_books", Long.class));
+
+        assertEquals(1, bookshelfReaper.reap());
+        entityManager.clear();
+
+        assertTrue(bookshelfRepository.findDeletedIds(10).isEmpty());
+        assertEquals(0, bookWrapperRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookshelf_books", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookshelf_members", Long.class));
+        assertTrue(userRepository.findById(memberId).isPresent());
+    }
+
+    @Test
+    void batchGetBooksTest() throws Exception {
+        Book book = new Book()
+                .title("title")
+                .authors(List.of("author", "other author"))
+                .description("description")
+                .bookId(UUID.fromString("ccb429f2-6169-437b-9b41-deac01c8f34c")).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        bookRepository.flush();
+
+        UUID missing = UUID.fromString("0b2d1c4e-8a5f-4c3b-9d7e-6f1a2b3c4d5e");
+        mvc.perform(post("/bookshelf_service/catalog/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(missing, book.getBookId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].title").value("title"))
+                .andExpect(jsonPath("$.books[0].authors[1]").value("other author"))
+                .andExpect(jsonPath("$.missing[0]").value(missing.toString()));
+        mvc.perform(post("/bookshelf_service/catalog/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"not an id\"]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void foldedSearchColumnsTest() throws Exception {
+        Book book = new Book()
+                .title("Le P\u00e8re Goriot")
+                .authors(List.of("Honor\u00e9 de Balzac"))
+                .description("description")
+                .bookId(UUID.fromString("ccb429f2-6169-437b-9b41-deac01c8f34c")).numPages(100).genres(List.of(Book.GenresEnum.DRAMA));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titleFolded").doesNotExist())
+                .andExpect(jsonPath("$.authorsFolded").doesNotExist())
+                .andExpect(jsonPath("$.contentHash").doesNotExist());
+        bookRepository.flush();
+
+        assertEquals(1, bookRepository.findByTitleFoldedContainingAndAuthorsFoldedContaining("pere", "balzac").size());
+        assertEquals(BookRecord.of(book).getContentHash(), bookRepository.findAllVersions().get(0).getContentHash());
+        // a match never spans two authors
+        assertEquals(0, bookRepository.findByTitleFoldedContainingAndAuthorsFoldedContaining("", "c%").size());
+
+        book.setAuthors(List.of("\u00c9mile Zola"));
+        mvc.perform(put("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        bookRepository.flush();
+
+        assertEquals(0, bookRepository.findByTitleFoldedContainingAndAuthorsFoldedContaining("pere", "balzac").size());
+        assertEquals(1, bookRepository.findByTitleFoldedContainingAndAuthorsFoldedContaining("pere", "emile").size());
+        assertEquals(BookRecord.of(book).getContentHash(), bookRepository.findAllVersions().get(0).getContentHash());
+    }
+
+    @Test
+    void foldedPrefixSearchUsesIndexesTest() throws Exception {
+        Book book = new Book()
+                .title("Le P\u00e8re Goriot")
+                .authors(List.of("Honor\u00e9 de Balzac", "\u00c9mile Zola"))
+                .description("description")
+                .bookId(UUID.randomUUID()).numPages(100).genres(List.of(Book.GenresEnum.DRAMA));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        bookRepository.flush();
+
+        assertEquals(1, bookRepository.findByTitleFoldedStartingWith("le pere").size());
+        assertEquals(0, bookRepository.findByTitleFoldedStartingWith("pere").size());
+        assertEquals(1, bookRepository.findByAuthorsFoldedStartingWith("honore").size());
+        assertEquals(0, bookRepository.findByAuthorsFoldedStartingWith("emile").size());
+        assertEquals(1, bookRepository.findByAuthorsFoldedContaining(TextNormalizer.AUTHOR_SEPARATOR + "emile").size());
+
+        // a prefix match is a range scan on the index of the folded column
+        String plan = "EXPLAIN SELECT id FROM book WHERE %s LIKE ? ESCAPE '\\'";
+        assertTrue(jdbcTemplate.queryForObject(String.format(plan, "title_folded"), String.class, "le pere%")
+                .toUpperCase().contains("IDX_BOOK_TITLE_FOLDED"));
+        assertTrue(jdbcTemplate.queryForObject(String.format(plan, "authors_folded"), String.class, "honore%")
+                .toUpperCase().contains("IDX_BOOK_AUTHORS_FOLDED"));
+    }
+
+    @Test
+    void similarBooksTest() throws Exception {
+        Book book = new Book()
+                .title("Moby Dick")
+                .authors(List.of("Herman Melville"))
+                .description("description")
+                .bookId(UUID.fromString("ccb429f2-6169-437b-9b41-deac01c8f34c")).numPages(100).genres(List.of(Book.GenresEnum.DRAMA));
+        Book similar = new Book()
+                .title("Billy Budd")
+                .authors(List.of("Herman Melville"))
+                .description("description")
+                .bookId(UUID.fromString("0b2d1c4e-8a5f-4c3b-9d7e-6f1a2b3c4d5e")).numPages(100).genres(List.of(Book.GenresEnum.DRAMA));
+        for (Book b : List.of(book, similar)) {
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(b)))
+                    .andExpect(status().isOk());
+        }
+
+        mvc.perform(get("/bookshelf_service/catalog/{bookId}/similar", book.getBookId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Billy Budd"));
+        mvc.perform(get("/bookshelf_service/catalog/{bookId}/similar", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/bookshelf_service/catalog/{bookId}/similar", book.getBookId()).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void conditionalGetBookTest() throws Exception {
+        Book book = new Book()
+                .title("title")
+                .authors(List.of("author"))
+                .description("description")
+                .bookId(UUID.fromString("ccb429f2-6169-437b-9b41-deac01c8f34c")).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+
+        String etag = mvc.perform(get("/bookshelf_service/catalog/{bookId}", book.getBookId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(get("/bookshelf_service/catalog/{bookId}", book.getBookId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        book.setTitle("new title");
+        mvc.perform(put("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        String newEtag = mvc.perform(get("/bookshelf_service/catalog/{bookId}", book.getBookId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("new title"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertTrue(newEtag != null && !newEtag.equals(etag));
+    }
+
+    @Test
+    void conditionalGetBookshelfTest() throws Exception {
+        UUID userId = UUID.randomUUID();
+        mvc.perform(post("/bookshelf_service/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("\"" + userId + "\""));
+        String publicEtag = mvc.perform(get("/bookshelf_service/bookshelf/get_public"))
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").header("If-None-Match", publicEtag))
+                .andExpect(status().isNotModified());
+
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", userId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        bookshelfRepository.flush();
+        mvc.perform(get("/bookshelf_service/bookshelf/get_public").header("If-None-Match", publicEtag))
+                .andExpect(status().isOk());
+
+        String etag = mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // adding a book changes the version of the bookshelf
+        Book book = new Book()
+                .title("title")
+                .authors(List.of("author"))
+                .description("description")
+                .bookId(UUID.fromString("ccb429f2-6169-437b-9b41-deac01c8f34c")).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+        mvc.perform(post("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        bookshelf.addBooksItem(bookRepository.findById(book.getBookId()).orElseThrow());
+        bookshelfRepository.saveAndFlush(bookshelf);
+        String withBook = mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // and so does editing a book on it
+        book.setTitle("new title");
+        mvc.perform(put("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+        mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId).header("If-None-Match", withBook))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].title").value("new title"));
+    }
+
+    @Test
+    void conditionalGetBookshelfAfterBookDeleteTest() throws Exception {
+        UUID userId = UUID.randomUUID();
+        mvc.perform(post("/bookshelf_service/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("\"" + userId + "\""));
+        BookshelfPostRequest request = new BookshelfPostRequest()
+                .title("title")
+                .description("description")
+                .privacy(BookshelfPostRequest.PrivacyEnum.PUBLIC);
+        MvcResult result = mvc.perform(post("/bookshelf_service/bookshelf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .param("userId", userId.toString())).andReturn();
+        UUID bookshelfId = UUID.fromString(JsonPath.parse(result.getResponse().getContentAsString()).read("bookshelfId"));
+        List<Book> books = new ArrayList<>();
+        for (String title : List.of("A", "B")) {
+            Book book = new Book().title(title).authors(List.of("author")).description("description")
+                    .bookId(UUID.randomUUID()).numPages(100).genres(List.of(Book.GenresEnum.ROMANCE));
+            mvc.perform(post("/bookshelf_service/catalog")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book)))
+                    .andExpect(status().isOk());
+            books.add(book);
+        }
+        Bookshelf bookshelf = bookshelfRepository.findById(bookshelfId).orElseThrow();
+        for (Book book : books) {
+            bookshelf.addBooksItem(bookRepository.findById(book.getBookId()).orElseThrow());
+        }
+        bookshelfRepository.saveAndFlush(bookshelf);
+        entityManager.clear();
+
+        // edit A, delete A, edit B: the sum of the book versions is the same before and after the delete
+        books.get(0).setTitle("A edited");
+        mvc.perform(put("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(books.get(0))))
+                .andExpect(status().isOk());
+        String afterEdit = mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(delete("/bookshelf_service/catalog")
+                        .param("bookId", books.get(0).getBookId().toString()))
+                .andExpect(status().isOk());
+        books.get(1).setTitle("B edited");
+        mvc.perform(put("/bookshelf_service/catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(books.get(1))))
+                .andExpect(status().isOk());
+        bookRepository.flush();
+        entityManager.clear();
+
+        String afterDelete = mvc.perform(get("/bookshelf_service/bookshelf/{bookshelfId}", bookshelfId)
+                        .header("If-None-Match", afterEdit))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(1))
+                .andExpect(jsonPath("$.books[0].title").value("B edited"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(afterEdit, afterDelete);
+    }
+
     @Test
     void editBookTest() throws Exception {
         Book book = new Book()